@@ -0,0 +1,209 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.claim;
+
+import io.github.photowey.redisson.delay.queue.api.manager.RedissonDelayedQueueManager;
+import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import io.github.photowey.redisson.delay.queue.core.task.ClaimCheck;
+import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.redisson.api.RBucket;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.Codec;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * {@code ClaimCheckStore}
+ * <p>
+ * Claim-check for large payloads:
+ * |- On offer, a payload of at least {@code threshold} serialized bytes is stored once under its own key
+ * |- {key}:{taskId}, expiring at the due time plus {@code grace}, and the queue carries a {@link ClaimCheck} instead.
+ * |- On dispatch, the payload is fetched back just before the listeners handle the task, then dropped.
+ * <p>
+ * One key per task, hash-tagged by the taskId, spreads the payloads over the cluster slots instead of one hot hash.
+ * <p>
+ * A disabled store checks nothing in, tasks are offered and dispatched as is.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class ClaimCheckStore {
+
+    private final RedissonDelayedQueueManager manager;
+    private final RedissonProperties.ClaimCheck claimCheck;
+
+    public ClaimCheckStore(RedissonDelayedQueueManager manager, RedissonProperties.ClaimCheck claimCheck) {
+        this.manager = manager;
+        this.claimCheck = claimCheck;
+    }
+
+    // ----------------------------------------------------------------
+
+    public boolean enabled() {
+        // The LOCAL engine keeps everything in-process, nothing to offload.
+        return this.claimCheck.enabled() && !this.manager.redissonProperties().delayed().engine().local();
+    }
+
+    /**
+     * Store a large payload aside.
+     *
+     * @param task the task bound for the engine
+     * @param <P>  the payload type
+     * @return the task to offer to the engine, {@code task} itself if the payload stays inline
+     */
+    public <P extends Serializable> RedissonDelayedTask<P> checkIn(RedissonDelayedTask<P> task) {
+        byte[] payload = this.tryEncode(task);
+        if (null == payload) {
+            return task;
+        }
+
+        this.store(task.taskId()).set(payload, Duration.ofMillis(this.determineTtlMillis(task)));
+
+        return this.populateReference(task, payload);
+    }
+
+    public <P extends Serializable> CompletionStage<RedissonDelayedTask<P>> checkInAsync(RedissonDelayedTask<P> task) {
+        byte[] payload;
+        try {
+            payload = this.tryEncode(task);
+        } catch (Exception e) {
+            CompletableFuture<RedissonDelayedTask<P>> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+
+            return rejected;
+        }
+
+        if (null == payload) {
+            return CompletableFuture.completedFuture(task);
+        }
+
+        return this.store(task.taskId()).setAsync(payload, Duration.ofMillis(this.determineTtlMillis(task)))
+                .thenApply((x) -> this.populateReference(task, payload));
+    }
+
+    /**
+     * Swap the {@link ClaimCheck} of a taken task back for its payload.
+     *
+     * @param task the taken task
+     * @return {@code task}, with the payload restored
+     */
+    public RedissonDelayedTask<?> checkOut(RedissonDelayedTask<?> task) {
+        if (!(task.payload() instanceof ClaimCheck)) {
+            return task;
+        }
+
+        return this.restore(task, this.store(task.taskId()).get());
+    }
+
+    public CompletionStage<RedissonDelayedTask<?>> checkOutAsync(RedissonDelayedTask<?> task) {
+        if (!(task.payload() instanceof ClaimCheck)) {
+            return CompletableFuture.completedFuture(task);
+        }
+
+        return this.store(task.taskId()).getAsync().thenApply((payload) -> this.restore(task, payload));
+    }
+
+    /**
+     * Drop the stored payload of a handled or cancelled task, the TTL reclaims whatever is missed here.
+     *
+     * @param taskId the taskId
+     */
+    public void release(String taskId) {
+        if (this.enabled()) {
+            this.store(taskId).deleteAsync();
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    private byte[] tryEncode(RedissonDelayedTask<?> task) {
+        if (!this.enabled() || null == task.payload() || task.payload() instanceof ClaimCheck) {
+            return null;
+        }
+
+        ByteBuf buf;
+        try {
+            buf = this.payloadCodec().getValueEncoder().encode(task.payload());
+        } catch (IOException e) {
+            throw new RuntimeException("redisson.delayqueue: encode payload failed, taskId:" + task.taskId(), e);
+        }
+
+        try {
+            if (buf.readableBytes() < this.claimCheck.threshold()) {
+                return null;
+            }
+
+            return ByteBufUtil.getBytes(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * Until the stamped due time plus the grace, offers stamp their tasks before the check-in.
+     */
+    private long determineTtlMillis(RedissonDelayedTask<?> task) {
+        long dueAt = task.dueAt() > 0 ? task.dueAt() : task.stamp().dueAt();
+
+        return Math.max(dueAt - System.currentTimeMillis(), 0) + this.claimCheck.unit().toMillis(this.claimCheck.grace());
+    }
+
+    private <P extends Serializable> RedissonDelayedTask<P> populateReference(RedissonDelayedTask<P> task, byte[] payload) {
+        // A copy: the caller keeps its task, e.g. to retry a failed offer.
+        return (RedissonDelayedTask<P>) RedissonDelayedTask.builder()
+                .topic(task.topic())
+                .taskId(task.taskId())
+                .delayed(task.delayed())
+                .timeUnit(task.getTimeUnit())
+                .dueAt(task.dueAt())
+                .payload(new ClaimCheck(task.taskId(), payload.length))
+                .build();
+    }
+
+    private RedissonDelayedTask<?> restore(RedissonDelayedTask<?> task, byte[] payload) {
+        if (null == payload) {
+            throw new RuntimeException(
+                    "redisson.delayqueue: claim-check payload expired or missing, topic:" + task.topic() + ", taskId:" + task.taskId());
+        }
+
+        ByteBuf buf = Unpooled.wrappedBuffer(payload);
+        try {
+            ((RedissonDelayedTask<Serializable>) task).setPayload((Serializable) this.payloadCodec().getValueDecoder().decode(buf, null));
+        } catch (IOException e) {
+            throw new RuntimeException("redisson.delayqueue: decode payload failed, taskId:" + task.taskId(), e);
+        } finally {
+            buf.release();
+        }
+
+        return task;
+    }
+
+    private Codec payloadCodec() {
+        return this.manager.redisson().getConfig().getCodec();
+    }
+
+    private RBucket<byte[]> store(String taskId) {
+        return this.manager.redisson().getBucket(this.claimCheck.key() + ":{" + taskId + "}", ByteArrayCodec.INSTANCE);
+    }
+}
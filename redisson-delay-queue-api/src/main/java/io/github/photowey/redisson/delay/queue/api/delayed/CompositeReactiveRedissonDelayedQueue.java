@@ -0,0 +1,209 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.delayed;
+
+import io.github.photowey.redisson.delay.queue.api.claim.ClaimCheckStore;
+import io.github.photowey.redisson.delay.queue.api.manager.RedissonDelayedQueueManager;
+import io.github.photowey.redisson.delay.queue.core.pair.QueuePair;
+import io.github.photowey.redisson.delay.queue.core.task.ClaimCheck;
+import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+import io.github.photowey.redisson.delay.queue.core.task.TaskContext;
+import org.redisson.api.RedissonReactiveClient;
+import org.springframework.util.ObjectUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code CompositeReactiveRedissonDelayedQueue}
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/13
+ */
+public class CompositeReactiveRedissonDelayedQueue implements ReactiveRedissonDelayedQueue {
+
+    private final RedissonDelayedQueue delayedQueue;
+    private final RedissonReactiveClient redissonReactive;
+
+    public CompositeReactiveRedissonDelayedQueue(RedissonDelayedQueue delayedQueue, RedissonReactiveClient redissonReactive) {
+        this.delayedQueue = delayedQueue;
+        this.redissonReactive = redissonReactive;
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public RedissonReactiveClient redissonReactive() {
+        return this.redissonReactive;
+    }
+
+    @Override
+    public RedissonDelayedQueueManager manager() {
+        return this.delayedQueue.manager();
+    }
+
+    @Override
+    public String topic() {
+        return this.delayedQueue.topic();
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public <P extends Serializable> Mono<Void> offer(RedissonDelayedTask<P> task) {
+        return Mono.fromCompletionStage(() -> this.delayedQueue.offerAsync(task));
+    }
+
+    @Override
+    public Mono<Boolean> cancel(String taskId) {
+        return this.claim(taskId)
+                .doOnNext((cancelled) -> {
+                    if (cancelled) {
+                        this.manager().claimCheckStore().release(taskId);
+                    }
+                });
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public Flux<TaskContext<?>> consume(String topic) {
+        return Flux.defer(() -> {
+            QueuePair pair = this.manager().tryAcquirePair(topic);
+            if (ObjectUtils.isEmpty(pair)) {
+                return Flux.error(new RuntimeException("The topic:[" + topic + "] is not registered."));
+            }
+
+            return Flux.create(sink -> {
+                TakeLoop loop = new TakeLoop(pair, sink);
+                sink.onRequest(loop::request);
+                sink.onDispose(loop::dispose);
+            });
+        });
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * The next claimed task of the topic, empty if the taken one was cancelled.
+     */
+    private Mono<RedissonDelayedTask<?>> next(QueuePair pair) {
+        return Mono.<RedissonDelayedTask<?>>fromCompletionStage(() -> pair.engine().takeAsync())
+                // Promoted by the timing wheel tier: handed out early, hold it until due.
+                .flatMap(task -> {
+                    long remaining = task.dueAt() - System.currentTimeMillis();
+                    return remaining > 0 ? Mono.delay(Duration.ofMillis(remaining)).thenReturn(task) : Mono.just(task);
+                })
+                .flatMap(task -> this.tryClaim(pair, task)
+                        .flatMap((claimed) -> {
+                            if (claimed) {
+                                return this.checkOut(task);
+                            }
+
+                            // Cancelled, or a duplicate taskId.
+                            pair.engine().ack(task);
+                            this.manager().metrics().recordCancelled(task.topic());
+                            return Mono.empty();
+                        }));
+    }
+
+    private Mono<Boolean> tryClaim(QueuePair pair, RedissonDelayedTask<?> task) {
+        // Redelivered tasks were claimed by their first consumer already.
+        return pair.engine().redelivered(task) ? Mono.just(true) : this.claim(task.taskId());
+    }
+
+    private Mono<Boolean> claim(String taskId) {
+        return Mono.fromCompletionStage(() -> this.manager().taskRegistry().removeAsync(taskId));
+    }
+
+    private Mono<RedissonDelayedTask<?>> checkOut(RedissonDelayedTask<?> task) {
+        if (!(task.payload() instanceof ClaimCheck)) {
+            return Mono.just(task);
+        }
+
+        ClaimCheckStore store = this.manager().claimCheckStore();
+
+        // Handed to the subscriber once fetched, nothing left to keep aside.
+        return Mono.fromCompletionStage(() -> store.checkOutAsync(task))
+                .doOnNext((x) -> store.release(task.taskId()));
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Demand-driven take loop: one take in flight at most, and only while the subscriber has requested more.
+     * |- A task is acknowledged to the engine once emitted.
+     * |- A cancel while a take is in flight loses that one task, unless the engine redelivers it(e.g. {@code STREAM}).
+     */
+    private class TakeLoop {
+
+        private final QueuePair pair;
+        private final FluxSink<TaskContext<?>> sink;
+
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicBoolean taking = new AtomicBoolean();
+
+        private volatile Disposable inflight;
+
+        TakeLoop(QueuePair pair, FluxSink<TaskContext<?>> sink) {
+            this.pair = pair;
+            this.sink = sink;
+        }
+
+        void request(long n) {
+            this.demand.getAndUpdate((x) -> x + n < 0 ? Long.MAX_VALUE : x + n);
+            this.drain();
+        }
+
+        void dispose() {
+            Disposable inflight = this.inflight;
+            if (null != inflight) {
+                inflight.dispose();
+            }
+        }
+
+        private void drain() {
+            if (this.sink.isCancelled() || this.demand.get() <= 0 || !this.taking.compareAndSet(false, true)) {
+                return;
+            }
+
+            this.inflight = next(this.pair).subscribe(
+                    this::emit,
+                    (cause) -> {
+                        this.taking.set(false);
+                        this.sink.error(cause);
+                    },
+                    () -> {
+                        this.taking.set(false);
+                        this.drain();
+                    }
+            );
+        }
+
+        private void emit(RedissonDelayedTask<?> task) {
+            this.sink.next(task.toTaskContext());
+            this.pair.engine().ack(task);
+            this.demand.decrementAndGet();
+        }
+    }
+}
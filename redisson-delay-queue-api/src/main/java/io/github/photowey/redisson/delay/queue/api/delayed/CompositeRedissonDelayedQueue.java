@@ -16,10 +16,16 @@
 package io.github.photowey.redisson.delay.queue.api.delayed;
 
 import io.github.photowey.redisson.delay.queue.api.manager.RedissonDelayedQueueManager;
+import io.github.photowey.redisson.delay.queue.api.metrics.DelayedQueueMetrics;
 import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import io.github.photowey.redisson.delay.queue.api.registry.TaskRegistry;
+import io.github.photowey.redisson.delay.queue.api.wheel.TimingWheelTier;
+import io.github.photowey.redisson.delay.queue.core.engine.DelayedQueueEngine;
 import io.github.photowey.redisson.delay.queue.core.pair.QueuePair;
+import io.github.photowey.redisson.delay.queue.core.task.OfferResult;
 import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
-import org.redisson.api.RDelayedQueue;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.ListableBeanFactory;
@@ -27,6 +33,10 @@ import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
 import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 
 /**
  * {@code CompositeRedissonDelayedQueue}
@@ -78,29 +88,229 @@ public class CompositeRedissonDelayedQueue implements RedissonDelayedQueue {
 
     @Override
     public void registerTask(String taskId) {
-        String taskSet = this.redissonProperties().delayed().registry().taskSet();
-        this.redisson().getSetCache(taskSet).add(taskId);
+        this.manager().taskRegistry().register(taskId);
+    }
+
+    @Override
+    public CompletionStage<Boolean> registerTaskAsync(String taskId) {
+        return this.manager().taskRegistry().registerAsync(taskId);
     }
 
     // ----------------------------------------------------------------
 
     @Override
     public <P extends Serializable> void offer(RedissonDelayedTask<P> task) {
-        RDelayedQueue<RedissonDelayedTask<?>> delayedQueue = this.determineDelayedQueue(task);
-        delayedQueue.offer(task, task.delayed(), task.determineTimeUnit());
+        long started = System.nanoTime();
+        boolean success = false;
+        try {
+            this.tryOffer(task);
+            success = true;
+        } finally {
+            this.recordOffer(task, System.nanoTime() - started, success);
+        }
+    }
 
-        this.registerTask(task.taskId());
+    @Override
+    public <P extends Serializable> CompletionStage<Void> offerAsync(RedissonDelayedTask<P> task) {
+        long started = System.nanoTime();
+
+        return this.tryOfferAsync(task).whenComplete((x, cause) -> this.recordOffer(task, System.nanoTime() - started, null == cause));
+    }
+
+    @Override
+    public List<OfferResult> offerAll(Collection<? extends RedissonDelayedTask<?>> tasks) {
+        if (ObjectUtils.isEmpty(tasks)) {
+            return Collections.emptyList();
+        }
+
+        long started = System.nanoTime();
+        List<OfferResult> results = this.tryOfferAll(tasks);
+        // One round trip for the whole batch, each task is recorded with its share.
+        long nanos = (System.nanoTime() - started) / Math.max(results.size(), 1);
+        Iterator<? extends RedissonDelayedTask<?>> it = tasks.iterator();
+        for (OfferResult result : results) {
+            this.recordOffer(it.next(), nanos, result.success());
+        }
+
+        return results;
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public boolean cancel(String taskId) {
+        boolean cancelled = this.manager().removeTask(taskId);
+        if (cancelled) {
+            this.manager().claimCheckStore().release(taskId);
+        }
+
+        return cancelled;
+    }
+
+    @Override
+    public boolean cancel(String topic, String taskId) {
+        boolean cancelled = this.cancel(taskId);
+
+        QueuePair pair = this.manager().tryAcquirePair(StringUtils.hasText(topic) ? topic : this.topic());
+        if (!ObjectUtils.isEmpty(pair)) {
+            // Drop the pending entry as well, if the engine indexes it by taskId.
+            pair.engine().remove(taskId);
+        }
+
+        return cancelled;
     }
 
     // ----------------------------------------------------------------
 
-    private <P extends Serializable> RDelayedQueue<RedissonDelayedTask<?>> determineDelayedQueue(RedissonDelayedTask<P> task) {
+    private <P extends Serializable> void tryOffer(RedissonDelayedTask<P> offered) {
+        // A stamped copy: the due time travels with it, and the caller can offer the same task again.
+        RedissonDelayedTask<P> task = offered.stamp();
+        DelayedQueueEngine engine = this.determineEngine(task);
+
+        // Register first: the dispatcher skips tasks that are not registered(cancelled).
+        this.registerTask(task.taskId());
+        if (this.manager().timingWheel().tryHold(task)) {
+            return;
+        }
+
+        try {
+            engine.offer(this.manager().timingWheel().promote(this.manager().claimCheckStore().checkIn(task)));
+        } catch (RuntimeException e) {
+            this.manager().removeTask(task.taskId());
+            this.manager().claimCheckStore().release(task.taskId());
+            throw e;
+        }
+    }
+
+    private <P extends Serializable> CompletionStage<Void> tryOfferAsync(RedissonDelayedTask<P> offered) {
+        RedissonDelayedTask<P> task = offered.stamp();
+        DelayedQueueEngine engine;
+        try {
+            engine = this.determineEngine(task);
+        } catch (Exception e) {
+            CompletableFuture<Void> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+
+            return rejected;
+        }
+
+        return this.registerTaskAsync(task.taskId())
+                .thenCompose((x) -> this.tryHoldAsync(engine, task))
+                .whenComplete((x, cause) -> {
+                    if (null != cause) {
+                        this.manager().taskRegistry().removeAsync(task.taskId());
+                        this.manager().claimCheckStore().release(task.taskId());
+                    }
+                });
+    }
+
+    private List<OfferResult> tryOfferAll(Collection<? extends RedissonDelayedTask<?>> tasks) {
+        List<RedissonDelayedTask<?>> candidates = new ArrayList<>(tasks.size());
+        for (RedissonDelayedTask<?> task : tasks) {
+            candidates.add(task.stamp());
+        }
+        OfferResult[] results = new OfferResult[candidates.size()];
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+
+        for (int i = 0; i < candidates.size(); i++) {
+            RedissonDelayedTask<?> task = candidates.get(i);
+            try {
+                this.determineEngine(task);
+                groups.computeIfAbsent(task.topic(), (x) -> new ArrayList<>()).add(i);
+            } catch (Exception e) {
+                results[i] = OfferResult.failed(task, e);
+            }
+        }
+
+        TaskRegistry registry = this.manager().taskRegistry();
+        RBatch batch = this.redisson().createBatch();
+
+        // Register first: the dispatcher skips tasks that are not registered(cancelled).
+        Map<Integer, RFuture<Boolean>> registers = new LinkedHashMap<>(candidates.size());
+        groups.forEach((topic, indexes) -> {
+            for (Integer index : indexes) {
+                registers.put(index, registry.registerAsync(batch, candidates.get(index).taskId()));
+            }
+        });
+
+        Throwable batchCause = this.tryExecuteBatch(batch);
+
+        Map<Integer, CompletionStage<Void>> offers = new LinkedHashMap<>(candidates.size());
+        registers.forEach((index, register) -> {
+            RedissonDelayedTask<?> task = candidates.get(index);
+            Throwable cause = null != batchCause && !register.isDone() ? batchCause : this.tryAwait(register);
+            if (null != cause) {
+                results[index] = OfferResult.failed(task, cause);
+                return;
+            }
+
+            DelayedQueueEngine engine = this.manager().tryAcquirePair(task.topic()).engine();
+            offers.put(index, this.tryHoldAsync(engine, task));
+        });
+
+        offers.forEach((index, offer) -> {
+            RedissonDelayedTask<?> task = candidates.get(index);
+            Throwable cause = this.tryAwait(offer);
+            if (null != cause) {
+                registry.removeAsync(task.taskId());
+                this.manager().claimCheckStore().release(task.taskId());
+            }
+
+            results[index] = null == cause ? OfferResult.succeed(task) : OfferResult.failed(task, cause);
+        });
+
+        return Arrays.asList(results);
+    }
+
+    private <P extends Serializable> CompletionStage<Void> tryHoldAsync(DelayedQueueEngine engine, RedissonDelayedTask<P> task) {
+        TimingWheelTier wheel = this.manager().timingWheel();
+        if (wheel.tryHold(task)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return this.manager().claimCheckStore()
+                .checkInAsync(task)
+                .thenApply(wheel::promote)
+                .thenCompose(engine::offerAsync);
+    }
+
+    private void recordOffer(RedissonDelayedTask<?> task, long nanos, boolean success) {
+        // Rejected before the topic was resolved: fall back to the default topic.
+        String topic = StringUtils.hasText(task.topic()) ? task.topic() : this.topic();
+        if (null == this.manager().tryAcquirePair(topic)) {
+            topic = DelayedQueueMetrics.UNREGISTERED_TOPIC;
+        }
+
+        this.manager().metrics().recordOffer(topic, nanos, success);
+    }
+
+    private Throwable tryExecuteBatch(RBatch batch) {
+        try {
+            batch.execute();
+            return null;
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    private Throwable tryAwait(CompletionStage<?> future) {
+        try {
+            future.toCompletableFuture().join();
+            return null;
+        } catch (CompletionException e) {
+            return null != e.getCause() ? e.getCause() : e;
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    private <P extends Serializable> DelayedQueueEngine determineEngine(RedissonDelayedTask<P> task) {
         long delayMax = this.redissonProperties().delayed().max();
         task.checkDelayMillis(delayMax);
 
         QueuePair pair = this.determinePair(task);
 
-        return pair.delayedQueue();
+        return pair.engine();
     }
 
     private <P extends Serializable> QueuePair determinePair(RedissonDelayedTask<P> task) {
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.delayed;
+
+import io.github.photowey.redisson.delay.queue.api.getter.RedissonDelayedQueueManagerGetter;
+import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+import io.github.photowey.redisson.delay.queue.core.task.TaskContext;
+import org.redisson.api.RedissonReactiveClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * {@code ReactiveRedissonDelayedQueue}
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/13
+ */
+public interface ReactiveRedissonDelayedQueue extends RedissonDelayedQueueManagerGetter {
+
+    RedissonReactiveClient redissonReactive();
+
+    /**
+     * Default support topic
+     *
+     * @return the default topic.
+     */
+    String topic();
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Offer a task, the taskId must be unique among the pending tasks.
+     *
+     * @param task the task
+     * @param <P>  the payload type
+     * @return the offer
+     * @see RedissonDelayedQueue#offer(RedissonDelayedTask)
+     */
+    <P extends Serializable> Mono<Void> offer(RedissonDelayedTask<P> task);
+
+    /**
+     * Offer a task that fires at an absolute time, the delay is derived from {@code at} on subscription.
+     * <p>
+     * A stamped copy is offered, the given task is left unchanged.
+     *
+     * @param task the task
+     * @param at   the fire time, a time in the past fires right away
+     * @param <P>  the payload type
+     * @return the offer
+     */
+    default <P extends Serializable> Mono<Void> offerAt(RedissonDelayedTask<P> task, Instant at) {
+        return Mono.defer(() -> this.offer(task.stampAt(at)));
+    }
+
+    /**
+     * Cancel a pending task by removing it from the task registry.
+     *
+     * @param taskId the task id
+     * @return true if the task was registered.
+     */
+    Mono<Boolean> cancel(String taskId);
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Consume the ready tasks of the topic.
+     * <p>
+     * Takes follow the downstream demand: one at a time, and only while the subscriber has requested more.
+     * Each emitted task is acknowledged to the engine.
+     * The consumed tasks compete with the scheduler, exclude the topic from it({@code delayed.scheduler.excludes}).
+     *
+     * @param topic the topic
+     * @return the ready tasks
+     */
+    Flux<TaskContext<?>> consume(String topic);
+
+    default Flux<TaskContext<?>> consume() {
+        return this.consume(this.topic());
+    }
+}
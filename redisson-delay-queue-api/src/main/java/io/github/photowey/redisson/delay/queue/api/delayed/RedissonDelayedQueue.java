@@ -17,10 +17,15 @@ package io.github.photowey.redisson.delay.queue.api.delayed;
 
 import io.github.photowey.redisson.delay.queue.api.manager.RedissonDelayedQueueManager;
 import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import io.github.photowey.redisson.delay.queue.core.task.OfferResult;
 import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
 import org.redisson.api.RedissonClient;
 
 import java.io.Serializable;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
 
 /**
  * {@code RedissonDelayedQueue}
@@ -45,7 +50,88 @@ public interface RedissonDelayedQueue extends DelayedQueue {
 
     void registerTask(String taskId);
 
+    CompletionStage<Boolean> registerTaskAsync(String taskId);
+
     // ----------------------------------------------------------------
 
+    /**
+     * Offer a task.
+     * <p>
+     * The taskId is the identity of the task, it must be unique among the pending tasks:
+     * |- The registry holds each taskId once, whoever fires first claims it and reaches the listeners.
+     * |- A second task offered under a pending taskId is therefore dropped when it fires(or the first one is,
+     * |- whichever fires later), counted by {@code redisson.delayqueue.dispatch.cancelled}.
+     * |- Once a task fired, its taskId can be offered again.
+     * <p>
+     * Breaking change: earlier versions fired every offered task, a taskId offered twice reached the listeners twice.
+     * Offer each occurrence under its own taskId to keep that behavior.
+     *
+     * @param task the task
+     * @param <P>  the payload type
+     */
     <P extends Serializable> void offer(RedissonDelayedTask<P> task);
+
+    /**
+     * Offer a task that fires at an absolute time, its {@code delayed}/{@code timeUnit} are derived from {@code at}.
+     * <p>
+     * A stamped copy is offered, the given task is left unchanged.
+     *
+     * @param task the task
+     * @param at   the fire time, a time in the past fires right away
+     * @param <P>  the payload type
+     */
+    default <P extends Serializable> void offerAt(RedissonDelayedTask<P> task, Instant at) {
+        this.offer(task.stampAt(at));
+    }
+
+    /**
+     * Offer a task without blocking the caller.
+     * <p>
+     * The task is registered first and then queued,
+     * the returned stage completes once both writes are acknowledged by Redis.
+     *
+     * @param task the task
+     * @param <P>  the payload type
+     * @return the stage, completed exceptionally if the task is rejected or any write fails
+     */
+    <P extends Serializable> CompletionStage<Void> offerAsync(RedissonDelayedTask<P> task);
+
+    default <P extends Serializable> CompletionStage<Void> offerAtAsync(RedissonDelayedTask<P> task, Instant at) {
+        return this.offerAsync(task.stampAt(at));
+    }
+
+    /**
+     * Offer a batch of tasks, grouped by topic.
+     * <p>
+     * The registry writes are sent in one pipeline, then the queue writes are issued without waiting on each other,
+     * a failed task never fails the whole batch.
+     *
+     * @param tasks the tasks
+     * @return the per-task results, in the iteration order of {@code tasks}
+     */
+    List<OfferResult> offerAll(Collection<? extends RedissonDelayedTask<?>> tasks);
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Cancel a pending task.
+     * <p>
+     * The taskId is removed from the registry, the queued entry is skipped without reaching any listener when it fires.
+     *
+     * @param taskId the taskId
+     * @return true if the task was still pending
+     */
+    boolean cancel(String taskId);
+
+    /**
+     * Cancel a pending task of the topic.
+     * <p>
+     * Same as {@link #cancel(String)}, and the pending entry is removed right away
+     * when the engine indexes it by taskId(e.g. the ZSET engine: O(log n)).
+     *
+     * @param topic  the topic, null: the default topic
+     * @param taskId the taskId
+     * @return true if the task was still pending
+     */
+    boolean cancel(String topic, String taskId);
 }
@@ -30,8 +30,22 @@ import java.io.Serializable;
  */
 public class RedissonDelayedTaskEvent extends ApplicationEvent {
 
+    /**
+     * The taskId was already removed from the registry by the dispatcher.
+     */
+    private final boolean claimed;
+
     public RedissonDelayedTaskEvent(RedissonDelayedTask<? extends Serializable> source) {
+        this(source, false);
+    }
+
+    public RedissonDelayedTaskEvent(RedissonDelayedTask<? extends Serializable> source, boolean claimed) {
         super(source);
+        this.claimed = claimed;
+    }
+
+    public boolean claimed() {
+        return this.claimed;
     }
 
     public <T extends Serializable> RedissonDelayedTask<T> task() {
@@ -40,10 +54,6 @@ public class RedissonDelayedTaskEvent extends ApplicationEvent {
 
     public TaskContext<?> toTaskContext() {
         RedissonDelayedTask<Serializable> task = this.task();
-        return TaskContext.builder()
-                .topic(task.topic())
-                .taskId(task.taskId())
-                .payload(task.payload())
-                .build();
+        return task.toTaskContext();
     }
 }
@@ -18,12 +18,34 @@ package io.github.photowey.redisson.delay.queue.api.executor;
 import io.github.photowey.redisson.delay.queue.api.event.RedissonDelayedTaskEvent;
 import io.github.photowey.redisson.delay.queue.api.getter.ApplicationContextGetter;
 import io.github.photowey.redisson.delay.queue.api.manager.RedissonDelayedQueueManager;
+import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import io.github.photowey.redisson.delay.queue.api.wheel.TimingWheelTier;
+import io.github.photowey.redisson.delay.queue.core.engine.DelayedQueueEngine;
+import io.github.photowey.redisson.delay.queue.core.enums.Redisson;
+import io.github.photowey.redisson.delay.queue.core.pair.QueuePair;
 import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+import jodd.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * {@code CompositeRedissonDelayedQueueExecutor}
@@ -33,9 +55,42 @@ import java.io.Serializable;
  * @since 2024/05/12
  */
 public class CompositeRedissonDelayedQueueExecutor implements
-        RedissonDelayedQueueExecutor, ApplicationContextGetter, ApplicationContextAware {
+        RedissonDelayedQueueExecutor, ApplicationContextGetter, ApplicationContextAware, DisposableBean {
+
+    private static final String DISPATCHER_NAME_TEMPLATE = "redisson-delayqueue-dispatcher-%d";
+    private static final String VIRTUAL_WITHOUT_THREAD_FACTORY =
+            "redisson.delayqueue: dispatch mode VIRTUAL requires a DelayedQueueThreadFactory bean, e.g. Spring Boot 3 on Java 21";
+
+    private final ConcurrentHashMap<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    private final DelayedQueueThreadFactory threadFactory;
 
     private ApplicationContext applicationContext;
+    private volatile Executor dispatcher;
+
+    private final Logger log = LoggerFactory.getLogger(CompositeRedissonDelayedQueueExecutor.class);
+
+    public CompositeRedissonDelayedQueueExecutor() {
+        this(null);
+    }
+
+    public CompositeRedissonDelayedQueueExecutor(DelayedQueueThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Checks the dispatch mode against the thread factory up front, a misconfiguration fails the startup
+     * instead of the first dispatch.
+     *
+     * @param threadFactory the thread factory, may be null
+     * @param dispatch      the dispatch config
+     */
+    public CompositeRedissonDelayedQueueExecutor(DelayedQueueThreadFactory threadFactory, RedissonProperties.Dispatch dispatch) {
+        this(threadFactory);
+        if (Redisson.Dispatch.Mode.VIRTUAL == dispatch.mode() && null == threadFactory) {
+            throw new RuntimeException(VIRTUAL_WITHOUT_THREAD_FACTORY);
+        }
+    }
 
     @Override
     public ApplicationContext applicationContext() {
@@ -54,7 +109,312 @@ public class CompositeRedissonDelayedQueueExecutor implements
 
     @Override
     public <P extends Serializable> void execute(RedissonDelayedTask<P> task) {
-        //this.applicationContext.publishEvent(new RedissonDelayedTaskEvent(task));
-        this.manager().redissonEventListener().onEvent(new RedissonDelayedTaskEvent(task));
+        if (this.manager().timingWheel().tryDefer(task)) {
+            return;
+        }
+
+        this.trySubmit(task, false);
+    }
+
+    @Override
+    public void execute(List<RedissonDelayedTask<?>> tasks) {
+        TimingWheelTier wheel = this.manager().timingWheel();
+        List<RedissonDelayedTask<?>> dues = new ArrayList<>(tasks.size());
+        for (RedissonDelayedTask<?> task : tasks) {
+            // Promoted early, the wheel dispatches it on time.
+            if (!wheel.tryDefer(task)) {
+                dues.add(task);
+            }
+        }
+        // Catching up on a backlog: the longest overdue first(stable, unstamped tasks lead in arrival order).
+        dues.sort(Comparator.comparingLong(RedissonDelayedTask::dueAt));
+
+        List<String> taskIds = new ArrayList<>(dues.size());
+        for (RedissonDelayedTask<?> task : dues) {
+            // Redelivered tasks were claimed by their first consumer already.
+            if (!this.redelivered(task)) {
+                taskIds.add(task.taskId());
+            }
+        }
+
+        // Claim the whole chunk in one pipeline, cancelled tasks are dropped here.
+        Map<String, Boolean> claims = this.manager().taskRegistry().removeAll(taskIds);
+        DispatchAbortedException aborted = null;
+        for (RedissonDelayedTask<?> task : dues) {
+            if (this.redelivered(task) || Boolean.TRUE.equals(claims.get(task.taskId()))) {
+                if (null != aborted) {
+                    // The pool is saturated: the rest of the chunk is claimed already, hand it back too.
+                    this.handback(task, true);
+                    continue;
+                }
+                try {
+                    // Per task: the rest of the chunk is claimed already, one failed hand-off must not strand it.
+                    this.trySubmit(task, true);
+                } catch (DispatchAbortedException e) {
+                    aborted = e;
+                }
+            } else {
+                this.ack(task);
+                this.manager().metrics().recordCancelled(task.topic());
+                log.debug("redisson.delayqueue: drop.unregistered.delayed.task,report:[topic:{},taskId:{}]",
+                        task.topic(), task.taskId());
+            }
+        }
+
+        if (null != aborted) {
+            throw aborted;
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        Executor dispatcher = this.dispatcher;
+        if (dispatcher instanceof ExecutorService) {
+            ((ExecutorService) dispatcher).shutdown();
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Build the dispatch pool, override it to plug in a custom pool.
+     *
+     * @param dispatch the dispatch config
+     * @return the dispatch pool
+     */
+    protected Executor createDispatcher(RedissonProperties.Dispatch dispatch) {
+        if (Redisson.Dispatch.Mode.VIRTUAL == dispatch.mode()) {
+            return this.createThreadPerTaskDispatcher();
+        }
+
+        ThreadFactory threadFactory = ThreadFactoryBuilder.create()
+                .setNameFormat(DISPATCHER_NAME_TEMPLATE)
+                .get();
+
+        int coreSize = Math.max(dispatch.coreSize(), 1);
+        return new ThreadPoolExecutor(
+                coreSize,
+                Math.max(dispatch.maxSize(), coreSize),
+                dispatch.keepAlive(),
+                dispatch.unit(),
+                new ArrayBlockingQueue<>(Math.max(dispatch.queueCapacity(), 1)),
+                threadFactory,
+                this.determineRejectionHandler(dispatch.rejection())
+        );
+    }
+
+    // ----------------------------------------------------------------
+
+    private void trySubmit(RedissonDelayedTask<?> task, boolean claimed) {
+        try {
+            this.submit(task, claimed);
+        } catch (DispatchAbortedException e) {
+            // Handed back already, the poller backs off.
+            throw e;
+        } catch (Throwable e) {
+            this.ack(task);
+            log.error("redisson.delayqueue: submit.delayed.task.failed,report:[topic:{},taskId:{}]",
+                    task.topic(), task.taskId(), e);
+        }
+    }
+
+    private void submit(RedissonDelayedTask<?> task, boolean claimed) {
+        long handedAt = System.nanoTime();
+        if (task.dueAt() > 0) {
+            this.manager().metrics().recordFireLag(task.topic(), Math.max(System.currentTimeMillis() - task.dueAt(), 0));
+        }
+
+        RedissonProperties.Dispatch dispatch = this.manager().redissonProperties().delayed().dispatch();
+        if (Redisson.Dispatch.Mode.CALLER == dispatch.mode()) {
+            this.dispatch(task, claimed, handedAt);
+            return;
+        }
+
+        Semaphore permit = this.tryAcquirePermit(task.topic(), dispatch);
+        try {
+            this.dispatcher(dispatch).execute(new DispatchTask(task, claimed, permit, handedAt));
+        } catch (RuntimeException e) {
+            if (null != permit) {
+                permit.release();
+            }
+
+            throw e;
+        }
+    }
+
+    private void dispatch(RedissonDelayedTask<?> task, boolean claimed, long handedAt) {
+        try {
+            //this.applicationContext.publishEvent(new RedissonDelayedTaskEvent(task));
+            this.manager().redissonEventListener().onEvent(new RedissonDelayedTaskEvent(task, claimed || this.redelivered(task)));
+        } finally {
+            this.ack(task);
+            this.manager().metrics().recordDispatchLatency(task.topic(), System.nanoTime() - handedAt);
+        }
+    }
+
+    private void discard(DispatchTask task) {
+        task.release();
+        this.ack(task.task);
+    }
+
+    /**
+     * Offer a rejected task back to its engine as due now, its taskId registered again if it was claimed
+     * (or redelivered, claimed by its first consumer), so it is not taken for cancelled when it fires again.
+     */
+    private void handback(RedissonDelayedTask<?> task, boolean claimed) {
+        DelayedQueueEngine engine = this.engine(task);
+        if (null == engine) {
+            log.error("redisson.delayqueue: dispatch.handback.failed,report:[topic:{},taskId:{},cause:unregistered topic]",
+                    task.topic(), task.taskId());
+            return;
+        }
+
+        try {
+            if (claimed || engine.redelivered(task)) {
+                this.manager().taskRegistry().register(task.taskId());
+            }
+            engine.offer(task);
+            engine.ack(task);
+        } catch (RuntimeException e) {
+            log.error("redisson.delayqueue: dispatch.handback.failed,report:[topic:{},taskId:{}]",
+                    task.topic(), task.taskId(), e);
+        }
+    }
+
+    private void ack(RedissonDelayedTask<?> task) {
+        DelayedQueueEngine engine = this.engine(task);
+        if (null != engine) {
+            engine.ack(task);
+        }
+    }
+
+    private boolean redelivered(RedissonDelayedTask<?> task) {
+        DelayedQueueEngine engine = this.engine(task);
+
+        return null != engine && engine.redelivered(task);
+    }
+
+    private DelayedQueueEngine engine(RedissonDelayedTask<?> task) {
+        QueuePair pair = this.manager().tryAcquirePair(task.topic());
+
+        return null != pair ? pair.engine() : null;
+    }
+
+    private Executor createThreadPerTaskDispatcher() {
+        if (null == this.threadFactory) {
+            throw new RuntimeException(VIRTUAL_WITHOUT_THREAD_FACTORY);
+        }
+
+        ThreadFactory threadFactory = this.threadFactory.dispatcher();
+        // Cheap threads: no pooling, the per-topic concurrency is the only bound.
+        return (runnable) -> threadFactory.newThread(runnable).start();
+    }
+
+    private Executor dispatcher(RedissonProperties.Dispatch dispatch) {
+        if (null == this.dispatcher) {
+            synchronized (this) {
+                if (null == this.dispatcher) {
+                    this.dispatcher = this.createDispatcher(dispatch);
+                    this.manager().metrics().bindDispatcher(this.dispatcher);
+                }
+            }
+        }
+
+        return this.dispatcher;
+    }
+
+    private Semaphore tryAcquirePermit(String topic, RedissonProperties.Dispatch dispatch) {
+        if (dispatch.concurrency() <= 0) {
+            return null;
+        }
+
+        Semaphore permit = this.permits.computeIfAbsent(topic, (x) -> new Semaphore(dispatch.concurrency()));
+        try {
+            // Back-pressure: the poller of a saturated topic waits here instead of fetching more.
+            permit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("redisson.delayqueue: dispatch interrupted, topic:" + topic, e);
+        }
+
+        return permit;
+    }
+
+    private RejectedExecutionHandler determineRejectionHandler(Redisson.Dispatch.Rejection rejection) {
+        switch (rejection) {
+            case DISCARD:
+                return (runnable, executor) -> {
+                    DispatchTask task = (DispatchTask) runnable;
+                    this.discard(task);
+                    log.warn("redisson.delayqueue: dispatch.rejected,report:[topic:{},taskId:{}]",
+                            task.task.topic(), task.task.taskId());
+                };
+            case ABORT:
+                return (runnable, executor) -> {
+                    DispatchTask task = (DispatchTask) runnable;
+                    // The permit is released by the submit that catches the exception.
+                    this.handback(task.task, task.claimed);
+                    log.warn("redisson.delayqueue: dispatch.aborted,report:[topic:{},taskId:{},executor:{}]",
+                            task.task.topic(), task.task.taskId(), executor);
+
+                    throw new DispatchAbortedException(task.task, executor);
+                };
+            default:
+                return (runnable, executor) -> {
+                    if (executor.isShutdown()) {
+                        this.discard((DispatchTask) runnable);
+                        return;
+                    }
+
+                    runnable.run();
+                };
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Thrown by the {@code ABORT} rejection once the task is handed back to its engine.
+     */
+    private static class DispatchAbortedException extends RejectedExecutionException {
+
+        private static final long serialVersionUID = -3320917254781683514L;
+
+        DispatchAbortedException(RedissonDelayedTask<?> task, ThreadPoolExecutor executor) {
+            super("redisson.delayqueue: dispatch aborted, topic:" + task.topic() + ",taskId:" + task.taskId() + "," + executor);
+        }
+    }
+
+    private class DispatchTask implements Runnable {
+
+        private final RedissonDelayedTask<?> task;
+        private final boolean claimed;
+        private final Semaphore permit;
+        private final long handedAt;
+
+        DispatchTask(RedissonDelayedTask<?> task, boolean claimed, Semaphore permit, long handedAt) {
+            this.task = task;
+            this.claimed = claimed;
+            this.permit = permit;
+            this.handedAt = handedAt;
+        }
+
+        @Override
+        public void run() {
+            try {
+                dispatch(this.task, this.claimed, this.handedAt);
+            } catch (Throwable e) {
+                log.error("redisson.delayqueue: dispatch.delayed.task.failed,report:[topic:{},taskId:{}]",
+                        this.task.topic(), this.task.taskId(), e);
+            } finally {
+                this.release();
+            }
+        }
+
+        void release() {
+            if (null != this.permit) {
+                this.permit.release();
+            }
+        }
     }
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.executor;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * {@code DelayedQueueThreadFactory}
+ * <p>
+ * Supplies the threads of the dispatcher, e.g. virtual threads on Java 21.
+ * |- The pollers stay on the platform threads of the scheduler pool, they are few and long-lived.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public interface DelayedQueueThreadFactory {
+
+    /**
+     * Threads of the listeners, one per dispatched task.
+     *
+     * @return {@link ThreadFactory}
+     */
+    ThreadFactory dispatcher();
+}
@@ -19,6 +19,7 @@ import io.github.photowey.redisson.delay.queue.api.manager.RedissonDelayedQueueM
 import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * {@code RedissonDelayedQueueExecutor}
@@ -32,4 +33,10 @@ public interface RedissonDelayedQueueExecutor extends DelayedQueueExecutor {
     RedissonDelayedQueueManager manager();
 
     <P extends Serializable> void execute(RedissonDelayedTask<P> task);
+
+    default void execute(List<RedissonDelayedTask<?>> tasks) {
+        for (RedissonDelayedTask<?> task : tasks) {
+            this.execute(task);
+        }
+    }
 }
@@ -30,6 +30,25 @@ public interface AntDelayedQueueEventListener extends DelayedQueueEventListener,
 
     DelayedAntPathMatcher matcher();
 
+    /**
+     * The topic pattern of the listener, e.g. {@code io.github.photowey:tenant:#:order:*}.
+     * |- Declared patterns are indexed in a {@link io.github.photowey.redisson.delay.queue.api.macher.DelayedTopicTrie},
+     * |- so routing a topic no longer scans every Ant listener.
+     * |- null: not indexed, fall back to {@link #supportsTopic(String)}.
+     *
+     * @return the topic pattern
+     */
+    default String topicPattern() {
+        return null;
+    }
+
+    @Override
+    default boolean supportsTopic(String topic) {
+        String pattern = this.topicPattern();
+
+        return null == pattern || this.matches(pattern, topic);
+    }
+
     default boolean matches(String pattern, String path) {
         return this.matcher().matches(pattern, path);
     }
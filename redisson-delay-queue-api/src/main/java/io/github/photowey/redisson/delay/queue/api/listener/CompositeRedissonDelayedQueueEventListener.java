@@ -15,15 +15,23 @@
  */
 package io.github.photowey.redisson.delay.queue.api.listener;
 
+import io.github.photowey.redisson.delay.queue.api.claim.ClaimCheckStore;
 import io.github.photowey.redisson.delay.queue.api.event.RedissonDelayedTaskEvent;
+import io.github.photowey.redisson.delay.queue.api.macher.DelayedAntPathMatcher;
+import io.github.photowey.redisson.delay.queue.api.macher.DelayedTopicTrie;
+import io.github.photowey.redisson.delay.queue.core.task.ClaimCheck;
+import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
 import io.github.photowey.redisson.delay.queue.core.task.TaskContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.util.ClassUtils;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -38,6 +46,11 @@ public class CompositeRedissonDelayedQueueEventListener implements RedissonDelay
 
     public final ConcurrentHashMap<String, DelayedQueueEventListener> ctx = new ConcurrentHashMap<>();
 
+    /**
+     * Immutable routing table of {@link #ctx}, swapped on register/remove.
+     */
+    private volatile Routing routing = new Routing(Collections.emptyList(), true);
+
     private ApplicationContext applicationContext;
 
     private final Logger log = LoggerFactory.getLogger(CompositeRedissonDelayedQueueEventListener.class);
@@ -55,35 +68,189 @@ public class CompositeRedissonDelayedQueueEventListener implements RedissonDelay
     @Override
     public void register(DelayedQueueEventListener listener) {
         this.ctx.computeIfAbsent(listener.getClass().getName(), (x) -> listener);
+        this.refresh();
     }
 
     @Override
     public void remove(Class<DelayedQueueEventListener> clazz) {
         this.ctx.remove(clazz.getName());
+        this.refresh();
     }
 
     @Override
     public void onEvent(RedissonDelayedTaskEvent event) {
-        TaskContext<?> ctx = event.toTaskContext();
+        RedissonDelayedTask<?> task = event.task();
+        if (!event.claimed() && !this.tryClaimTask(task.taskId())) {
+            // Cancelled, or a duplicate taskId.
+            this.manager().metrics().recordCancelled(task.topic());
+            log.debug("redisson.delayqueue: drop.unregistered.delayed.task,report:[topic:{},taskId:{}]",
+                    task.topic(), task.taskId());
+            return;
+        }
+
+        if (task.payload() instanceof ClaimCheck) {
+            this.onClaimCheckEvent(task);
+            return;
+        }
+
+        this.dispatchEvent(task.toTaskContext());
+    }
+
+    /**
+     * The stored payload is released once every listener handled the task, a failed checkout or handle leaves it
+     * to its TTL(e.g. for a redelivery or a manual replay).
+     */
+    private void onClaimCheckEvent(RedissonDelayedTask<?> task) {
+        ClaimCheckStore store = this.manager().claimCheckStore();
+        if (this.routing.route(task.topic()).isEmpty()) {
+            // Nobody handles it, nothing to keep aside.
+            store.release(task.taskId());
+            return;
+        }
+
+        // Fetched lazily: only once claimed and routed to a listener.
+        if (this.dispatchEvent(store.checkOut(task).toTaskContext())) {
+            store.release(task.taskId());
+        }
+    }
+
+    /**
+     * @return true if every supporting listener handled the task
+     */
+    private boolean dispatchEvent(TaskContext<?> ctx) {
+        boolean handled = true;
+        Route route = this.routing.route(ctx.topic());
+        for (int i = 0, size = route.listeners.length; i < size; i++) {
+            DelayedQueueEventListener eventListener = route.listeners[i];
+            if (!route.filters[i] || eventListener.supports(ctx)) {
+                handled &= this.handleEvent(eventListener, ctx);
+            }
+        }
+
+        return handled;
+    }
 
+    private synchronized void refresh() {
         List<DelayedQueueEventListener> eventListeners = new ArrayList<>(this.ctx.values());
         AnnotationAwareOrderComparator.sort(eventListeners);
 
-        for (DelayedQueueEventListener eventListener : eventListeners) {
-            if (eventListener.supports(ctx)) {
-                this.handleEvent(eventListener, ctx);
-            }
+        this.routing = new Routing(Collections.unmodifiableList(eventListeners), this.determineCaseSensitive());
+    }
+
+    /**
+     * The trie follows the {@link DelayedAntPathMatcher} bean, the one {@link AntDelayedQueueEventListener}s match with.
+     */
+    private boolean determineCaseSensitive() {
+        if (null == this.applicationContext) {
+            return true;
         }
 
-        this.tryRemoveTask(ctx.taskId());
+        DelayedAntPathMatcher matcher = this.applicationContext.getBeanProvider(DelayedAntPathMatcher.class).getIfAvailable();
+
+        return null == matcher || matcher.caseSensitive();
     }
 
-    private void handleEvent(DelayedQueueEventListener eventListener, TaskContext<?> ctx) {
+    private boolean handleEvent(DelayedQueueEventListener eventListener, TaskContext<?> ctx) {
+        long started = System.nanoTime();
+        boolean success = false;
         try {
             eventListener.handle(ctx);
+            success = true;
         } catch (Exception e) {
             log.error("redisson.delayqueue: handle.delayed.task.failed,report:[listener:{},topic:{},taskId:{}]",
-                    eventListener.getClass().getName(), ctx.taskId(), ctx.taskId());
+                    ClassUtils.getUserClass(eventListener).getName(), ctx.topic(), ctx.taskId(), e);
+        } finally {
+            this.manager().metrics().recordHandle(
+                    ctx.topic(), ClassUtils.getUserClass(eventListener).getName(), System.nanoTime() - started, success);
+        }
+
+        return success;
+    }
+
+    // ----------------------------------------------------------------
+
+    private static class Routing {
+
+        /**
+         * Pre-sorted listeners without a declared topic pattern.
+         */
+        private final List<DelayedQueueEventListener> listeners = new ArrayList<>();
+        /**
+         * Ant listeners indexed by {@link AntDelayedQueueEventListener#topicPattern()}.
+         */
+        private final DelayedTopicTrie<DelayedQueueEventListener> trie;
+        /**
+         * topic -> listeners whose {@link DelayedQueueEventListener#supportsTopic(String)} accepted it.
+         */
+        private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+
+        Routing(List<DelayedQueueEventListener> listeners, boolean caseSensitive) {
+            this.trie = new DelayedTopicTrie<>(caseSensitive);
+            for (DelayedQueueEventListener listener : listeners) {
+                String pattern = listener instanceof AntDelayedQueueEventListener
+                        ? ((AntDelayedQueueEventListener) listener).topicPattern()
+                        : null;
+                if (null != pattern) {
+                    this.trie.insert(pattern, listener);
+                } else {
+                    this.listeners.add(listener);
+                }
+            }
+        }
+
+        Route route(String topic) {
+            Route route = this.routes.get(topic);
+            if (null != route) {
+                return route;
+            }
+
+            return this.routes.computeIfAbsent(topic, this::populateRoute);
+        }
+
+        private Route populateRoute(String topic) {
+            List<DelayedQueueEventListener> route = new ArrayList<>(this.trie.match(topic));
+            for (DelayedQueueEventListener eventListener : this.listeners) {
+                if (eventListener.supportsTopic(topic)) {
+                    route.add(eventListener);
+                }
+            }
+            AnnotationAwareOrderComparator.sort(route);
+
+            return new Route(route);
+        }
+    }
+
+    /**
+     * The listeners of one topic, in order, and whether each one still filters per task.
+     */
+    private static class Route {
+
+        private final DelayedQueueEventListener[] listeners;
+        /**
+         * false: {@link DelayedQueueEventListener#supports(TaskContext)} is not overridden, the topic decided already.
+         */
+        private final boolean[] filters;
+
+        Route(List<DelayedQueueEventListener> listeners) {
+            this.listeners = listeners.toArray(new DelayedQueueEventListener[0]);
+            this.filters = new boolean[this.listeners.length];
+            for (int i = 0; i < this.listeners.length; i++) {
+                this.filters[i] = filtersTasks(this.listeners[i]);
+            }
+        }
+
+        boolean isEmpty() {
+            return 0 == this.listeners.length;
+        }
+
+        private static boolean filtersTasks(DelayedQueueEventListener listener) {
+            try {
+                Method supports = ClassUtils.getUserClass(listener).getMethod("supports", TaskContext.class);
+
+                return DelayedQueueEventListener.class != supports.getDeclaringClass();
+            } catch (NoSuchMethodException e) {
+                return true;
+            }
         }
     }
 }
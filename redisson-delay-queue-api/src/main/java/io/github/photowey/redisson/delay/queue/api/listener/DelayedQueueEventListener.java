@@ -27,7 +27,40 @@ import org.springframework.core.Ordered;
  */
 public interface DelayedQueueEventListener extends Ordered {
 
-    boolean supports(TaskContext<?> ctx);
+    /**
+     * The topic the listener handles.
+     * |- null: not declared, tasks of every topic are offered to {@link #supports(TaskContext)}.
+     *
+     * @return the topic
+     */
+    default String topic() {
+        return null;
+    }
+
+    /**
+     * Topic-level pre-filter, the result is cached per topic.
+     * |- Only depend on the topic here, payload checks belong to {@link #supports(TaskContext)}.
+     * |- Defaults to the declared {@link #topic()}, every topic if none.
+     *
+     * @param topic the topic
+     * @return true if the listener may handle tasks of the topic
+     */
+    default boolean supportsTopic(String topic) {
+        String declared = this.topic();
+
+        return null == declared || declared.equals(topic);
+    }
+
+    /**
+     * Task-level filter, called per task on the listeners routed to its topic.
+     * |- Not overridden: the cached {@link #supportsTopic(String)} decides alone and this is never called.
+     *
+     * @param ctx the task context
+     * @return true if the listener handles the task
+     */
+    default boolean supports(TaskContext<?> ctx) {
+        return this.supportsTopic(ctx.topic());
+    }
 
     void handle(TaskContext<?> ctx);
 
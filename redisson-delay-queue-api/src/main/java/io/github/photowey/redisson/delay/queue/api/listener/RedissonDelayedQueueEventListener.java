@@ -52,4 +52,15 @@ public interface RedissonDelayedQueueEventListener extends
     default boolean tryRemoveTask(String taskId) {
         return this.manager().removeTask(taskId);
     }
+
+    /**
+     * Claim a fired task by removing its taskId from the registry.
+     * |- false: the task was cancelled, or already claimed by another consumer.
+     *
+     * @param taskId the taskId
+     * @return true if the caller owns the task
+     */
+    default boolean tryClaimTask(String taskId) {
+        return this.tryRemoveTask(taskId);
+    }
 }
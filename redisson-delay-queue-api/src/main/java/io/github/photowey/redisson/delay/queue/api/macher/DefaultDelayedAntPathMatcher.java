@@ -17,6 +17,13 @@ package io.github.photowey.redisson.delay.queue.api.macher;
 
 import org.springframework.util.AntPathMatcher;
 
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * {@code DefaultDelayedAntPathMatcher}
  *
@@ -26,7 +33,30 @@ import org.springframework.util.AntPathMatcher;
  */
 public class DefaultDelayedAntPathMatcher implements DelayedAntPathMatcher {
 
+    /**
+     * Clear and stop caching once a cache passes this, same as {@link AntPathMatcher}: the inputs are likely unbounded
+     * (e.g. random taskIds).
+     */
+    private static final int CACHE_THRESHOLD = 65536;
+
+    private static final Pattern MULTI_WORLD_PATTERN = Pattern.compile(Pattern.quote(MULTI_WORLD));
+    private static final Pattern SINGLE_WORLD_PATTERN = Pattern.compile(Pattern.quote(SINGLE_WORLD));
+    private static final Pattern SEPARATOR_PATTERN = Pattern.compile("[.:]");
+    private static final Pattern TRAILING_SEPARATOR_PATTERN = Pattern.compile("/*$");
+
+    private static final String MULTI_PATH_REPLACEMENT = Matcher.quoteReplacement(MULTI_PATH);
+    private static final String SINGLE_PATH_REPLACEMENT = Matcher.quoteReplacement(SINGLE_PATH);
+
     private final AntPathMatcher matcher;
+    private final boolean caseSensitive;
+
+    private final ConcurrentHashMap<String, String> patterns = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> paths = new ConcurrentHashMap<>();
+    /**
+     * (pattern, path) -> matched
+     */
+    private final ConcurrentHashMap<MatchKey, Boolean> matches = new ConcurrentHashMap<>();
+    private volatile boolean cache = true;
 
     // ----------------------------------------------------------------
 
@@ -42,43 +72,134 @@ public class DefaultDelayedAntPathMatcher implements DelayedAntPathMatcher {
 
     public DefaultDelayedAntPathMatcher(boolean caseSensitive) {
         this.matcher = createMatcher(caseSensitive);
+        this.caseSensitive = caseSensitive;
     }
 
     public DefaultDelayedAntPathMatcher(AntPathMatcher matcher) {
         this.matcher = matcher;
+        // AntPathMatcher does not expose it.
+        this.caseSensitive = !matcher.match("A", "a");
     }
 
     // ----------------------------------------------------------------
 
     @Override
     public boolean matches(String pattern, String path) {
-        String convertedPattern = this.convertToAntPattern(pattern);
-        String convertedPath = this.convertToAntPath(path);
+        if (!this.cache) {
+            return this.doMatches(pattern, path);
+        }
 
-        return this.matcher.match(convertedPattern, convertedPath);
+        MatchKey key = new MatchKey(pattern, path);
+        Boolean matched = this.matches.get(key);
+        if (null != matched) {
+            return matched;
+        }
+
+        boolean result = this.doMatches(pattern, path);
+        this.tryPut(this.matches, key, result);
+
+        return result;
+    }
+
+    @Override
+    public boolean caseSensitive() {
+        return this.caseSensitive;
     }
 
     @Override
     public String toAntPattern(String expression) {
-        return PATH_SEPARATOR + expression
-                .replaceAll("\\" + MULTI_WORLD, MULTI_PATH)
-                .replaceAll(SINGLE_WORLD, SINGLE_PATH)
-                .replaceAll("[.:]", PATH_SEPARATOR)
-                .replaceAll("/*$", "");
+        String pattern = MULTI_WORLD_PATTERN.matcher(expression).replaceAll(MULTI_PATH_REPLACEMENT);
+        pattern = SINGLE_WORLD_PATTERN.matcher(pattern).replaceAll(SINGLE_PATH_REPLACEMENT);
+
+        return PATH_SEPARATOR + this.normalize(pattern);
     }
 
     @Override
     public String toAntPath(String expression) {
-        return PATH_SEPARATOR + expression
-                .replaceAll("[.:]", PATH_SEPARATOR)
-                .replaceAll("/*$", "");
+        return PATH_SEPARATOR + this.normalize(expression);
+    }
+
+    // ----------------------------------------------------------------
+
+    private boolean doMatches(String pattern, String path) {
+        String convertedPattern = this.convertToAntPattern(pattern);
+        String convertedPath = this.convertToAntPath(path);
+
+        return this.matcher.match(convertedPattern, convertedPath);
+    }
+
+    private String normalize(String expression) {
+        String path = SEPARATOR_PATTERN.matcher(expression).replaceAll(PATH_SEPARATOR);
+
+        return TRAILING_SEPARATOR_PATTERN.matcher(path).replaceAll("");
     }
 
     private String convertToAntPattern(String pattern) {
-        return this.toAntPattern(pattern);
+        return this.tryCache(this.patterns, pattern, this::toAntPattern);
     }
 
     private String convertToAntPath(String path) {
-        return this.toAntPath(path);
+        return this.tryCache(this.paths, path, this::toAntPath);
+    }
+
+    private String tryCache(Map<String, String> cache, String expression, Function<String, String> converter) {
+        String converted = this.cache ? cache.get(expression) : null;
+        if (null != converted) {
+            return converted;
+        }
+
+        converted = converter.apply(expression);
+        this.tryPut(cache, expression, converted);
+
+        return converted;
+    }
+
+    private <K, V> void tryPut(Map<K, V> cache, K key, V value) {
+        if (!this.cache) {
+            return;
+        }
+        if (cache.size() >= CACHE_THRESHOLD) {
+            this.deactivateCache();
+            return;
+        }
+
+        cache.put(key, value);
+    }
+
+    private void deactivateCache() {
+        this.cache = false;
+        this.patterns.clear();
+        this.paths.clear();
+        this.matches.clear();
+    }
+
+    // ----------------------------------------------------------------
+
+    private static class MatchKey {
+
+        private final String pattern;
+        private final String path;
+
+        MatchKey(String pattern, String path) {
+            this.pattern = pattern;
+            this.path = path;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            MatchKey that = (MatchKey) o;
+            return Objects.equals(pattern, that.pattern) && Objects.equals(path, that.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pattern, path);
+        }
     }
-}
\ No newline at end of file
+}
@@ -50,6 +50,13 @@ public interface DelayedAntPathMatcher {
      */
     boolean matches(String pattern, String path);
 
+    /**
+     * @return false if topics match regardless of case, e.g. to build a {@link DelayedTopicTrie} that agrees with this
+     */
+    default boolean caseSensitive() {
+        return true;
+    }
+
     default String toAntPattern(String expression) {
         return expression;
     }
@@ -0,0 +1,174 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.macher;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code DelayedTopicTrie}
+ * <p>
+ * Topic index over {@link DelayedAntPathMatcher} patterns, one node per topic word.
+ * |- {@code .}, {@code :} and {@code /} separate words.
+ * |- {@code #}: a single word.
+ * |- {@code *}: zero or more words.
+ * |- Words with embedded wildcards, e.g. {@code tenant#}, fall back to {@link AntPathMatcher} on that word only.
+ * <p>
+ * Built once and then read-only, safe for concurrent lookups.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class DelayedTopicTrie<T> {
+
+    private final Node<T> root = new Node<>();
+    private final boolean caseSensitive;
+    private final AntPathMatcher matcher;
+
+    public DelayedTopicTrie(boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+        this.matcher = DefaultDelayedAntPathMatcher.createMatcher(caseSensitive);
+    }
+
+    // ----------------------------------------------------------------
+
+    public void insert(String pattern, T value) {
+        Node<T> node = this.root;
+        for (String word : this.split(pattern)) {
+            node = node.child(this.toWord(word));
+        }
+
+        node.values.add(value);
+    }
+
+    /**
+     * Every value whose pattern matches the topic.
+     *
+     * @param topic the topic
+     * @return the matched values
+     */
+    public Set<T> match(String topic) {
+        List<String> words = this.split(topic);
+        if (!this.caseSensitive) {
+            words.replaceAll(word -> word.toLowerCase(Locale.ROOT));
+        }
+
+        Set<T> values = new LinkedHashSet<>();
+        this.match(this.root, words, 0, values);
+
+        return values;
+    }
+
+    // ----------------------------------------------------------------
+
+    private void match(Node<T> node, List<String> words, int index, Set<T> values) {
+        if (null != node.multi) {
+            // Zero or more words.
+            for (int i = index; i <= words.size(); i++) {
+                this.match(node.multi, words, i, values);
+            }
+        }
+
+        if (index == words.size()) {
+            values.addAll(node.values);
+            return;
+        }
+
+        String word = words.get(index);
+        Node<T> literal = node.literals.get(word);
+        if (null != literal) {
+            this.match(literal, words, index + 1, values);
+        }
+        if (null != node.single) {
+            this.match(node.single, words, index + 1, values);
+        }
+        for (Map.Entry<String, Node<T>> glob : node.globs.entrySet()) {
+            if (this.matcher.match(glob.getKey(), word)) {
+                this.match(glob.getValue(), words, index + 1, values);
+            }
+        }
+    }
+
+    private String toWord(String word) {
+        return this.caseSensitive ? word : word.toLowerCase(Locale.ROOT);
+    }
+
+    private List<String> split(String expression) {
+        List<String> words = new ArrayList<>();
+        int start = 0;
+        for (int i = 0, length = expression.length(); i <= length; i++) {
+            if (i == length || isSeparator(expression.charAt(i))) {
+                if (i > start) {
+                    words.add(expression.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+
+        return words;
+    }
+
+    private static boolean isSeparator(char ch) {
+        return '.' == ch || ':' == ch || '/' == ch;
+    }
+
+    private static boolean isGlob(String word) {
+        for (int i = 0, length = word.length(); i < length; i++) {
+            char ch = word.charAt(i);
+            if ('#' == ch || '*' == ch || '?' == ch || '{' == ch) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // ----------------------------------------------------------------
+
+    private static class Node<T> {
+
+        private final Map<String, Node<T>> literals = new HashMap<>();
+        private final Map<String, Node<T>> globs = new HashMap<>();
+        private Node<T> single;
+        private Node<T> multi;
+        private final List<T> values = new ArrayList<>(1);
+
+        Node<T> child(String word) {
+            if (DelayedAntPathMatcher.SINGLE_WORLD.equals(word)) {
+                return null != this.single ? this.single : (this.single = new Node<>());
+            }
+            if (DelayedAntPathMatcher.MULTI_WORLD.equals(word)) {
+                return null != this.multi ? this.multi : (this.multi = new Node<>());
+            }
+            if (isGlob(word)) {
+                // "tenant#" -> "tenant*", same conversion as the matcher.
+                String glob = word.replace(DelayedAntPathMatcher.MULTI_WORLD, DelayedAntPathMatcher.MULTI_PATH)
+                        .replace(DelayedAntPathMatcher.SINGLE_WORLD, DelayedAntPathMatcher.SINGLE_PATH);
+                return this.globs.computeIfAbsent(glob, (x) -> new Node<>());
+            }
+
+            return this.literals.computeIfAbsent(word, (x) -> new Node<>());
+        }
+    }
+}
@@ -15,23 +15,55 @@
  */
 package io.github.photowey.redisson.delay.queue.api.manager;
 
+import io.github.photowey.redisson.delay.queue.api.claim.ClaimCheckStore;
 import io.github.photowey.redisson.delay.queue.api.delayed.DelayedQueue;
+import io.github.photowey.redisson.delay.queue.api.executor.RedissonDelayedQueueExecutor;
 import io.github.photowey.redisson.delay.queue.api.listener.CompositeRedissonDelayedQueueEventListener;
+import io.github.photowey.redisson.delay.queue.api.metrics.DelayedQueueMetrics;
 import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import io.github.photowey.redisson.delay.queue.api.registry.BloomTaskRegistry;
+import io.github.photowey.redisson.delay.queue.api.registry.DefaultTaskRegistry;
+import io.github.photowey.redisson.delay.queue.api.registry.LocalTaskRegistry;
+import io.github.photowey.redisson.delay.queue.api.registry.TaskRegistry;
 import io.github.photowey.redisson.delay.queue.api.scheduler.RedissonDelayedQueueScheduler;
+import io.github.photowey.redisson.delay.queue.api.wheel.TimingWheelTier;
+import io.github.photowey.redisson.delay.queue.core.codec.CodecPayloadSerializer;
+import io.github.photowey.redisson.delay.queue.core.codec.CompactTaskCodec;
+import io.github.photowey.redisson.delay.queue.core.codec.CompressionStats;
+import io.github.photowey.redisson.delay.queue.core.codec.DeflatePayloadCompressor;
+import io.github.photowey.redisson.delay.queue.core.codec.PayloadCompressor;
+import io.github.photowey.redisson.delay.queue.core.codec.PayloadSerializer;
+import io.github.photowey.redisson.delay.queue.core.engine.LocalDelayedQueueEngine;
+import io.github.photowey.redisson.delay.queue.core.engine.RedissonDelayedQueueEngine;
+import io.github.photowey.redisson.delay.queue.core.engine.StreamDelayedQueueEngine;
+import io.github.photowey.redisson.delay.queue.core.engine.TaskCodec;
+import io.github.photowey.redisson.delay.queue.core.engine.ZSetDelayedQueueEngine;
+import io.github.photowey.redisson.delay.queue.core.enums.Redisson;
+import io.github.photowey.redisson.delay.queue.core.journal.TaskJournal;
 import io.github.photowey.redisson.delay.queue.core.pair.QueuePair;
 import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+import jodd.util.concurrent.ThreadFactoryBuilder;
 import org.redisson.api.RBlockingDeque;
 import org.redisson.api.RDelayedQueue;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.codec.JsonJacksonCodec;
+import org.redisson.codec.Kryo5Codec;
+import org.redisson.codec.SerializationCodec;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * {@code DefaultRedissonDelayedQueueManager}
@@ -42,6 +74,10 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class DefaultRedissonDelayedQueueManager implements RedissonDelayedQueueManager {
 
+    private static final String ENGINE_TIMER_NAME_TEMPLATE = "redisson-delayqueue-engine-%d";
+    private static final String JOURNAL_COMPACTOR_NAME_TEMPLATE = "redisson-delayqueue-journal-compactor-%d";
+    private static final String JOURNAL_SUFFIX = ".journal";
+
     // ----------------------------------------------------------------
 
     private final ConcurrentHashMap<String, DelayedQueue> ctx = new ConcurrentHashMap<>();
@@ -50,6 +86,19 @@ public class DefaultRedissonDelayedQueueManager implements RedissonDelayedQueueM
     private final RedissonClient redisson;
 
     private ConfigurableListableBeanFactory beanFactory;
+    private volatile TaskRegistry taskRegistry;
+    private volatile TimingWheelTier timingWheel;
+    private volatile ClaimCheckStore claimCheckStore;
+    private volatile DelayedQueueMetrics metrics;
+    /**
+     * Shared by every engine that needs one, instead of a timer per topic.
+     */
+    private volatile ScheduledExecutorService engineTimer;
+    private volatile ExecutorService journalCompactor;
+    /**
+     * The codec of the task structures, the client codec unless {@code delayed.codec.type} says otherwise.
+     */
+    private volatile Codec taskCodec;
 
     public DefaultRedissonDelayedQueueManager(RedissonClient redisson) {
         this.redisson = redisson;
@@ -74,17 +123,11 @@ public class DefaultRedissonDelayedQueueManager implements RedissonDelayedQueueM
         Set<String> topics = this.redissonProperties().getDelayed().topics();
 
         for (String topicx : topics) {
-            RBlockingDeque<RedissonDelayedTask<?>> blockingQueue = this.redisson().getBlockingDeque(topicx);
-            RDelayedQueue<RedissonDelayedTask<?>> delayedQueue = this.redisson().getDelayedQueue(blockingQueue);
-
-            QueuePair pair = QueuePair.builder()
-                    .topic(topicx)
-                    .blockingQueue(blockingQueue)
-                    .delayedQueue(delayedQueue)
-                    .build();
-
-            this.registerPair(pair);
+            this.registerPair(this.populatePair(topicx));
         }
+
+        // Eager: seeds the Bloom filter, if any, before the first offer.
+        this.taskRegistry();
     }
 
     // ----------------------------------------------------------------
@@ -164,11 +207,75 @@ public class DefaultRedissonDelayedQueueManager implements RedissonDelayedQueueM
         return this.beanFactory.getBean(RedissonDelayedQueueScheduler.class);
     }
 
+    @Override
+    public RedissonDelayedQueueExecutor redissonExecutor() {
+        return this.beanFactory.getBean(RedissonDelayedQueueExecutor.class);
+    }
+
     @Override
     public RedissonProperties redissonProperties() {
         return this.beanFactory.getBean(RedissonProperties.class);
     }
 
+    @Override
+    public TaskRegistry taskRegistry() {
+        if (null == this.taskRegistry) {
+            synchronized (this) {
+                if (null == this.taskRegistry) {
+                    this.taskRegistry = this.populateTaskRegistry();
+                    this.metrics().bindRegistry(this.taskRegistry);
+                }
+            }
+        }
+
+        return this.taskRegistry;
+    }
+
+    @Override
+    public TimingWheelTier timingWheel() {
+        if (null == this.timingWheel) {
+            synchronized (this) {
+                if (null == this.timingWheel) {
+                    this.timingWheel = new TimingWheelTier(this, this.redissonProperties().delayed().wheel());
+                }
+            }
+        }
+
+        return this.timingWheel;
+    }
+
+    @Override
+    public ClaimCheckStore claimCheckStore() {
+        if (null == this.claimCheckStore) {
+            synchronized (this) {
+                if (null == this.claimCheckStore) {
+                    this.claimCheckStore = new ClaimCheckStore(this, this.redissonProperties().delayed().claimCheck());
+                }
+            }
+        }
+
+        return this.claimCheckStore;
+    }
+
+    @Override
+    public DelayedQueueMetrics metrics() {
+        if (null == this.metrics) {
+            this.metrics = this.beanFactory.getBeanProvider(DelayedQueueMetrics.class).getIfAvailable(() -> DelayedQueueMetrics.NOOP);
+        }
+
+        return this.metrics;
+    }
+
+    @Override
+    public Map<String, CompressionStats> compressionStats() {
+        Codec codec = this.taskCodec();
+        if (codec instanceof CompactTaskCodec) {
+            return ((CompactTaskCodec) codec).compressionStats();
+        }
+
+        return Collections.emptyMap();
+    }
+
     @Override
     public CompositeRedissonDelayedQueueEventListener redissonEventListener() {
         return this.beanFactory.getBean(CompositeRedissonDelayedQueueEventListener.class);
@@ -176,23 +283,203 @@ public class DefaultRedissonDelayedQueueManager implements RedissonDelayedQueueM
 
     // ----------------------------------------------------------------
 
+    private QueuePair populatePair(String topic) {
+        RedissonProperties.Engine engine = this.redissonProperties().delayed().engine();
+        if (Redisson.Engine.Type.ZSET == engine.type()) {
+            return QueuePair.builder()
+                    .topic(topic)
+                    .engine(new ZSetDelayedQueueEngine(
+                            this.redisson(),
+                            engine.prefix(),
+                            topic,
+                            engine.unit().toMillis(engine.idleWait()),
+                            this.engineTimer(),
+                            this.taskCodec()
+                    ))
+                    .build();
+        }
+        if (engine.local()) {
+            RedissonProperties.Journal journal = engine.journal();
+            TaskJournal taskJournal = new TaskJournal(
+                    Paths.get(journal.dir(), topic.replaceAll("[^A-Za-z0-9._-]", "_") + JOURNAL_SUFFIX),
+                    journal.segmentSize(),
+                    journal.sync()
+            );
+
+            return QueuePair.builder()
+                    .topic(topic)
+                    .engine(new LocalDelayedQueueEngine(
+                            topic,
+                            taskJournal,
+                            new TaskCodec(this.taskCodec()),
+                            journal.compactThreshold(),
+                            this.engineTimer(),
+                            this.journalCompactor()
+                    ))
+                    .build();
+        }
+        if (Redisson.Engine.Type.STREAM == engine.type()) {
+            RedissonProperties.Stream stream = engine.stream();
+            return QueuePair.builder()
+                    .topic(topic)
+                    .engine(new StreamDelayedQueueEngine(
+                            this.redisson(),
+                            engine.prefix(),
+                            topic,
+                            engine.unit().toMillis(engine.idleWait()),
+                            this.engineTimer(),
+                            this.taskCodec(),
+                            stream.group(),
+                            stream.consumer(),
+                            stream.unit().toMillis(stream.reclaimIdle()),
+                            stream.maxDeliveries(),
+                            stream.unit().toMillis(stream.consumerExpiry())
+                    ))
+                    .build();
+        }
+
+        RBlockingDeque<RedissonDelayedTask<?>> blockingQueue = this.redisson().getBlockingDeque(topic, this.taskCodec());
+        RDelayedQueue<RedissonDelayedTask<?>> delayedQueue = this.redisson().getDelayedQueue(blockingQueue);
+
+        return QueuePair.builder()
+                .topic(topic)
+                .blockingQueue(blockingQueue)
+                .delayedQueue(delayedQueue)
+                .engine(new RedissonDelayedQueueEngine(topic, blockingQueue, delayedQueue))
+                .build();
+    }
+
+    private Codec taskCodec() {
+        if (null == this.taskCodec) {
+            synchronized (this) {
+                if (null == this.taskCodec) {
+                    this.taskCodec = this.populateTaskCodec();
+                }
+            }
+        }
+
+        return this.taskCodec;
+    }
+
+    private Codec populateTaskCodec() {
+        Codec client = this.redisson().getConfig().getCodec();
+        RedissonProperties.Codec codec = this.redissonProperties().delayed().codec();
+        if (Redisson.Codec.Type.COMPACT != codec.type()) {
+            return client;
+        }
+
+        List<PayloadSerializer> serializers = new ArrayList<>(Arrays.asList(
+                new CodecPayloadSerializer((byte) 1, "client", client),
+                new CodecPayloadSerializer((byte) 2, "jdk", new SerializationCodec()),
+                new CodecPayloadSerializer((byte) 3, "kryo", new Kryo5Codec()),
+                new CodecPayloadSerializer((byte) 4, "json", new JsonJacksonCodec())
+        ));
+        // Custom ones, e.g. Fory or Protobuf, are picked up as beans.
+        serializers.addAll(this.beanFactory.getBeansOfType(PayloadSerializer.class).values());
+
+        RedissonProperties.Compression compression = codec.compression();
+        List<PayloadCompressor> compressors = new ArrayList<>();
+        compressors.add(new DeflatePayloadCompressor(compression.level()));
+        // Custom ones, e.g. LZ4 or Zstd, are picked up as beans.
+        compressors.addAll(this.beanFactory.getBeansOfType(PayloadCompressor.class).values());
+
+        CompactTaskCodec taskCodec = new CompactTaskCodec(
+                client,
+                serializers,
+                codec.payload(),
+                codec.topics(),
+                compressors,
+                compression.enabled() ? compression.algorithm() : null,
+                compression.threshold()
+        );
+        taskCodec.statsListener((stats) -> this.metrics().bindCompression(stats));
+
+        return taskCodec;
+    }
+
+    private ScheduledExecutorService engineTimer() {
+        if (null == this.engineTimer) {
+            synchronized (this) {
+                if (null == this.engineTimer) {
+                    this.engineTimer = Executors.newSingleThreadScheduledExecutor(
+                            ThreadFactoryBuilder.create()
+                                    .setNameFormat(ENGINE_TIMER_NAME_TEMPLATE)
+                                    .setDaemon(true)
+                                    .get()
+                    );
+                }
+            }
+        }
+
+        return this.engineTimer;
+    }
+
+    private ExecutorService journalCompactor() {
+        if (null == this.journalCompactor) {
+            synchronized (this) {
+                if (null == this.journalCompactor) {
+                    this.journalCompactor = Executors.newSingleThreadExecutor(
+                            ThreadFactoryBuilder.create()
+                                    .setNameFormat(JOURNAL_COMPACTOR_NAME_TEMPLATE)
+                                    .setDaemon(true)
+                                    .get()
+                    );
+                }
+            }
+        }
+
+        return this.journalCompactor;
+    }
+
+    private TaskRegistry populateTaskRegistry() {
+        if (this.redissonProperties().delayed().engine().local()) {
+            return new LocalTaskRegistry(this::localEngines);
+        }
+
+        RedissonProperties.Registry registry = this.redissonProperties().delayed().registry();
+        TaskRegistry taskRegistry = new DefaultTaskRegistry(this.redisson(), registry);
+        if (registry.bloom().enabled()) {
+            return new BloomTaskRegistry(taskRegistry, this.redisson(), registry);
+        }
+
+        return taskRegistry;
+    }
+
+    private List<LocalDelayedQueueEngine> localEngines() {
+        List<LocalDelayedQueueEngine> engines = new ArrayList<>(this.pairs.size());
+        for (QueuePair pair : this.pairs.values()) {
+            if (pair.engine() instanceof LocalDelayedQueueEngine) {
+                engines.add((LocalDelayedQueueEngine) pair.engine());
+            }
+        }
+
+        return engines;
+    }
+
     private void registerTopic(String topic) {
+        if (this.redissonProperties().delayed().engine().local()) {
+            // No Redis: the pairs are the topic registry.
+            return;
+        }
+
         String topicSet = this.redissonProperties().delayed().registry().topicSet();
         this.redisson().getSetCache(topicSet).add(topic);
     }
 
     private boolean determineIsTopicContains(String topic) {
+        if (this.redissonProperties().delayed().engine().local()) {
+            return this.pairs.containsKey(topic);
+        }
+
         String topicSet = this.redissonProperties().delayed().registry().topicSet();
         return this.redisson().getSetCache(topicSet).contains(topic);
     }
 
     private boolean determineIsTaskContains(String taskId) {
-        String taskSet = this.redissonProperties().delayed().registry().taskSet();
-        return this.redisson().getSetCache(taskSet).contains(taskId);
+        return this.taskRegistry().contains(taskId);
     }
 
     private boolean tryRemoveTask(String taskId) {
-        String taskSet = this.redissonProperties().delayed().registry().taskSet();
-        return this.redisson().getSetCache(taskSet).remove(taskId);
+        return this.taskRegistry().remove(taskId);
     }
 }
\ No newline at end of file
@@ -15,14 +15,21 @@
  */
 package io.github.photowey.redisson.delay.queue.api.manager;
 
+import io.github.photowey.redisson.delay.queue.api.claim.ClaimCheckStore;
+import io.github.photowey.redisson.delay.queue.api.executor.RedissonDelayedQueueExecutor;
 import io.github.photowey.redisson.delay.queue.api.getter.RedissonClientGetter;
 import io.github.photowey.redisson.delay.queue.api.listener.CompositeRedissonDelayedQueueEventListener;
+import io.github.photowey.redisson.delay.queue.api.metrics.DelayedQueueMetrics;
 import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import io.github.photowey.redisson.delay.queue.api.registry.TaskRegistry;
 import io.github.photowey.redisson.delay.queue.api.scheduler.RedissonDelayedQueueScheduler;
+import io.github.photowey.redisson.delay.queue.api.wheel.TimingWheelTier;
+import io.github.photowey.redisson.delay.queue.core.codec.CompressionStats;
 import io.github.photowey.redisson.delay.queue.core.pair.QueuePair;
 import org.springframework.beans.factory.SmartInitializingSingleton;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * {@code RedissonDelayedQueueManager}
@@ -43,9 +50,29 @@ public interface RedissonDelayedQueueManager extends DelayedQueueManager, Rediss
 
     RedissonDelayedQueueScheduler redissonScheduler();
 
+    RedissonDelayedQueueExecutor redissonExecutor();
+
     // ----------------------------------------------------------------
     RedissonProperties redissonProperties();
 
+    TaskRegistry taskRegistry();
+
+    TimingWheelTier timingWheel();
+
+    ClaimCheckStore claimCheckStore();
+
+    /**
+     * @return the {@link DelayedQueueMetrics} bean, {@link DelayedQueueMetrics#NOOP} if none
+     */
+    DelayedQueueMetrics metrics();
+
+    /**
+     * Per-topic payload compression counters, empty unless the compact codec compresses.
+     *
+     * @return topic -> {@link CompressionStats}
+     */
+    Map<String, CompressionStats> compressionStats();
+
     // ----------------------------------------------------------------
 
     CompositeRedissonDelayedQueueEventListener redissonEventListener();
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.metrics;
+
+import io.github.photowey.redisson.delay.queue.api.registry.TaskRegistry;
+import io.github.photowey.redisson.delay.queue.api.scheduler.RedissonDelayedQueueScheduler;
+import io.github.photowey.redisson.delay.queue.core.codec.CompressionStats;
+
+import java.util.concurrent.Executor;
+
+/**
+ * {@code DelayedQueueMetrics}
+ * <p>
+ * Instrumentation SPI of the offer, poll, dispatch and listener paths, per topic:
+ * |- offer: latency and outcome of every offered task.
+ * |- poll: round-trip time of every engine poll, and how many tasks it returned(0: an empty poll).
+ * |- fire lag: due time -> handed to the dispatcher(polled, or released by the timing wheel).
+ * |- dispatch latency: handed to the dispatcher -> every listener completed.
+ * |- handle: latency and outcome of every listener call.
+ * |- cancelled: fired tasks dropped because their taskId was no longer registered.
+ * <p>
+ * Declare a bean to plug in a backend, {@link #NOOP} otherwise.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public interface DelayedQueueMetrics {
+
+    DelayedQueueMetrics NOOP = new DelayedQueueMetrics() {};
+
+    /**
+     * The topic tag of the offers to an unregistered topic, keeps the caller-supplied topics out of the tags.
+     */
+    String UNREGISTERED_TOPIC = "unregistered";
+
+    /**
+     * @param topic   the topic, {@link #UNREGISTERED_TOPIC} if not registered
+     * @param nanos   from the call to the acknowledgement(or failure) of the offer,
+     *                the batch time divided by the batch size for {@code offerAll}
+     * @param success false if the offer failed
+     */
+    default void recordOffer(String topic, long nanos, boolean success) {}
+
+    /**
+     * @param topic the topic
+     * @param nanos round-trip time of the poll, a blocking poll includes its wait
+     * @param size  the number of tasks returned, 0: empty
+     */
+    default void recordPoll(String topic, long nanos, int size) {}
+
+    /**
+     * @param topic     the topic
+     * @param lagMillis how late the task was handed to the dispatcher, 0 if on time
+     */
+    default void recordFireLag(String topic, long lagMillis) {}
+
+    /**
+     * @param topic the topic
+     * @param nanos from the hand-off to the completion of the listeners
+     */
+    default void recordDispatchLatency(String topic, long nanos) {}
+
+    /**
+     * @param topic    the topic
+     * @param listener the listener class name
+     * @param nanos    the handle time
+     * @param success  false if the listener threw
+     */
+    default void recordHandle(String topic, String listener, long nanos, boolean success) {}
+
+    /**
+     * A fired task was dropped, its taskId was no longer registered:
+     * |- cancelled, or a duplicate of a taskId dispatched already, or lost to a registry layout change.
+     *
+     * @param topic the topic
+     */
+    default void recordCancelled(String topic) {}
+
+    /**
+     * Called once the dispatch pool is created, e.g. to gauge its queue depth.
+     *
+     * @param dispatcher the dispatch pool
+     */
+    default void bindDispatcher(Executor dispatcher) {}
+
+    /**
+     * Called once the task registry is created, e.g. to gauge its Bloom filter.
+     *
+     * @param registry the task registry
+     */
+    default void bindRegistry(TaskRegistry registry) {}
+
+    /**
+     * Called once the scheduler starts, e.g. to gauge the state of each topic loop.
+     *
+     * @param scheduler the scheduler
+     */
+    default void bindScheduler(RedissonDelayedQueueScheduler scheduler) {}
+
+    /**
+     * Called once per topic, when the codec creates its compression counters.
+     *
+     * @param stats the compression counters of the topic
+     */
+    default void bindCompression(CompressionStats stats) {}
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.monitor;
+
+import io.github.photowey.redisson.delay.queue.api.manager.RedissonDelayedQueueManager;
+import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import io.github.photowey.redisson.delay.queue.core.codec.CompressionStats;
+import io.github.photowey.redisson.delay.queue.core.engine.QueueDepth;
+import io.github.photowey.redisson.delay.queue.core.enums.Redisson;
+import io.github.photowey.redisson.delay.queue.core.pair.QueuePair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code DelayedQueueInspector}
+ * <p>
+ * Collects the monitoring view of every registered {@link QueuePair}, for the actuator endpoint and health indicator.
+ * |- Each call hits Redis(a few commands per topic), do not poll it in a tight loop.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class DelayedQueueInspector {
+
+    private static final Logger log = LoggerFactory.getLogger(DelayedQueueInspector.class);
+
+    private final RedissonDelayedQueueManager manager;
+
+    public DelayedQueueInspector(RedissonDelayedQueueManager manager) {
+        this.manager = manager;
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * The depth of each topic.
+     *
+     * @return topic -> depth, {@link QueueDepth#UNKNOWN} if the engine failed to answer
+     */
+    public Map<String, QueueDepth> depths() {
+        Map<String, QueueDepth> depths = new LinkedHashMap<>();
+        for (QueuePair pair : this.manager.tryAcquirePairs()) {
+            depths.put(pair.topic(), this.tryDepth(pair));
+        }
+
+        return depths;
+    }
+
+    public Map<String, Integer> registrySizes() {
+        return this.manager.taskRegistry().sizes();
+    }
+
+    public Map<String, Redisson.Scheduler.State> states() {
+        return this.manager.redissonScheduler().states();
+    }
+
+    /**
+     * Everything at once, the payload of the {@code delayqueue} endpoint.
+     *
+     * @return topics: topic -> {delayed, ready, oldestReadyAge, state}, registry: shard key -> size,
+     * compression: topic -> {@link CompressionStats} counters
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Redisson.Scheduler.State> states = this.states();
+
+        Map<String, Object> topics = new LinkedHashMap<>();
+        this.depths().forEach((topic, depth) -> topics.put(topic, populateTopic(depth, states.get(topic))));
+
+        Map<String, Object> compression = new LinkedHashMap<>();
+        this.manager.compressionStats().forEach((topic, stats) -> compression.put(topic, populateCompression(stats)));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>(4);
+        snapshot.put("topics", topics);
+        snapshot.put("registry", this.tryRegistrySizes());
+        snapshot.put("compression", compression);
+
+        return snapshot;
+    }
+
+    /**
+     * The topics past the {@code delayed.health} thresholds, or whose depth is {@link QueueDepth#UNKNOWN}.
+     *
+     * @param depths the depths to check, see {@link #depths()}
+     * @return topic -> reason, empty if all healthy
+     */
+    public Map<String, String> breaches(Map<String, QueueDepth> depths) {
+        RedissonProperties.Health health = this.manager.redissonProperties().delayed().health();
+        long lagMillis = health.unit().toMillis(health.lag());
+
+        Map<String, String> breaches = new LinkedHashMap<>();
+        depths.forEach((topic, depth) -> {
+            if (QueueDepth.UNKNOWN == depth) {
+                breaches.put(topic, "depth unknown, the engine failed to answer");
+            } else if (health.readyBacklog() > 0 && depth.ready() > health.readyBacklog()) {
+                breaches.put(topic, "ready backlog " + depth.ready() + " > " + health.readyBacklog());
+            } else if (lagMillis > 0 && depth.oldestReadyAge() > lagMillis) {
+                breaches.put(topic, "lag " + depth.oldestReadyAge() + "ms > " + lagMillis + "ms");
+            }
+        });
+
+        return breaches;
+    }
+
+    // ----------------------------------------------------------------
+
+    private QueueDepth tryDepth(QueuePair pair) {
+        try {
+            return pair.engine().depth();
+        } catch (Exception e) {
+            log.warn("redisson.delayqueue: inspector.depth.failed,report:[topic:{}]", pair.topic(), e);
+            return QueueDepth.UNKNOWN;
+        }
+    }
+
+    private Map<String, Integer> tryRegistrySizes() {
+        try {
+            return this.registrySizes();
+        } catch (Exception e) {
+            log.warn("redisson.delayqueue: inspector.registry.failed", e);
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private static Map<String, Object> populateTopic(QueueDepth depth, Redisson.Scheduler.State state) {
+        Map<String, Object> topic = new LinkedHashMap<>(4);
+        topic.put("delayed", depth.delayed());
+        topic.put("ready", depth.ready());
+        topic.put("oldestReadyAge", depth.oldestReadyAge());
+        topic.put("state", state);
+
+        return topic;
+    }
+
+    private static Map<String, Object> populateCompression(CompressionStats stats) {
+        Map<String, Object> compression = new LinkedHashMap<>(8);
+        compression.put("compressed", stats.compressed());
+        compression.put("skipped", stats.skipped());
+        compression.put("rawBytes", stats.rawBytes());
+        compression.put("compressedBytes", stats.compressedBytes());
+        compression.put("ratio", stats.ratio());
+        compression.put("compressTimeMs", stats.compressTime(TimeUnit.MILLISECONDS));
+        compression.put("decompressed", stats.decompressed());
+        compression.put("decompressTimeMs", stats.decompressTime(TimeUnit.MILLISECONDS));
+
+        return compression;
+    }
+}
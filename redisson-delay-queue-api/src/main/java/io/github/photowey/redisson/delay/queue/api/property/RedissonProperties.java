@@ -20,7 +20,9 @@ import org.redisson.config.*;
 import org.springframework.util.ObjectUtils;
 
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -160,9 +162,17 @@ public class RedissonProperties implements Serializable {
          */
         private Set<String> topics = new HashSet<>();
 
+        private Engine engine = new Engine();
+        private Scheduler scheduler = new Scheduler();
         private Ticker ticker = new Ticker();
         private Poll poll = new Poll();
+        private Dispatch dispatch = new Dispatch();
         private Registry registry = new Registry();
+        private Wheel wheel = new Wheel();
+        private Codec codec = new Codec();
+        private ClaimCheck claimCheck = new ClaimCheck();
+        private Health health = new Health();
+        private Metrics metrics = new Metrics();
 
         // ----------------------------------------------------------------
 
@@ -201,6 +211,22 @@ public class RedissonProperties implements Serializable {
             this.topics = topics;
         }
 
+        public Engine getEngine() {
+            return engine;
+        }
+
+        public void setEngine(Engine engine) {
+            this.engine = engine;
+        }
+
+        public Scheduler getScheduler() {
+            return scheduler;
+        }
+
+        public void setScheduler(Scheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
         public Ticker getTick() {
             return ticker;
         }
@@ -217,6 +243,14 @@ public class RedissonProperties implements Serializable {
             this.poll = poll;
         }
 
+        public Dispatch getDispatch() {
+            return dispatch;
+        }
+
+        public void setDispatch(Dispatch dispatch) {
+            this.dispatch = dispatch;
+        }
+
         public Registry getRegistry() {
             return registry;
         }
@@ -225,6 +259,46 @@ public class RedissonProperties implements Serializable {
             this.registry = registry;
         }
 
+        public Wheel getWheel() {
+            return wheel;
+        }
+
+        public void setWheel(Wheel wheel) {
+            this.wheel = wheel;
+        }
+
+        public Codec getCodec() {
+            return codec;
+        }
+
+        public void setCodec(Codec codec) {
+            this.codec = codec;
+        }
+
+        public ClaimCheck getClaimCheck() {
+            return claimCheck;
+        }
+
+        public void setClaimCheck(ClaimCheck claimCheck) {
+            this.claimCheck = claimCheck;
+        }
+
+        public Health getHealth() {
+            return health;
+        }
+
+        public void setHealth(Health health) {
+            this.health = health;
+        }
+
+        public Metrics getMetrics() {
+            return metrics;
+        }
+
+        public void setMetrics(Metrics metrics) {
+            this.metrics = metrics;
+        }
+
         // ----------------------------------------------------------------
 
         public long max() {
@@ -235,6 +309,14 @@ public class RedissonProperties implements Serializable {
             return topic;
         }
 
+        public Engine engine() {
+            return engine;
+        }
+
+        public Scheduler scheduler() {
+            return scheduler;
+        }
+
         public Ticker ticker() {
             return ticker;
         }
@@ -243,9 +325,356 @@ public class RedissonProperties implements Serializable {
             return poll;
         }
 
+        public Dispatch dispatch() {
+            return dispatch;
+        }
+
         public Registry registry() {
             return registry;
         }
+
+        public Wheel wheel() {
+            return wheel;
+        }
+
+        public Codec codec() {
+            return codec;
+        }
+
+        public ClaimCheck claimCheck() {
+            return claimCheck;
+        }
+
+        public Health health() {
+            return health;
+        }
+
+        public Metrics metrics() {
+            return metrics;
+        }
+    }
+
+    public static class Engine implements Serializable {
+
+        private static final long serialVersionUID = 7736204518845539201L;
+
+        private Redisson.Engine.Type type = Redisson.Engine.Type.DELAYED_QUEUE;
+        /**
+         * Key prefix of the engine keys, e.g. {prefix}:{topic}:zset.
+         */
+        private String prefix = "delayed:queue:redisson:engine";
+        /**
+         * Max time a poller sleeps when nothing is due. Offers from any node wake the pollers over pub/sub, this only
+         * bounds the latency when a wakeup message is lost(e.g. during a reconnect).
+         */
+        private long idleWait = 5000;
+        private TimeUnit unit = TimeUnit.MILLISECONDS;
+        private Stream stream = new Stream();
+        private Journal journal = new Journal();
+
+        // ----------------------------------------------------------------
+
+        public Redisson.Engine.Type getType() {
+            return type;
+        }
+
+        public void setType(Redisson.Engine.Type type) {
+            this.type = type;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public void setPrefix(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public long getIdleWait() {
+            return idleWait;
+        }
+
+        public void setIdleWait(long idleWait) {
+            this.idleWait = idleWait;
+        }
+
+        public TimeUnit getUnit() {
+            return unit;
+        }
+
+        public void setUnit(TimeUnit unit) {
+            this.unit = unit;
+        }
+
+        public Stream getStream() {
+            return stream;
+        }
+
+        public void setStream(Stream stream) {
+            this.stream = stream;
+        }
+
+        public Journal getJournal() {
+            return journal;
+        }
+
+        public void setJournal(Journal journal) {
+            this.journal = journal;
+        }
+
+        // ----------------------------------------------------------------
+
+        public Redisson.Engine.Type type() {
+            return type;
+        }
+
+        public String prefix() {
+            return prefix;
+        }
+
+        public long idleWait() {
+            return idleWait;
+        }
+
+        public TimeUnit unit() {
+            return unit;
+        }
+
+        public Stream stream() {
+            return stream;
+        }
+
+        public Journal journal() {
+            return journal;
+        }
+
+        // ----------------------------------------------------------------
+
+        public boolean local() {
+            return Redisson.Engine.Type.LOCAL == type;
+        }
+    }
+
+    public static class Journal implements Serializable {
+
+        private static final long serialVersionUID = -1795304118346267540L;
+
+        /**
+         * Directory of the journals, one {topic}.journal file per topic.
+         */
+        private String dir = System.getProperty("java.io.tmpdir") + "/redisson-delayqueue";
+        /**
+         * Initial mapped size in bytes, the file grows by doubling.
+         */
+        private int segmentSize = 64 * 1024 * 1024;
+        /**
+         * Compact once the journal passes this size(bytes) and is mostly garbage.
+         */
+        private long compactThreshold = 16 * 1024 * 1024;
+        /**
+         * Force every write to the device, survives a power loss too(much slower).
+         */
+        private boolean sync = false;
+
+        // ----------------------------------------------------------------
+
+        public String getDir() {
+            return dir;
+        }
+
+        public void setDir(String dir) {
+            this.dir = dir;
+        }
+
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public long getCompactThreshold() {
+            return compactThreshold;
+        }
+
+        public void setCompactThreshold(long compactThreshold) {
+            this.compactThreshold = compactThreshold;
+        }
+
+        public boolean isSync() {
+            return sync;
+        }
+
+        public void setSync(boolean sync) {
+            this.sync = sync;
+        }
+
+        // ----------------------------------------------------------------
+
+        public String dir() {
+            return dir;
+        }
+
+        public int segmentSize() {
+            return segmentSize;
+        }
+
+        public long compactThreshold() {
+            return compactThreshold;
+        }
+
+        public boolean sync() {
+            return sync;
+        }
+    }
+
+    /**
+     * The {@code STREAM} engine, delivery is at-least-once:
+     * |- A reclaimed entry is redelivered without the registry claim, its taskId was claimed by the first delivery.
+     * |- A task whose consumer died after handling it but before the ack reaches the listeners again, and so does
+     * |- one cancelled after its first delivery. Listeners must be idempotent.
+     */
+    public static class Stream implements Serializable {
+
+        private static final long serialVersionUID = -5209461380734127733L;
+
+        /**
+         * Consumer group shared by every node consuming the topic.
+         */
+        private String group = "redisson-delayqueue";
+        /**
+         * Consumer name of this node, defaults to {pid}@{host}:{random}.
+         */
+        private String consumer;
+        /**
+         * Tasks delivered but not acknowledged for this long are reclaimed by another consumer.
+         */
+        private long reclaimIdle = 60;
+        /**
+         * Entries delivered this many times without an acknowledgement are dead-lettered.
+         */
+        private int maxDeliveries = 16;
+        /**
+         * Other consumers idle this long without pending entries are deleted from the group(<= 0: never).
+         */
+        private long consumerExpiry = 3600;
+        private TimeUnit unit = TimeUnit.SECONDS;
+
+        // ----------------------------------------------------------------
+
+        public String getGroup() {
+            return group;
+        }
+
+        public void setGroup(String group) {
+            this.group = group;
+        }
+
+        public String getConsumer() {
+            return consumer;
+        }
+
+        public void setConsumer(String consumer) {
+            this.consumer = consumer;
+        }
+
+        public long getReclaimIdle() {
+            return reclaimIdle;
+        }
+
+        public void setReclaimIdle(long reclaimIdle) {
+            this.reclaimIdle = reclaimIdle;
+        }
+
+        public int getMaxDeliveries() {
+            return maxDeliveries;
+        }
+
+        public void setMaxDeliveries(int maxDeliveries) {
+            this.maxDeliveries = maxDeliveries;
+        }
+
+        public long getConsumerExpiry() {
+            return consumerExpiry;
+        }
+
+        public void setConsumerExpiry(long consumerExpiry) {
+            this.consumerExpiry = consumerExpiry;
+        }
+
+        public TimeUnit getUnit() {
+            return unit;
+        }
+
+        public void setUnit(TimeUnit unit) {
+            this.unit = unit;
+        }
+
+        // ----------------------------------------------------------------
+
+        public String group() {
+            return group;
+        }
+
+        public String consumer() {
+            return consumer;
+        }
+
+        public long reclaimIdle() {
+            return reclaimIdle;
+        }
+
+        public int maxDeliveries() {
+            return maxDeliveries;
+        }
+
+        public long consumerExpiry() {
+            return consumerExpiry;
+        }
+
+        public TimeUnit unit() {
+            return unit;
+        }
+    }
+
+    public static class Scheduler implements Serializable {
+
+        private static final long serialVersionUID = -3021574623071348805L;
+
+        private Redisson.Scheduler.Mode mode = Redisson.Scheduler.Mode.TICKER;
+        /**
+         * Topics the scheduler never polls, e.g. consumed through {@code ReactiveRedissonDelayedQueue#consume}.
+         */
+        private Set<String> excludes = new HashSet<>();
+
+        // ----------------------------------------------------------------
+
+        public Redisson.Scheduler.Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Redisson.Scheduler.Mode mode) {
+            this.mode = mode;
+        }
+
+        public Set<String> getExcludes() {
+            return excludes;
+        }
+
+        public void setExcludes(Set<String> excludes) {
+            this.excludes = excludes;
+        }
+
+        // ----------------------------------------------------------------
+
+        public Redisson.Scheduler.Mode mode() {
+            return mode;
+        }
+
+        public Set<String> excludes() {
+            return excludes;
+        }
     }
 
     public static class Ticker implements Serializable {
@@ -303,6 +732,11 @@ public class RedissonProperties implements Serializable {
 
         private long timeout = 2;
         private TimeUnit unit = TimeUnit.SECONDS;
+        /**
+         * Max ready tasks fetched per Redis command.
+         * |- 1: one task per poll.
+         */
+        private int batchSize = 1;
 
         // ----------------------------------------------------------------
 
@@ -322,6 +756,14 @@ public class RedissonProperties implements Serializable {
             this.unit = unit;
         }
 
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
         // ----------------------------------------------------------------
 
         public long timeout() {
@@ -331,21 +773,585 @@ public class RedissonProperties implements Serializable {
         public TimeUnit unit() {
             return unit;
         }
+
+        public int batchSize() {
+            return batchSize;
+        }
     }
 
-    public static class Registry implements Serializable {
+    public static class Dispatch implements Serializable {
 
-        private static final long serialVersionUID = -662198986634128016L;
+        private static final long serialVersionUID = 4719208413650374262L;
 
-        private String topicSet = "delayed:queue:redisson:report:topic:set";
-        private String taskSet = "delayed:queue:redisson:report:task:set";
+        private Redisson.Dispatch.Mode mode = Redisson.Dispatch.Mode.CALLER;
+        private int coreSize = Runtime.getRuntime().availableProcessors();
+        private int maxSize = Runtime.getRuntime().availableProcessors() * 2;
+        private long keepAlive = 60;
+        private TimeUnit unit = TimeUnit.SECONDS;
+        /**
+         * Bounded queue in front of the pool.
+         */
+        private int queueCapacity = 1024;
+        /**
+         * Max in-flight tasks per topic, the poller blocks once it is reached.
+         * |- <= 0: unlimited.
+         */
+        private int concurrency = 0;
+        private Redisson.Dispatch.Rejection rejection = Redisson.Dispatch.Rejection.CALLER_RUNS;
 
-        public String getTopicSet() {
-            return topicSet;
-        }
+        // ----------------------------------------------------------------
 
-        public void setTopicSet(String topicSet) {
-            this.topicSet = topicSet;
+        public Redisson.Dispatch.Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Redisson.Dispatch.Mode mode) {
+            this.mode = mode;
+        }
+
+        public int getCoreSize() {
+            return coreSize;
+        }
+
+        public void setCoreSize(int coreSize) {
+            this.coreSize = coreSize;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public long getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(long keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public TimeUnit getUnit() {
+            return unit;
+        }
+
+        public void setUnit(TimeUnit unit) {
+            this.unit = unit;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public Redisson.Dispatch.Rejection getRejection() {
+            return rejection;
+        }
+
+        public void setRejection(Redisson.Dispatch.Rejection rejection) {
+            this.rejection = rejection;
+        }
+
+        // ----------------------------------------------------------------
+
+        public Redisson.Dispatch.Mode mode() {
+            return mode;
+        }
+
+        public int coreSize() {
+            return coreSize;
+        }
+
+        public int maxSize() {
+            return maxSize;
+        }
+
+        public long keepAlive() {
+            return keepAlive;
+        }
+
+        public TimeUnit unit() {
+            return unit;
+        }
+
+        public int queueCapacity() {
+            return queueCapacity;
+        }
+
+        public int concurrency() {
+            return concurrency;
+        }
+
+        public Redisson.Dispatch.Rejection rejection() {
+            return rejection;
+        }
+    }
+
+    public static class Codec implements Serializable {
+
+        private static final long serialVersionUID = 6015287390482167105L;
+
+        private Redisson.Codec.Type type = Redisson.Codec.Type.CLIENT;
+        /**
+         * COMPACT: the default payload serializer, client | jdk | kryo | json | the name of a custom one.
+         */
+        private String payload = "client";
+        /**
+         * COMPACT: topic -> payload serializer, overrides the default.
+         */
+        private Map<String, String> topics = new HashMap<>();
+        /**
+         * COMPACT: payload compression.
+         */
+        private Compression compression = new Compression();
+
+        // ----------------------------------------------------------------
+
+        public Redisson.Codec.Type getType() {
+            return type;
+        }
+
+        public void setType(Redisson.Codec.Type type) {
+            this.type = type;
+        }
+
+        public String getPayload() {
+            return payload;
+        }
+
+        public void setPayload(String payload) {
+            this.payload = payload;
+        }
+
+        public Map<String, String> getTopics() {
+            return topics;
+        }
+
+        public void setTopics(Map<String, String> topics) {
+            this.topics = topics;
+        }
+
+        public Compression getCompression() {
+            return compression;
+        }
+
+        public void setCompression(Compression compression) {
+            this.compression = compression;
+        }
+
+        // ----------------------------------------------------------------
+
+        public Redisson.Codec.Type type() {
+            return type;
+        }
+
+        public String payload() {
+            return payload;
+        }
+
+        public Map<String, String> topics() {
+            return topics;
+        }
+
+        public Compression compression() {
+            return compression;
+        }
+    }
+
+    public static class Compression implements Serializable {
+
+        private static final long serialVersionUID = -4410928513772063159L;
+
+        private boolean enabled = false;
+        /**
+         * Serialized payloads of at least this many bytes are compressed, kept as is when it does not shrink them.
+         */
+        private int threshold = 1024;
+        /**
+         * deflate | the name of a custom one.
+         */
+        private String algorithm = "deflate";
+        /**
+         * deflate: 1(fastest) ~ 9(smallest).
+         */
+        private int level = 6;
+
+        // ----------------------------------------------------------------
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(int threshold) {
+            this.threshold = threshold;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(String algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+
+        // ----------------------------------------------------------------
+
+        public boolean enabled() {
+            return enabled;
+        }
+
+        public int threshold() {
+            return threshold;
+        }
+
+        public String algorithm() {
+            return algorithm;
+        }
+
+        public int level() {
+            return level;
+        }
+    }
+
+    public static class ClaimCheck implements Serializable {
+
+        private static final long serialVersionUID = 8140672935518290437L;
+
+        /**
+         * Store large payloads aside, only a reference travels through the queue.
+         */
+        private boolean enabled = false;
+        /**
+         * Key prefix of the stored payloads, one key per task: {key}:{taskId}.
+         */
+        private String key = "delayed:queue:redisson:claimcheck";
+        /**
+         * Payloads of at least this many serialized bytes are stored aside.
+         */
+        private int threshold = 16 * 1024;
+        /**
+         * A stored payload expires at the due time plus the grace.
+         */
+        private long grace = 10;
+        private TimeUnit unit = TimeUnit.MINUTES;
+
+        // ----------------------------------------------------------------
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public int getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(int threshold) {
+            this.threshold = threshold;
+        }
+
+        public long getGrace() {
+            return grace;
+        }
+
+        public void setGrace(long grace) {
+            this.grace = grace;
+        }
+
+        public TimeUnit getUnit() {
+            return unit;
+        }
+
+        public void setUnit(TimeUnit unit) {
+            this.unit = unit;
+        }
+
+        // ----------------------------------------------------------------
+
+        public boolean enabled() {
+            return enabled;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public int threshold() {
+            return threshold;
+        }
+
+        public long grace() {
+            return grace;
+        }
+
+        public TimeUnit unit() {
+            return unit;
+        }
+    }
+
+    public static class Health implements Serializable {
+
+        private static final long serialVersionUID = -6285143079261570318L;
+
+        /**
+         * DOWN once a topic holds more due-but-undispatched tasks than this, {@code <= 0}: never.
+         */
+        private long readyBacklog = 10_000;
+        /**
+         * DOWN once the oldest ready task of a topic has waited longer than this, {@code <= 0}: never.
+         */
+        private long lag = 60;
+        private TimeUnit unit = TimeUnit.SECONDS;
+
+        // ----------------------------------------------------------------
+
+        public long getReadyBacklog() {
+            return readyBacklog;
+        }
+
+        public void setReadyBacklog(long readyBacklog) {
+            this.readyBacklog = readyBacklog;
+        }
+
+        public long getLag() {
+            return lag;
+        }
+
+        public void setLag(long lag) {
+            this.lag = lag;
+        }
+
+        public TimeUnit getUnit() {
+            return unit;
+        }
+
+        public void setUnit(TimeUnit unit) {
+            this.unit = unit;
+        }
+
+        // ----------------------------------------------------------------
+
+        public long readyBacklog() {
+            return readyBacklog;
+        }
+
+        public long lag() {
+            return lag;
+        }
+
+        public TimeUnit unit() {
+            return unit;
+        }
+    }
+
+    public static class Metrics implements Serializable {
+
+        private static final long serialVersionUID = 2163905518260217404L;
+
+        /**
+         * Also publish a percentile histogram of the timers, one series per bucket and timer: opt in.
+         */
+        private boolean histogram = false;
+
+        // ----------------------------------------------------------------
+
+        public boolean isHistogram() {
+            return histogram;
+        }
+
+        public void setHistogram(boolean histogram) {
+            this.histogram = histogram;
+        }
+
+        // ----------------------------------------------------------------
+
+        public boolean histogram() {
+            return histogram;
+        }
+    }
+
+    public static class Wheel implements Serializable {
+
+        private static final long serialVersionUID = 3850296071946218147L;
+
+        /**
+         * In-process timing wheel tier in front of the engine.
+         */
+        private boolean enabled = false;
+        /**
+         * Tick and slots of the lowest wheel, higher wheels are added on demand.
+         */
+        private long tick = 1;
+        private int size = 64;
+        /**
+         * Delays below it never leave the process(not durable, lost on a crash).
+         * |- <= 0: every task goes to the engine.
+         */
+        private long threshold = 1000;
+        /**
+         * Longer delays are handed out by the engine this early, the wheel holds them until the exact due time.
+         * |- <= 0: no promotion.
+         */
+        private long promote = 2000;
+        private TimeUnit unit = TimeUnit.MILLISECONDS;
+        /**
+         * Threads dispatching the due timers.
+         */
+        private int workers = Runtime.getRuntime().availableProcessors();
+
+        // ----------------------------------------------------------------
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTick() {
+            return tick;
+        }
+
+        public void setTick(long tick) {
+            this.tick = tick;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+
+        public long getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(long threshold) {
+            this.threshold = threshold;
+        }
+
+        public long getPromote() {
+            return promote;
+        }
+
+        public void setPromote(long promote) {
+            this.promote = promote;
+        }
+
+        public TimeUnit getUnit() {
+            return unit;
+        }
+
+        public void setUnit(TimeUnit unit) {
+            this.unit = unit;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        // ----------------------------------------------------------------
+
+        public boolean enabled() {
+            return enabled;
+        }
+
+        public long tick() {
+            return tick;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long threshold() {
+            return threshold;
+        }
+
+        public long promote() {
+            return promote;
+        }
+
+        public TimeUnit unit() {
+            return unit;
+        }
+
+        public int workers() {
+            return workers;
+        }
+    }
+
+    public static class Registry implements Serializable {
+
+        private static final long serialVersionUID = -662198986634128016L;
+
+        private String topicSet = "delayed:queue:redisson:report:topic:set";
+        private String taskSet = "delayed:queue:redisson:report:task:set";
+        /**
+         * Number of taskSet shards, keyed by hash(taskId).
+         * |- 1: the single legacy taskSet key.
+         */
+        private int shards = 1;
+        /**
+         * The {@link #shards} of the layout before a change, read as a fallback until its keys are drained.
+         * |- <= 0: no migration.
+         */
+        private int previousShards = 0;
+        private Bloom bloom = new Bloom();
+
+        public String getTopicSet() {
+            return topicSet;
+        }
+
+        public void setTopicSet(String topicSet) {
+            this.topicSet = topicSet;
         }
 
         public String getTaskSet() {
@@ -356,6 +1362,30 @@ public class RedissonProperties implements Serializable {
             this.taskSet = taskSet;
         }
 
+        public int getShards() {
+            return shards;
+        }
+
+        public void setShards(int shards) {
+            this.shards = shards;
+        }
+
+        public int getPreviousShards() {
+            return previousShards;
+        }
+
+        public void setPreviousShards(int previousShards) {
+            this.previousShards = previousShards;
+        }
+
+        public Bloom getBloom() {
+            return bloom;
+        }
+
+        public void setBloom(Bloom bloom) {
+            this.bloom = bloom;
+        }
+
         // ----------------------------------------------------------------
 
         public String topicSet() {
@@ -365,6 +1395,100 @@ public class RedissonProperties implements Serializable {
         public String taskSet() {
             return taskSet;
         }
+
+        public int shards() {
+            return shards;
+        }
+
+        public int previousShards() {
+            return previousShards;
+        }
+
+        public Bloom bloom() {
+            return bloom;
+        }
+    }
+
+    public static class Bloom implements Serializable {
+
+        private static final long serialVersionUID = -4425390912714180453L;
+
+        /**
+         * Local Bloom filter in front of taskContains.
+         * |- The registrations are broadcast on the {taskSet}:bloom channel, the other nodes' filters mark them too.
+         */
+        private boolean enabled = false;
+        private long expectedInsertions = 1_000_000;
+        private double fpp = 0.01;
+        /**
+         * Reload the filter from the registry every period(<= 0: never).
+         */
+        private long rebuildPeriod = 10;
+        private TimeUnit unit = TimeUnit.MINUTES;
+
+        // ----------------------------------------------------------------
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getExpectedInsertions() {
+            return expectedInsertions;
+        }
+
+        public void setExpectedInsertions(long expectedInsertions) {
+            this.expectedInsertions = expectedInsertions;
+        }
+
+        public double getFpp() {
+            return fpp;
+        }
+
+        public void setFpp(double fpp) {
+            this.fpp = fpp;
+        }
+
+        public long getRebuildPeriod() {
+            return rebuildPeriod;
+        }
+
+        public void setRebuildPeriod(long rebuildPeriod) {
+            this.rebuildPeriod = rebuildPeriod;
+        }
+
+        public TimeUnit getUnit() {
+            return unit;
+        }
+
+        public void setUnit(TimeUnit unit) {
+            this.unit = unit;
+        }
+
+        // ----------------------------------------------------------------
+
+        public boolean enabled() {
+            return enabled;
+        }
+
+        public long expectedInsertions() {
+            return expectedInsertions;
+        }
+
+        public double fpp() {
+            return fpp;
+        }
+
+        public long rebuildPeriod() {
+            return rebuildPeriod;
+        }
+
+        public TimeUnit unit() {
+            return unit;
+        }
     }
 
     // ----------------------------------------------------------------
@@ -0,0 +1,279 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.registry;
+
+import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import jodd.util.concurrent.ThreadFactoryBuilder;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.StatusListener;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@code BloomTaskRegistry}
+ * <p>
+ * Fronts a {@link TaskRegistry} with a {@link LocalBloomFilter}, so {@link #contains(String)} answers
+ * "definitely absent" without a Redis round trip.
+ * <p>
+ * Every registration is marked locally and, once written, broadcast on the {@code {taskSet}:bloom} channel, so the
+ * filters of the other nodes mark it too.
+ * |- A taskId offered on another node is visible here once its broadcast arrives, i.e. the pub/sub delivery time
+ * |- after the registry write.
+ * |- Broadcasts missed while the subscription was down are recovered by a rebuild on re-subscribe.
+ * |- Removals do not clear bits, the rebuild sheds them.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class BloomTaskRegistry implements TaskRegistry {
+
+    private static final String REBUILDER_NAME_TEMPLATE = "redisson-delayqueue-bloom-%d";
+    private static final int SCAN_COUNT = 1000;
+
+    private final TaskRegistry delegate;
+    private final RedissonClient redisson;
+    private final RedissonProperties.Bloom bloom;
+    private final String channel;
+    private final RTopic marks;
+
+    private volatile LocalBloomFilter filter;
+    /**
+     * The filter being rebuilt, receives the concurrent registrations too.
+     */
+    private volatile LocalBloomFilter rebuilding;
+    /**
+     * The taskIds whose registry write is still pending, replayed into a filter being rebuilt.
+     */
+    private final Map<String, Boolean> inflight = new ConcurrentHashMap<>();
+    private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+    private final ScheduledExecutorService rebuilder;
+
+    private final Logger log = LoggerFactory.getLogger(BloomTaskRegistry.class);
+
+    public BloomTaskRegistry(TaskRegistry delegate, RedissonClient redisson, RedissonProperties.Registry registry) {
+        this.delegate = delegate;
+        this.redisson = redisson;
+        this.bloom = registry.bloom();
+        this.channel = registry.taskSet() + ":bloom";
+        this.marks = redisson.getTopic(this.channel, StringCodec.INSTANCE);
+
+        this.filter = this.newFilter();
+        this.rebuilder = this.schedule();
+        // Subscribe before loading: a registration is either loaded or received.
+        this.subscribe();
+        this.load(this.filter);
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public List<String> shardKeys() {
+        return this.delegate.shardKeys();
+    }
+
+    @Override
+    public String shardKey(String taskId) {
+        return this.delegate.shardKey(taskId);
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public boolean register(String taskId) {
+        this.mark(taskId);
+        try {
+            return this.delegate.register(taskId);
+        } finally {
+            this.marked(taskId);
+        }
+    }
+
+    @Override
+    public RFuture<Boolean> registerAsync(String taskId) {
+        this.mark(taskId);
+        RFuture<Boolean> future = this.delegate.registerAsync(taskId);
+        future.whenComplete((registered, e) -> this.marked(taskId));
+
+        return future;
+    }
+
+    @Override
+    public RFuture<Boolean> registerAsync(RBatch batch, String taskId) {
+        this.mark(taskId);
+        RFuture<Boolean> future = this.delegate.registerAsync(batch, taskId);
+        future.whenComplete((registered, e) -> this.marked(taskId));
+
+        return future;
+    }
+
+    @Override
+    public boolean contains(String taskId) {
+        if (!this.filter.mightContain(taskId)) {
+            return false;
+        }
+
+        return this.delegate.contains(taskId);
+    }
+
+    @Override
+    public boolean remove(String taskId) {
+        return this.delegate.remove(taskId);
+    }
+
+    @Override
+    public RFuture<Boolean> removeAsync(String taskId) {
+        return this.delegate.removeAsync(taskId);
+    }
+
+    @Override
+    public Map<String, Boolean> removeAll(Collection<String> taskIds) {
+        return this.delegate.removeAll(taskIds);
+    }
+
+    @Override
+    public Map<String, Integer> sizes() {
+        return this.delegate.sizes();
+    }
+
+    // ----------------------------------------------------------------
+
+    public LocalBloomFilter filter() {
+        return this.filter;
+    }
+
+    /**
+     * Reload the filter from the registry, drops the bits of removed taskIds.
+     */
+    public synchronized void rebuild() {
+        LocalBloomFilter next = this.newFilter();
+        this.rebuilding = next;
+        try {
+            // A mark that missed {@code rebuilding} entered the inflight set before, its write may land after the scan.
+            for (String taskId : this.inflight.keySet()) {
+                next.put(taskId);
+            }
+            this.load(next);
+            this.filter = next;
+        } finally {
+            this.rebuilding = null;
+        }
+    }
+
+    @Override
+    public void stop() {
+        this.marks.removeAllListeners();
+        this.rebuilder.shutdownNow();
+    }
+
+    // ----------------------------------------------------------------
+
+    private void mark(String taskId) {
+        // Publish the pending write before reading {@code rebuilding}, see rebuild().
+        this.inflight.put(taskId, Boolean.TRUE);
+        this.put(taskId);
+    }
+
+    private void marked(String taskId) {
+        this.inflight.remove(taskId);
+        // Broadcast once written: a receiver that rebuilds afterwards loads the taskId from the registry.
+        this.marks.publishAsync(taskId);
+    }
+
+    private void put(String taskId) {
+        // Mark before writing to Redis: a false positive is harmless, a false negative is not.
+        this.filter.put(taskId);
+
+        LocalBloomFilter rebuilding = this.rebuilding;
+        if (null != rebuilding) {
+            rebuilding.put(taskId);
+        }
+    }
+
+    private void subscribe() {
+        // The own broadcasts come back too, marking twice is harmless.
+        this.marks.addListener(String.class, (channel, taskId) -> this.put(taskId));
+        this.marks.addListener(new StatusListener() {
+            @Override
+            public void onSubscribe(String channel) {
+                // The first subscribe precedes the initial load, a later one follows a disconnect.
+                if (!subscribed.compareAndSet(false, true)) {
+                    onResubscribe();
+                }
+            }
+
+            @Override
+            public void onUnsubscribe(String channel) {}
+        });
+    }
+
+    private void onResubscribe() {
+        log.info("redisson.delayqueue: bloom.resubscribed,report:[channel:{}]", this.channel);
+        // Off the pub/sub thread, the rebuild blocks on Redis.
+        this.rebuilder.execute(this::tryRebuild);
+    }
+
+    private LocalBloomFilter newFilter() {
+        return new LocalBloomFilter(this.bloom.expectedInsertions(), this.bloom.fpp());
+    }
+
+    private void load(LocalBloomFilter filter) {
+        for (String shardKey : this.delegate.shardKeys()) {
+            Iterator<String> iterator = this.redisson.<String>getSetCache(shardKey).iterator(SCAN_COUNT);
+            while (iterator.hasNext()) {
+                filter.put(iterator.next());
+            }
+        }
+    }
+
+    private ScheduledExecutorService schedule() {
+        ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create()
+                        .setNameFormat(REBUILDER_NAME_TEMPLATE)
+                        .setDaemon(true)
+                        .get()
+        );
+        if (this.bloom.rebuildPeriod() <= 0) {
+            return rebuilder;
+        }
+
+        rebuilder.scheduleWithFixedDelay(this::tryRebuild, this.bloom.rebuildPeriod(), this.bloom.rebuildPeriod(), this.bloom.unit());
+
+        return rebuilder;
+    }
+
+    private void tryRebuild() {
+        try {
+            this.rebuild();
+        } catch (Throwable e) {
+            log.warn("redisson.delayqueue: bloom.rebuild.failed", e);
+        }
+    }
+}
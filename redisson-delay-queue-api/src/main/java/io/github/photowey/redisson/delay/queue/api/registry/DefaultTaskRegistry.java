@@ -0,0 +1,345 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.registry;
+
+import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RSetCache;
+import org.redisson.api.RedissonClient;
+import org.redisson.misc.CompletableFutureWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@code DefaultTaskRegistry}
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class DefaultTaskRegistry implements TaskRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(DefaultTaskRegistry.class);
+
+    private final RedissonClient redisson;
+    private final String[] shardKeys;
+    /**
+     * Non-empty keys of the {@code registry.previousShards} layout, i.e. {@code registry.shards} changed while tasks
+     * were pending.
+     * |- Read as a fallback so those tasks are not taken for cancelled, each one is dropped once observed empty.
+     */
+    private volatile String[] legacyKeys;
+
+    public DefaultTaskRegistry(RedissonClient redisson, RedissonProperties.Registry registry) {
+        this.redisson = redisson;
+        this.shardKeys = populateShardKeys(registry);
+        this.legacyKeys = this.populateLegacyKeys(registry);
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * shards <= 1: the legacy single key.
+     * |- else: {taskSet}:{n}, the hash tag pins each shard to its own Cluster slot.
+     */
+    public static String[] populateShardKeys(RedissonProperties.Registry registry) {
+        return populateShardKeys(registry.taskSet(), registry.shards());
+    }
+
+    public static String[] populateShardKeys(String taskSet, int shards) {
+        shards = Math.max(shards, 1);
+        if (1 == shards) {
+            return new String[]{taskSet};
+        }
+
+        String[] shardKeys = new String[shards];
+        for (int i = 0; i < shards; i++) {
+            shardKeys[i] = taskSet + ":{" + i + "}";
+        }
+
+        return shardKeys;
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * The keys of the current layout, followed by the legacy keys still draining.
+     */
+    @Override
+    public List<String> shardKeys() {
+        String[] legacyKeys = this.legacyKeys;
+        List<String> shardKeys = new ArrayList<>(this.shardKeys.length + legacyKeys.length);
+        shardKeys.addAll(Arrays.asList(this.shardKeys));
+        shardKeys.addAll(Arrays.asList(legacyKeys));
+
+        return Collections.unmodifiableList(shardKeys);
+    }
+
+    @Override
+    public String shardKey(String taskId) {
+        if (1 == this.shardKeys.length) {
+            return this.shardKeys[0];
+        }
+
+        // String#hashCode is specified, so every node picks the same shard.
+        return this.shardKeys[(taskId.hashCode() & Integer.MAX_VALUE) % this.shardKeys.length];
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public boolean register(String taskId) {
+        return this.shard(taskId).add(taskId);
+    }
+
+    @Override
+    public RFuture<Boolean> registerAsync(String taskId) {
+        return this.shard(taskId).addAsync(taskId);
+    }
+
+    @Override
+    public RFuture<Boolean> registerAsync(RBatch batch, String taskId) {
+        return batch.<String>getSetCache(this.shardKey(taskId)).addAsync(taskId);
+    }
+
+    @Override
+    public boolean contains(String taskId) {
+        if (this.shard(taskId).contains(taskId)) {
+            return true;
+        }
+
+        String[] legacyKeys = this.legacyKeys;
+        if (0 == legacyKeys.length) {
+            return false;
+        }
+
+        RBatch batch = this.redisson.createBatch();
+        List<RFuture<Boolean>> contains = new ArrayList<>(legacyKeys.length);
+        for (String legacyKey : legacyKeys) {
+            contains.add(batch.<String>getSetCache(legacyKey).containsAsync(taskId));
+        }
+        Map<String, RFuture<Integer>> sizes = this.sizeLegacy(batch, legacyKeys);
+        batch.execute();
+        this.dropDrained(sizes);
+
+        return contains.stream().anyMatch((contained) -> contained.toCompletableFuture().join());
+    }
+
+    @Override
+    public boolean remove(String taskId) {
+        return this.shard(taskId).remove(taskId) || this.removeLegacy(taskId);
+    }
+
+    @Override
+    public RFuture<Boolean> removeAsync(String taskId) {
+        RFuture<Boolean> remove = this.shard(taskId).removeAsync(taskId);
+        if (0 == this.legacyKeys.length) {
+            return remove;
+        }
+
+        return new CompletableFutureWrapper<>(remove.toCompletableFuture()
+                .thenCompose((removed) -> removed ? CompletableFuture.completedFuture(true) : this.removeLegacyAsync(taskId)));
+    }
+
+    @Override
+    public Map<String, Boolean> removeAll(Collection<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        RBatch batch = this.redisson.createBatch();
+        Map<String, RFuture<Boolean>> removes = new LinkedHashMap<>(taskIds.size());
+        for (String taskId : taskIds) {
+            removes.put(taskId, batch.<String>getSetCache(this.shardKey(taskId)).removeAsync(taskId));
+        }
+        batch.execute();
+
+        Map<String, Boolean> removed = new LinkedHashMap<>(removes.size());
+        removes.forEach((taskId, remove) -> removed.put(taskId, remove.toCompletableFuture().join()));
+
+        if (this.legacyKeys.length > 0) {
+            this.removeAllLegacy(removed);
+        }
+
+        return removed;
+    }
+
+    @Override
+    public Map<String, Integer> sizes() {
+        RBatch batch = this.redisson.createBatch();
+        List<String> shardKeys = this.shardKeys();
+        Map<String, RFuture<Integer>> sizes = new LinkedHashMap<>(shardKeys.size());
+        for (String shardKey : shardKeys) {
+            sizes.put(shardKey, batch.<String>getSetCache(shardKey).sizeAsync());
+        }
+        batch.execute();
+
+        Map<String, Integer> counted = new LinkedHashMap<>(sizes.size());
+        sizes.forEach((shardKey, size) -> counted.put(shardKey, size.toCompletableFuture().join()));
+        if (this.legacyKeys.length > 0) {
+            this.dropDrained(sizes);
+        }
+
+        return counted;
+    }
+
+    // ----------------------------------------------------------------
+
+    private RSetCache<String> shard(String taskId) {
+        return this.redisson.getSetCache(this.shardKey(taskId));
+    }
+
+    private boolean removeLegacy(String taskId) {
+        String[] legacyKeys = this.legacyKeys;
+        if (0 == legacyKeys.length) {
+            return false;
+        }
+
+        RBatch batch = this.redisson.createBatch();
+        List<RFuture<Boolean>> removes = new ArrayList<>(legacyKeys.length);
+        for (String legacyKey : legacyKeys) {
+            removes.add(batch.<String>getSetCache(legacyKey).removeAsync(taskId));
+        }
+        Map<String, RFuture<Integer>> sizes = this.sizeLegacy(batch, legacyKeys);
+        batch.execute();
+        this.dropDrained(sizes);
+
+        return removes.stream().anyMatch((remove) -> remove.toCompletableFuture().join());
+    }
+
+    private CompletableFuture<Boolean> removeLegacyAsync(String taskId) {
+        String[] legacyKeys = this.legacyKeys;
+        RBatch batch = this.redisson.createBatch();
+        List<RFuture<Boolean>> removes = new ArrayList<>(legacyKeys.length);
+        for (String legacyKey : legacyKeys) {
+            removes.add(batch.<String>getSetCache(legacyKey).removeAsync(taskId));
+        }
+        Map<String, RFuture<Integer>> sizes = this.sizeLegacy(batch, legacyKeys);
+
+        return batch.executeAsync().toCompletableFuture()
+                .thenApply((x) -> {
+                    this.dropDrained(sizes);
+                    return removes.stream().anyMatch((remove) -> remove.toCompletableFuture().join());
+                });
+    }
+
+    /**
+     * Retry the misses of a chunk claim against the legacy keys, in one pipeline.
+     */
+    private void removeAllLegacy(Map<String, Boolean> removed) {
+        String[] legacyKeys = this.legacyKeys;
+        RBatch batch = this.redisson.createBatch();
+        Map<String, List<RFuture<Boolean>>> retries = new LinkedHashMap<>();
+        removed.forEach((taskId, hit) -> {
+            if (hit) {
+                return;
+            }
+
+            List<RFuture<Boolean>> removes = new ArrayList<>(legacyKeys.length);
+            for (String legacyKey : legacyKeys) {
+                removes.add(batch.<String>getSetCache(legacyKey).removeAsync(taskId));
+            }
+            retries.put(taskId, removes);
+        });
+        if (retries.isEmpty()) {
+            return;
+        }
+
+        Map<String, RFuture<Integer>> sizes = this.sizeLegacy(batch, legacyKeys);
+        batch.execute();
+        this.dropDrained(sizes);
+        retries.forEach((taskId, removes) -> removed.put(
+                taskId, removes.stream().anyMatch((remove) -> remove.toCompletableFuture().join())));
+    }
+
+    /**
+     * Size the legacy keys in the pipeline of a miss, it costs no extra round trip.
+     */
+    private Map<String, RFuture<Integer>> sizeLegacy(RBatch batch, String[] legacyKeys) {
+        Map<String, RFuture<Integer>> sizes = new LinkedHashMap<>(legacyKeys.length);
+        for (String legacyKey : legacyKeys) {
+            sizes.put(legacyKey, batch.<String>getSetCache(legacyKey).sizeAsync());
+        }
+
+        return sizes;
+    }
+
+    private void dropDrained(Map<String, RFuture<Integer>> sizes) {
+        List<String> drained = new ArrayList<>();
+        sizes.forEach((key, size) -> {
+            if (0 == size.toCompletableFuture().join()) {
+                drained.add(key);
+            }
+        });
+
+        this.drop(drained);
+    }
+
+    private synchronized void drop(List<String> drained) {
+        List<String> legacyKeys = new ArrayList<>(Arrays.asList(this.legacyKeys));
+        drained.retainAll(legacyKeys);
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        legacyKeys.removeAll(drained);
+
+        this.legacyKeys = legacyKeys.toArray(new String[0]);
+        log.info("redisson.delayqueue: registry.legacy.drained,report:[drained:{},legacy:{}]", drained, legacyKeys);
+    }
+
+    /**
+     * The non-empty keys of the {@code registry.previousShards} layout that are not part of the current one.
+     * |- Opt-in: no keyspace SCAN, a layout change without it takes the pending tasks of the old keys for cancelled.
+     */
+    private String[] populateLegacyKeys(RedissonProperties.Registry registry) {
+        if (registry.previousShards() <= 0 || Math.max(registry.previousShards(), 1) == this.shardKeys.length) {
+            return new String[0];
+        }
+
+        List<String> current = Arrays.asList(this.shardKeys);
+        RBatch batch = this.redisson.createBatch();
+        Map<String, RFuture<Integer>> sizes = new LinkedHashMap<>();
+        for (String key : populateShardKeys(registry.taskSet(), registry.previousShards())) {
+            if (!current.contains(key)) {
+                sizes.put(key, batch.<String>getSetCache(key).sizeAsync());
+            }
+        }
+        batch.execute();
+
+        List<String> legacyKeys = new ArrayList<>();
+        sizes.forEach((key, size) -> {
+            if (size.toCompletableFuture().join() > 0) {
+                legacyKeys.add(key);
+            }
+        });
+
+        log.warn("redisson.delayqueue: registry.layout.changed,report:[shards:{},previousShards:{},legacy:{}]",
+                this.shardKeys.length, registry.previousShards(), legacyKeys);
+
+        return legacyKeys.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.registry;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code LocalBloomFilter}
+ * <p>
+ * Lock-free, fixed-size Bloom filter over strings.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class LocalBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashes;
+    private final LongAdder count = new LongAdder();
+
+    public LocalBloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(expectedInsertions, 1);
+        double p = Math.min(Math.max(fpp, Double.MIN_VALUE), 0.5);
+
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) >>> 6);
+
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words << 6;
+        this.hashes = Math.max(1, (int) Math.round((double) this.bitSize / n * Math.log(2)));
+    }
+
+    // ----------------------------------------------------------------
+
+    public void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        boolean changed = false;
+        for (int i = 1; i <= this.hashes; i++) {
+            changed |= this.set(this.index(h1 + i * h2));
+        }
+
+        if (changed) {
+            this.count.increment();
+        }
+    }
+
+    /**
+     * @param value the value
+     * @return false: definitely absent; true: maybe present.
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= this.hashes; i++) {
+            if (!this.get(this.index(h1 + i * h2))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // ----------------------------------------------------------------
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashes() {
+        return hashes;
+    }
+
+    /**
+     * Approximate number of distinct values put.
+     */
+    public long count() {
+        return this.count.sum();
+    }
+
+    /**
+     * The false-positive probability at the current fill.
+     */
+    public double expectedFpp() {
+        return Math.pow(1 - Math.exp(-(double) this.hashes * this.count() / this.bitSize), this.hashes);
+    }
+
+    // ----------------------------------------------------------------
+
+    private long index(int combined) {
+        return (combined & Integer.MAX_VALUE) % this.bitSize;
+    }
+
+    private boolean set(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+
+        long current;
+        do {
+            current = this.bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!this.bits.compareAndSet(word, current, current | mask));
+
+        return true;
+    }
+
+    private boolean get(long index) {
+        return (this.bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+    }
+
+    private static long hash(String value) {
+        // FNV-1a 64 over the chars, then a murmur3 finalizer.
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.registry;
+
+import io.github.photowey.redisson.delay.queue.core.engine.LocalDelayedQueueEngine;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.misc.CompletableFutureWrapper;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@code LocalTaskRegistry}
+ * <p>
+ * The in-process registry of the embedded {@code LOCAL} engine, no Redis involved.
+ * |- Seeded from the pending tasks the engines replayed from their journals.
+ * |- A removal(cancel) drops the pending entry from the engines as well, so it is journaled and survives a restart.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class LocalTaskRegistry implements TaskRegistry {
+
+    private static final String SHARD_KEY = "local";
+
+    private final Set<String> taskIds = ConcurrentHashMap.newKeySet();
+    private final Supplier<Collection<LocalDelayedQueueEngine>> engines;
+
+    public LocalTaskRegistry(Supplier<Collection<LocalDelayedQueueEngine>> engines) {
+        this.engines = engines;
+        for (LocalDelayedQueueEngine engine : engines.get()) {
+            this.taskIds.addAll(engine.taskIds());
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public List<String> shardKeys() {
+        return Collections.singletonList(SHARD_KEY);
+    }
+
+    @Override
+    public String shardKey(String taskId) {
+        return SHARD_KEY;
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public boolean register(String taskId) {
+        return this.taskIds.add(taskId);
+    }
+
+    @Override
+    public RFuture<Boolean> registerAsync(String taskId) {
+        return new CompletableFutureWrapper<>(this.register(taskId));
+    }
+
+    @Override
+    public RFuture<Boolean> registerAsync(RBatch batch, String taskId) {
+        return this.registerAsync(taskId);
+    }
+
+    @Override
+    public boolean contains(String taskId) {
+        return this.taskIds.contains(taskId);
+    }
+
+    @Override
+    public boolean remove(String taskId) {
+        boolean removed = this.taskIds.remove(taskId);
+        if (removed) {
+            // Still pending if cancelled, already popped if claimed at dispatch(a no-op then).
+            for (LocalDelayedQueueEngine engine : this.engines.get()) {
+                engine.remove(taskId);
+            }
+        }
+
+        return removed;
+    }
+
+    @Override
+    public RFuture<Boolean> removeAsync(String taskId) {
+        return new CompletableFutureWrapper<>(this.remove(taskId));
+    }
+
+    @Override
+    public Map<String, Boolean> removeAll(Collection<String> taskIds) {
+        Map<String, Boolean> removes = new LinkedHashMap<>(taskIds.size());
+        for (String taskId : taskIds) {
+            removes.put(taskId, this.remove(taskId));
+        }
+
+        return removes;
+    }
+
+    @Override
+    public Map<String, Integer> sizes() {
+        return Collections.singletonMap(SHARD_KEY, this.taskIds.size());
+    }
+}
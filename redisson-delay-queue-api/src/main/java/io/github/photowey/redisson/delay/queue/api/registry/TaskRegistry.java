@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.registry;
+
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code TaskRegistry}
+ * <p>
+ * The pending taskIds, sharded across {@code registry.shards} keys by taskId.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public interface TaskRegistry {
+
+    /**
+     * All registry keys.
+     *
+     * @return the shard keys
+     */
+    List<String> shardKeys();
+
+    /**
+     * The registry key that holds the taskId.
+     *
+     * @param taskId the taskId
+     * @return the shard key
+     */
+    String shardKey(String taskId);
+
+    // ----------------------------------------------------------------
+
+    boolean register(String taskId);
+
+    RFuture<Boolean> registerAsync(String taskId);
+
+    /**
+     * Queue the registration into a batch.
+     *
+     * @param batch  the batch
+     * @param taskId the taskId
+     * @return the future completed on {@link RBatch#execute()}
+     */
+    RFuture<Boolean> registerAsync(RBatch batch, String taskId);
+
+    boolean contains(String taskId);
+
+    boolean remove(String taskId);
+
+    RFuture<Boolean> removeAsync(String taskId);
+
+    /**
+     * Remove a chunk of taskIds in one pipeline.
+     *
+     * @param taskIds the taskIds
+     * @return taskId -> removed, i.e. it was still registered
+     */
+    Map<String, Boolean> removeAll(Collection<String> taskIds);
+
+    /**
+     * The registered taskId count of each shard, for monitoring only.
+     *
+     * @return shard key -> size, empty if unknown
+     */
+    default Map<String, Integer> sizes() {
+        return Collections.emptyMap();
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Release local resources, if any.
+     */
+    default void stop() {}
+}
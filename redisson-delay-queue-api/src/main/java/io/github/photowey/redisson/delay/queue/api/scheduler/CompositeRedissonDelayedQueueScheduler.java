@@ -18,14 +18,22 @@ package io.github.photowey.redisson.delay.queue.api.scheduler;
 import io.github.photowey.redisson.delay.queue.api.executor.RedissonDelayedQueueExecutor;
 import io.github.photowey.redisson.delay.queue.api.manager.RedissonDelayedQueueManager;
 import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import io.github.photowey.redisson.delay.queue.core.enums.Redisson;
 import io.github.photowey.redisson.delay.queue.core.pair.QueuePair;
 import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
 import io.github.photowey.spring.infras.common.hardware.HardwareUtils;
 import jodd.util.concurrent.ThreadFactoryBuilder;
 import org.springframework.util.ObjectUtils;
 
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 
 /**
@@ -45,13 +53,18 @@ public class CompositeRedissonDelayedQueueScheduler implements RedissonDelayedQu
     private final ScheduledExecutorService ticker;
     private final ScheduledExecutorService scheduler;
 
+    private final ConcurrentHashMap<String, TopicLoop> loops = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<RedissonDelayedTask<?>>> takes = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
     public CompositeRedissonDelayedQueueScheduler(RedissonDelayedQueueManager manager, RedissonDelayedQueueExecutor executor) {
         this.manager = manager;
         this.executor = executor;
         this.ticker = Executors.newSingleThreadScheduledExecutor();
 
+        // Platform threads whatever the dispatch mode: the pollers are few and long-lived, only the dispatch goes virtual.
         this.scheduler = Executors.newScheduledThreadPool(
-                Math.min(this.topics().size(), THRESHOLD),
+                this.determineThreads(),
                 ThreadFactoryBuilder.create()
                         .setNameFormat(SCHEDULER_NAME_TEMPLATE)
                         .get()
@@ -67,26 +80,62 @@ public class CompositeRedissonDelayedQueueScheduler implements RedissonDelayedQu
 
     // ----------------------------------------------------------------
 
+    /**
+     * The polled topics, {@code delayed.scheduler.excludes} left out.
+     */
     @Override
     public Set<String> topics() {
-        return this.redissonProperties().delayed().topics();
+        Set<String> topics = this.redissonProperties().delayed().topics();
+        Set<String> excludes = this.redissonProperties().delayed().scheduler().excludes();
+        if (ObjectUtils.isEmpty(excludes)) {
+            return topics;
+        }
+
+        Set<String> polled = new LinkedHashSet<>(topics);
+        polled.removeAll(excludes);
+
+        return polled;
+    }
+
+    @Override
+    public Map<String, Redisson.Scheduler.State> states() {
+        Map<String, Redisson.Scheduler.State> states = new LinkedHashMap<>();
+        this.loops.forEach((topic, loop) -> states.put(topic, loop.state()));
+
+        return states;
     }
 
     @Override
     public void start() {
+        this.running = true;
+        this.manager.metrics().bindScheduler(this);
         this.schedule();
     }
 
     @Override
     public void schedule() {
-        RedissonProperties.Ticker tickerConf = this.redissonProperties().delayed().ticker();
-        this.ticker.scheduleAtFixedRate(this::tick, tickerConf.initialDelay(), tickerConf.period(), tickerConf.unit());
+        switch (this.mode()) {
+            case PUSH:
+                this.subscribe();
+                break;
+            case LOOP:
+                this.loop();
+                break;
+            default:
+                RedissonProperties.Ticker tickerConf = this.redissonProperties().delayed().ticker();
+                this.ticker.scheduleAtFixedRate(this::tick, tickerConf.initialDelay(), tickerConf.period(), tickerConf.unit());
+                break;
+        }
     }
 
     @Override
     public void stop() {
+        this.running = false;
+        this.loops.values().forEach(TopicLoop::stop);
+        this.takes.values().forEach(take -> take.cancel(false));
+
         this.ticker.shutdown();
-        this.scheduler.shutdown();
+        this.scheduler.shutdownNow();
     }
 
     // ----------------------------------------------------------------
@@ -94,6 +143,8 @@ public class CompositeRedissonDelayedQueueScheduler implements RedissonDelayedQu
     @Override
     public void destroy() throws Exception {
         this.stop();
+        this.manager.taskRegistry().stop();
+        this.manager.timingWheel().stop();
         this.manager.tryAcquirePairs().forEach(QueuePair::destroy);
     }
 
@@ -105,22 +156,220 @@ public class CompositeRedissonDelayedQueueScheduler implements RedissonDelayedQu
 
     public void advance() {
         this.topics().forEach(topic -> {
-            this.scheduler.execute(() -> {
-                QueuePair pair = this.manager.tryAcquirePair(topic);
-                if (!ObjectUtils.isEmpty(pair)) {
-                    this.scheduleTopic(pair);
+            TopicLoop loop = this.topicLoop(topic);
+            // Single-flight: skip the topic while its previous drain is still in flight.
+            if (!loop.tryAcquire()) {
+                return;
+            }
+
+            boolean accepted = this.tryExecute(() -> {
+                try {
+                    QueuePair pair = this.manager.tryAcquirePair(topic);
+                    if (!ObjectUtils.isEmpty(pair)) {
+                        this.scheduleTopic(pair, loop);
+                    }
+                } finally {
+                    loop.release();
                 }
             });
+
+            if (!accepted) {
+                loop.release();
+            }
         });
     }
 
-    private void scheduleTopic(QueuePair pair) {
+    // ----------------------------------------------------------------
+
+    public void loop() {
+        this.topics().forEach(topic -> {
+            QueuePair pair = this.manager.tryAcquirePair(topic);
+            if (!ObjectUtils.isEmpty(pair)) {
+                TopicLoop loop = this.topicLoop(topic);
+                loop.polling();
+                this.tryExecute(() -> this.loopTopic(pair, loop));
+            }
+        });
+    }
+
+    private void loopTopic(QueuePair pair, TopicLoop loop) {
         RedissonProperties.Poll poll = this.redissonProperties().delayed().poll();
+        while (this.running && !Thread.currentThread().isInterrupted()) {
+            try {
+                this.drainTopic(pair, poll, loop);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                // Back off, e.g. Redis is unreachable.
+                this.backoff(poll);
+            }
+        }
+
+        loop.stop();
+    }
+
+    private void backoff(RedissonProperties.Poll poll) {
         try {
+            poll.unit().sleep(poll.timeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    public void subscribe() {
+        this.topics().forEach(topic -> {
+            QueuePair pair = this.manager.tryAcquirePair(topic);
+            if (!ObjectUtils.isEmpty(pair)) {
+                this.take(pair, this.topicLoop(topic));
+            }
+        });
+    }
+
+    private void take(QueuePair pair, TopicLoop loop) {
+        if (!this.running) {
+            return;
+        }
+
+        loop.polling();
+        CompletableFuture<RedissonDelayedTask<?>> take = pair.engine().takeAsync();
+        this.takes.put(pair.topic(), take);
+
+        take.whenComplete((delayedTask, cause) -> {
+            if (null != cause) {
+                this.retake(pair, loop);
+                return;
+            }
+
+            // Never dispatch on the Redis I/O thread.
+            this.tryExecute(() -> {
+                try {
+                    this.dispatch(loop, delayedTask);
+                    this.drainReady(pair, this.redissonProperties().delayed().poll(), loop);
+                } catch (RejectedExecutionException e) {
+                    // The dispatch pool is saturated(ABORT) and the task handed back, back off.
+                    this.retake(pair, loop);
+                    return;
+                } catch (Throwable ignored) {
+                }
+
+                this.take(pair, loop);
+            });
+        });
+    }
+
+    private void retake(QueuePair pair, TopicLoop loop) {
+        if (!this.running) {
+            return;
+        }
+
+        RedissonProperties.Poll poll = this.redissonProperties().delayed().poll();
+        try {
+            this.scheduler.schedule(() -> this.take(pair, loop), poll.timeout(), poll.unit());
+        } catch (RejectedExecutionException ignored) {}
+    }
+
+    // ----------------------------------------------------------------
+
+    private void scheduleTopic(QueuePair pair, TopicLoop loop) {
+        RedissonProperties.Poll poll = this.redissonProperties().delayed().poll();
+        try {
+            if (poll.batchSize() > 1) {
+                this.drainTopic(pair, poll, loop);
+                return;
+            }
+
             RedissonDelayedTask<?> delayedTask = null;
-            while (null != (delayedTask = pair.blockingQueue().poll(poll.timeout(), poll.unit()))) {
-                this.executor.execute(delayedTask);
+            while (null != (delayedTask = this.poll(pair, poll))) {
+                this.dispatch(loop, delayedTask);
             }
         } catch (Throwable ignored) {}
     }
+
+    private void drainTopic(QueuePair pair, RedissonProperties.Poll poll, TopicLoop loop) throws InterruptedException {
+        while (true) {
+            this.drainReady(pair, poll, loop);
+
+            // Nothing ready, wait for the next one.
+            RedissonDelayedTask<?> delayedTask = this.poll(pair, poll);
+            if (null == delayedTask) {
+                return;
+            }
+
+            this.dispatch(loop, delayedTask);
+        }
+    }
+
+    private void drainReady(QueuePair pair, RedissonProperties.Poll poll, TopicLoop loop) {
+        int batchSize = Math.max(poll.batchSize(), 1);
+
+        List<RedissonDelayedTask<?>> delayedTasks;
+        while (!(delayedTasks = this.poll(pair, batchSize)).isEmpty()) {
+            this.dispatch(loop, delayedTasks);
+        }
+    }
+
+    private RedissonDelayedTask<?> poll(QueuePair pair, RedissonProperties.Poll poll) throws InterruptedException {
+        long started = System.nanoTime();
+        RedissonDelayedTask<?> delayedTask = pair.engine().poll(poll.timeout(), poll.unit());
+        this.manager.metrics().recordPoll(pair.topic(), System.nanoTime() - started, null == delayedTask ? 0 : 1);
+
+        return delayedTask;
+    }
+
+    private List<RedissonDelayedTask<?>> poll(QueuePair pair, int batchSize) {
+        long started = System.nanoTime();
+        List<RedissonDelayedTask<?>> delayedTasks = pair.engine().poll(batchSize);
+        this.manager.metrics().recordPoll(pair.topic(), System.nanoTime() - started, delayedTasks.size());
+
+        return delayedTasks;
+    }
+
+    // ----------------------------------------------------------------
+
+    private void dispatch(TopicLoop loop, RedissonDelayedTask<?> delayedTask) {
+        loop.dispatching();
+        try {
+            this.executor.execute(delayedTask);
+        } finally {
+            loop.polling();
+        }
+    }
+
+    private void dispatch(TopicLoop loop, List<RedissonDelayedTask<?>> delayedTasks) {
+        loop.dispatching();
+        try {
+            this.executor.execute(delayedTasks);
+        } finally {
+            loop.polling();
+        }
+    }
+
+    private boolean tryExecute(Runnable task) {
+        try {
+            this.scheduler.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private TopicLoop topicLoop(String topic) {
+        return this.loops.computeIfAbsent(topic, TopicLoop::new);
+    }
+
+    private Redisson.Scheduler.Mode mode() {
+        return this.redissonProperties().delayed().scheduler().mode();
+    }
+
+    private int determineThreads() {
+        int topics = this.topics().size();
+        if (Redisson.Scheduler.Mode.LOOP == this.mode()) {
+            // One dedicated thread per topic loop.
+            return Math.max(topics, 1);
+        }
+
+        return Math.max(Math.min(topics, THRESHOLD), 1);
+    }
 }
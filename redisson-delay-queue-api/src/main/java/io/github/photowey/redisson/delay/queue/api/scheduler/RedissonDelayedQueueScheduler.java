@@ -16,6 +16,9 @@
 package io.github.photowey.redisson.delay.queue.api.scheduler;
 
 import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import io.github.photowey.redisson.delay.queue.core.enums.Redisson;
+
+import java.util.Map;
 
 /**
  * {@code RedissonDelayedQueueScheduler}
@@ -27,4 +30,11 @@ import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
 public interface RedissonDelayedQueueScheduler extends DelayedQueueScheduler {
 
     RedissonProperties redissonProperties();
+
+    /**
+     * The consumer state of each topic.
+     *
+     * @return topic -> state
+     */
+    Map<String, Redisson.Scheduler.State> states();
 }
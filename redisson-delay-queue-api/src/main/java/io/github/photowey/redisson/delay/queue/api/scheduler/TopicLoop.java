@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.scheduler;
+
+import io.github.photowey.redisson.delay.queue.core.enums.Redisson;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@code TopicLoop}
+ * <p>
+ * The consumer state of one topic, it also guarantees at most one in-flight drain per topic.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class TopicLoop {
+
+    private final String topic;
+    private final AtomicReference<Redisson.Scheduler.State> state = new AtomicReference<>(Redisson.Scheduler.State.IDLE);
+
+    public TopicLoop(String topic) {
+        this.topic = topic;
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Try to take the topic over for one drain.
+     *
+     * @return false if the previous drain of the topic is still in flight.
+     */
+    public boolean tryAcquire() {
+        return this.state.compareAndSet(Redisson.Scheduler.State.IDLE, Redisson.Scheduler.State.POLLING);
+    }
+
+    public void polling() {
+        this.transition(Redisson.Scheduler.State.POLLING);
+    }
+
+    public void dispatching() {
+        this.transition(Redisson.Scheduler.State.DISPATCHING);
+    }
+
+    public void release() {
+        this.transition(Redisson.Scheduler.State.IDLE);
+    }
+
+    public void stop() {
+        this.state.set(Redisson.Scheduler.State.STOPPED);
+    }
+
+    // ----------------------------------------------------------------
+
+    public String topic() {
+        return this.topic;
+    }
+
+    public Redisson.Scheduler.State state() {
+        return this.state.get();
+    }
+
+    // ----------------------------------------------------------------
+
+    private void transition(Redisson.Scheduler.State next) {
+        this.state.getAndUpdate(prev -> Redisson.Scheduler.State.STOPPED == prev ? prev : next);
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.wheel;
+
+import io.github.photowey.redisson.delay.queue.api.manager.RedissonDelayedQueueManager;
+import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import io.github.photowey.redisson.delay.queue.core.pair.QueuePair;
+import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+import io.github.photowey.redisson.delay.queue.core.wheel.HierarchicalTimingWheel;
+import jodd.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code TimingWheelTier}
+ * <p>
+ * The in-process tier in front of the engine:
+ * |- Short delays(below {@code threshold}) are held by a {@link HierarchicalTimingWheel} and never reach Redis.
+ * |- Longer ones go to the engine {@code promote} early, and wait in the wheel for the exact due time once taken.
+ * <p>
+ * A disabled tier holds nothing, every task goes to the engine as is.
+ * On {@link #stop()}, the held tasks are offered back to the engine with their due time instead of being dropped.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class TimingWheelTier {
+
+    private static final Logger log = LoggerFactory.getLogger(TimingWheelTier.class);
+
+    private static final long HANDBACK_TIMEOUT_MILLIS = 10_000;
+    private static final String REAPER_NAME_TEMPLATE = "redisson-delayqueue-wheel-reaper-%d";
+    private static final String WORKER_NAME_TEMPLATE = "redisson-delayqueue-wheel-%d";
+
+    private final RedissonDelayedQueueManager manager;
+    private final RedissonProperties.Wheel wheel;
+
+    private volatile HierarchicalTimingWheel timer;
+    private volatile ExecutorService workers;
+    private volatile boolean stopped;
+
+    public TimingWheelTier(RedissonDelayedQueueManager manager, RedissonProperties.Wheel wheel) {
+        this.manager = manager;
+        this.wheel = wheel;
+    }
+
+    // ----------------------------------------------------------------
+
+    public boolean enabled() {
+        return this.wheel.enabled() && !this.stopped;
+    }
+
+    /**
+     * Hold a short task locally instead of offering it to the engine.
+     *
+     * @param task the registered task
+     * @return true if held, false if it belongs to the engine
+     */
+    public boolean tryHold(RedissonDelayedTask<?> task) {
+        if (!this.enabled() || this.wheel.threshold() <= 0) {
+            return false;
+        }
+
+        long delayMillis = Math.max(task.releaseAt() - System.currentTimeMillis(), 0);
+        if (delayMillis >= this.wheel.unit().toMillis(this.wheel.threshold())) {
+            return false;
+        }
+
+        return this.trySchedule(task, delayMillis);
+    }
+
+    /**
+     * Have the engine hand a stamped task out ahead of its due time by the promotion lead.
+     *
+     * @param task the stamped task
+     * @param <P>  the payload type
+     * @return the task to offer to the engine, {@code task} itself if not promoted
+     */
+    public <P extends Serializable> RedissonDelayedTask<P> promote(RedissonDelayedTask<P> task) {
+        long promoteMillis = this.wheel.unit().toMillis(this.wheel.promote());
+        if (!this.enabled() || promoteMillis <= 0 || task.dueAt() <= 0) {
+            return task;
+        }
+
+        if (task.dueAt() - System.currentTimeMillis() <= promoteMillis) {
+            return task;
+        }
+
+        RedissonDelayedTask<P> promoted = RedissonDelayedTask.<P>builder()
+                .topic(task.topic())
+                .taskId(task.taskId())
+                .delayed(task.delayed())
+                .timeUnit(task.getTimeUnit())
+                .dueAt(task.dueAt())
+                .payload(task.payload())
+                .build();
+        // Carried explicitly, the due time stays the real one.
+        promoted.lead(promoteMillis);
+
+        return promoted;
+    }
+
+    /**
+     * Hold a task taken from the engine ahead of its due time.
+     *
+     * @param task the taken task
+     * @return true if held, false if due now
+     */
+    public boolean tryDefer(RedissonDelayedTask<?> task) {
+        if (!this.enabled() || task.dueAt() <= 0) {
+            return false;
+        }
+
+        long remaining = task.dueAt() - System.currentTimeMillis();
+        if (remaining < this.wheel.unit().toMillis(this.wheel.tick())) {
+            return false;
+        }
+
+        return this.trySchedule(task, remaining);
+    }
+
+    /**
+     * @return the number of timers held
+     */
+    public int size() {
+        HierarchicalTimingWheel timer = this.timer;
+
+        return null != timer ? timer.size() : 0;
+    }
+
+    public void stop() {
+        this.stopped = true;
+        if (null == this.timer) {
+            return;
+        }
+
+        List<Runnable> pending = this.timer.stop();
+        this.workers.shutdown();
+
+        List<CompletableFuture<Void>> handbacks = new ArrayList<>(pending.size());
+        for (Runnable runnable : pending) {
+            handbacks.add(this.handback(((Held) runnable).task));
+        }
+
+        try {
+            CompletableFuture.allOf(handbacks.toArray(new CompletableFuture[0])).get(HANDBACK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ignored) {
+            // Counted below.
+        }
+
+        long handedBack = handbacks.stream().filter((x) -> x.isDone() && !x.isCompletedExceptionally()).count();
+        log.info("redisson.delayqueue: wheel.stop,report:[held:{},handedBack:{}]", pending.size(), handedBack);
+    }
+
+    // ----------------------------------------------------------------
+
+    private boolean trySchedule(RedissonDelayedTask<?> task, long delayMillis) {
+        try {
+            this.timer().schedule(new Held(task), delayMillis);
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Stopped meanwhile.
+            return false;
+        }
+    }
+
+    /**
+     * Offer a held task back to the engine, checked in first since held tasks may still carry their payload.
+     */
+    private CompletableFuture<Void> handback(RedissonDelayedTask<?> task) {
+        CompletableFuture<Void> handback = new CompletableFuture<>();
+        QueuePair pair = this.manager.tryAcquirePair(task.topic());
+        if (null == pair) {
+            handback.completeExceptionally(new IllegalStateException("unregistered topic:" + task.topic()));
+        } else {
+            this.manager.claimCheckStore()
+                    .checkInAsync(task)
+                    .thenCompose(pair.engine()::offerAsync)
+                    .whenComplete((x, e) -> {
+                        if (null != e) {
+                            handback.completeExceptionally(e);
+                        } else {
+                            handback.complete(null);
+                        }
+                    });
+        }
+
+        return handback.whenComplete((x, e) -> {
+            if (null != e) {
+                log.error("redisson.delayqueue: wheel.handback.failed,report:[topic:{},taskId:{}]",
+                        task.topic(), task.taskId(), e);
+            }
+        });
+    }
+
+    private HierarchicalTimingWheel timer() {
+        if (null == this.timer) {
+            synchronized (this) {
+                if (null == this.timer) {
+                    this.workers = Executors.newFixedThreadPool(
+                            Math.max(this.wheel.workers(), 1),
+                            ThreadFactoryBuilder.create()
+                                    .setNameFormat(WORKER_NAME_TEMPLATE)
+                                    .setDaemon(true)
+                                    .get()
+                    );
+                    this.timer = new HierarchicalTimingWheel(
+                            this.wheel.unit().toMillis(this.wheel.tick()),
+                            this.wheel.size(),
+                            this.workers,
+                            ThreadFactoryBuilder.create()
+                                    .setNameFormat(REAPER_NAME_TEMPLATE)
+                                    .setDaemon(true)
+                                    .get()
+                    );
+                }
+            }
+        }
+
+        return this.timer;
+    }
+
+    // ----------------------------------------------------------------
+
+    private class Held implements Runnable {
+
+        private final RedissonDelayedTask<?> task;
+
+        Held(RedissonDelayedTask<?> task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            TimingWheelTier.this.manager.redissonExecutor().execute(this.task);
+        }
+    }
+}
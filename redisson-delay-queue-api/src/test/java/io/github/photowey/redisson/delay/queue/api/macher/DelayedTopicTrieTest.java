@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.macher;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@code DelayedTopicTrieTest}
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+class DelayedTopicTrieTest {
+
+    private static final List<String> PATTERNS = Arrays.asList(
+            "io.github.photowey.order.created",
+            "io.github.photowey.order.#",
+            "io.github.photowey.#.created",
+            "io.github.photowey.*",
+            "io.github.*.created",
+            "io:github/photowey.order:created",
+            "io.github.photowey.tenant#.created",
+            "io.github.photowey.order-#.*",
+            "*"
+    );
+
+    private static final List<String> TOPICS = Arrays.asList(
+            "io.github.photowey.order.created",
+            "io:github:photowey:order:created",
+            "io/github/photowey/order/created",
+            "io.github:photowey/order.created",
+            "io.github.photowey.order",
+            "io.github.photowey",
+            "io.github.photowey.order.paid",
+            "io.github.photowey.order.created.v2",
+            "io.github.photowey.tenant42.created",
+            "io.github.photowey.tenant.created",
+            "io.github.photowey.order-1.x.y",
+            "io.github.photowey.order-1",
+            "io.github.created",
+            "io.github.a.b.created",
+            "com.example.created",
+            "IO.GITHUB.PHOTOWEY.ORDER.CREATED"
+    );
+
+    @Test
+    void testAgreesWithMatcher() {
+        assertAgrees(true);
+    }
+
+    @Test
+    void testAgreesWithCaseInsensitiveMatcher() {
+        assertAgrees(false);
+    }
+
+    @Test
+    void testCaseSensitiveFromAntPathMatcher() {
+        Assertions.assertTrue(new DefaultDelayedAntPathMatcher(DefaultDelayedAntPathMatcher.createMatcher(true)).caseSensitive());
+        Assertions.assertFalse(new DefaultDelayedAntPathMatcher(DefaultDelayedAntPathMatcher.createMatcher(false)).caseSensitive());
+    }
+
+    @Test
+    void testSingleWord() {
+        DelayedTopicTrie<String> trie = new DelayedTopicTrie<>(true);
+        trie.insert("io.github.#", "single");
+
+        Assertions.assertEquals(Collections.singleton("single"), trie.match("io.github.photowey"));
+        Assertions.assertTrue(trie.match("io.github").isEmpty());
+        Assertions.assertTrue(trie.match("io.github.photowey.order").isEmpty());
+    }
+
+    @Test
+    void testMultiWords() {
+        DelayedTopicTrie<String> trie = new DelayedTopicTrie<>(true);
+        trie.insert("io.*.created", "multi");
+
+        Assertions.assertEquals(Collections.singleton("multi"), trie.match("io.created"));
+        Assertions.assertEquals(Collections.singleton("multi"), trie.match("io.github.created"));
+        Assertions.assertEquals(Collections.singleton("multi"), trie.match("io.github.photowey.order.created"));
+        Assertions.assertTrue(trie.match("io.github.paid").isEmpty());
+    }
+
+    @Test
+    void testEmbeddedGlob() {
+        DelayedTopicTrie<String> trie = new DelayedTopicTrie<>(true);
+        trie.insert("io.tenant#.created", "tenant");
+        trie.insert("io.tenant42.created", "literal");
+
+        Assertions.assertEquals(Arrays.asList("literal", "tenant"), new ArrayList<>(trie.match("io.tenant42.created")));
+        Assertions.assertEquals(Collections.singleton("tenant"), trie.match("io:tenant7/created"));
+        Assertions.assertTrue(trie.match("io.tenant.x.created").isEmpty());
+        Assertions.assertTrue(trie.match("io.other.created").isEmpty());
+    }
+
+    // ----------------------------------------------------------------
+
+    private static void assertAgrees(boolean caseSensitive) {
+        DefaultDelayedAntPathMatcher matcher = new DefaultDelayedAntPathMatcher(caseSensitive);
+        Assertions.assertEquals(caseSensitive, matcher.caseSensitive());
+
+        DelayedTopicTrie<String> trie = new DelayedTopicTrie<>(matcher.caseSensitive());
+        for (String pattern : PATTERNS) {
+            trie.insert(pattern, pattern);
+        }
+
+        for (String topic : TOPICS) {
+            for (String pattern : PATTERNS) {
+                Assertions.assertEquals(
+                        matcher.matches(pattern, topic),
+                        trie.match(topic).contains(pattern),
+                        "pattern:" + pattern + ",topic:" + topic + ",caseSensitive:" + caseSensitive);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.api.registry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@code LocalBloomFilterTest}
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+class LocalBloomFilterTest {
+
+    private static final int INSERTIONS = 100_000;
+    private static final int PROBES = 200_000;
+
+    @Test
+    void testNoFalseNegatives() {
+        LocalBloomFilter filter = new LocalBloomFilter(INSERTIONS, 0.01);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put("task-" + i);
+        }
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            Assertions.assertTrue(filter.mightContain("task-" + i), "task-" + i);
+        }
+    }
+
+    @Test
+    void testFalsePositiveRate() {
+        for (double fpp : new double[]{0.01, 0.001}) {
+            LocalBloomFilter filter = new LocalBloomFilter(INSERTIONS, fpp);
+            for (int i = 0; i < INSERTIONS; i++) {
+                filter.put("task-" + i);
+            }
+
+            int positives = 0;
+            for (int i = 0; i < PROBES; i++) {
+                if (filter.mightContain("absent-" + i)) {
+                    positives++;
+                }
+            }
+
+            double measured = (double) positives / PROBES;
+            // Within 1.5x of the target, the estimate tracks the fill.
+            Assertions.assertTrue(measured <= fpp * 1.5, "measured:" + measured + ",target:" + fpp);
+            Assertions.assertTrue(filter.expectedFpp() <= fpp * 1.5, "expected:" + filter.expectedFpp());
+            Assertions.assertEquals(filter.expectedFpp(), measured, fpp);
+        }
+    }
+
+    @Test
+    void testCount() {
+        LocalBloomFilter filter = new LocalBloomFilter(1_000, 0.01);
+        Assertions.assertEquals(0, filter.count());
+        Assertions.assertEquals(0D, filter.expectedFpp());
+        Assertions.assertFalse(filter.mightContain("task-0"));
+
+        filter.put("task-0");
+        filter.put("task-0");
+        Assertions.assertEquals(1, filter.count());
+        Assertions.assertTrue(filter.bitSize() >= 9_586);
+        Assertions.assertTrue(filter.hashes() >= 1);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.autoconfigure.actuate;
+
+import io.github.photowey.redisson.delay.queue.api.monitor.DelayedQueueInspector;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * {@code DelayQueueEndpoint}
+ * <p>
+ * {@code /actuator/delayqueue}: per topic, the delayed count, ready backlog, oldest ready age and scheduler state,
+ * plus the registry shard sizes.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+@Endpoint(id = "delayqueue")
+public class DelayQueueEndpoint {
+
+    private final DelayedQueueInspector inspector;
+
+    public DelayQueueEndpoint(DelayedQueueInspector inspector) {
+        this.inspector = inspector;
+    }
+
+    @ReadOperation
+    public Map<String, Object> delayqueue() {
+        return this.inspector.snapshot();
+    }
+}
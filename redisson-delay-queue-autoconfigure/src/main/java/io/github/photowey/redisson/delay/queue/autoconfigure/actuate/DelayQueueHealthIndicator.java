@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.autoconfigure.actuate;
+
+import io.github.photowey.redisson.delay.queue.api.monitor.DelayedQueueInspector;
+import io.github.photowey.redisson.delay.queue.core.engine.QueueDepth;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+
+import java.util.Map;
+
+/**
+ * {@code DelayQueueHealthIndicator}
+ * <p>
+ * DOWN once any topic crosses the {@code delayed.health} ready backlog or lag threshold, or its depth is unknown
+ * (e.g. Redis is unreachable).
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class DelayQueueHealthIndicator extends AbstractHealthIndicator {
+
+    private final DelayedQueueInspector inspector;
+
+    public DelayQueueHealthIndicator(DelayedQueueInspector inspector) {
+        super("redisson.delayqueue: health.check.failed");
+        this.inspector = inspector;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        Map<String, QueueDepth> depths = this.inspector.depths();
+        Map<String, String> breaches = this.inspector.breaches(depths);
+        if (breaches.isEmpty()) {
+            builder.up();
+        } else {
+            builder.down().withDetail("breaches", breaches);
+        }
+
+        depths.forEach((topic, depth) -> builder.withDetail(topic, depth));
+    }
+}
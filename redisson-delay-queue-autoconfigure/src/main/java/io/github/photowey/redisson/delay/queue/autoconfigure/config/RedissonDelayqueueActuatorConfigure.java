@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.autoconfigure.config;
+
+import io.github.photowey.redisson.delay.queue.api.manager.RedissonDelayedQueueManager;
+import io.github.photowey.redisson.delay.queue.api.monitor.DelayedQueueInspector;
+import io.github.photowey.redisson.delay.queue.autoconfigure.actuate.DelayQueueEndpoint;
+import io.github.photowey.redisson.delay.queue.autoconfigure.actuate.DelayQueueHealthIndicator;
+import org.springframework.boot.actuate.autoconfigure.health.ConditionalOnEnabledHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@code RedissonDelayqueueActuatorConfigure}
+ * <p>
+ * The actuator is optional, the endpoint and health indicator are only registered when it is on the classpath.
+ * |- Expose the endpoint via {@code management.endpoints.web.exposure.include}.
+ * |- Disable the health indicator via {@code management.health.delayqueue.enabled=false}.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+@Configuration
+@ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+public class RedissonDelayqueueActuatorConfigure {
+
+    @Bean
+    @ConditionalOnMissingBean(DelayedQueueInspector.class)
+    public DelayedQueueInspector delayedQueueInspector(RedissonDelayedQueueManager manager) {
+        return new DelayedQueueInspector(manager);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(DelayQueueEndpoint.class)
+    public DelayQueueEndpoint delayQueueEndpoint(DelayedQueueInspector inspector) {
+        return new DelayQueueEndpoint(inspector);
+    }
+
+    // ----------------------------------------------------------------
+
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.autoconfigure.health.ConditionalOnEnabledHealthIndicator")
+    @ConditionalOnEnabledHealthIndicator("delayqueue")
+    public static class HealthIndicatorConfigure {
+
+        @Bean
+        @ConditionalOnMissingBean(name = "delayqueueHealthIndicator")
+        public DelayQueueHealthIndicator delayqueueHealthIndicator(DelayedQueueInspector inspector) {
+            return new DelayQueueHealthIndicator(inspector);
+        }
+    }
+}
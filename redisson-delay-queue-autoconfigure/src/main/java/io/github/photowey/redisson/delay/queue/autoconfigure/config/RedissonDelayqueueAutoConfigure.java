@@ -18,14 +18,17 @@ package io.github.photowey.redisson.delay.queue.autoconfigure.config;
 import io.github.photowey.redisson.delay.queue.api.delayed.CompositeRedissonDelayedQueue;
 import io.github.photowey.redisson.delay.queue.api.delayed.RedissonDelayedQueue;
 import io.github.photowey.redisson.delay.queue.api.executor.CompositeRedissonDelayedQueueExecutor;
+import io.github.photowey.redisson.delay.queue.api.executor.DelayedQueueThreadFactory;
 import io.github.photowey.redisson.delay.queue.api.executor.RedissonDelayedQueueExecutor;
 import io.github.photowey.redisson.delay.queue.api.listener.CompositeRedissonDelayedQueueEventListener;
 import io.github.photowey.redisson.delay.queue.api.listener.RedissonDelayedQueueBeanPostProcessor;
 import io.github.photowey.redisson.delay.queue.api.manager.DefaultRedissonDelayedQueueManager;
 import io.github.photowey.redisson.delay.queue.api.manager.RedissonDelayedQueueManager;
+import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
 import io.github.photowey.redisson.delay.queue.api.scheduler.CompositeRedissonDelayedQueueScheduler;
 import io.github.photowey.redisson.delay.queue.api.scheduler.RedissonDelayedQueueScheduler;
 import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -49,8 +52,11 @@ public class RedissonDelayqueueAutoConfigure {
     }
 
     @Bean
-    public RedissonDelayedQueueExecutor redissonExecutor() {
-        return new CompositeRedissonDelayedQueueExecutor();
+    public RedissonDelayedQueueExecutor redissonExecutor(
+            RedissonProperties redissonProperties,
+            ObjectProvider<DelayedQueueThreadFactory> threadFactory) {
+        return new CompositeRedissonDelayedQueueExecutor(
+                threadFactory.getIfAvailable(), redissonProperties.delayed().dispatch());
     }
 
     @Bean
@@ -59,7 +65,9 @@ public class RedissonDelayqueueAutoConfigure {
     }
 
     @Bean
-    public RedissonDelayedQueueScheduler redissonScheduler(RedissonDelayedQueueManager manager, RedissonDelayedQueueExecutor executor) {
+    public RedissonDelayedQueueScheduler redissonScheduler(
+            RedissonDelayedQueueManager manager,
+            RedissonDelayedQueueExecutor executor) {
         return new CompositeRedissonDelayedQueueScheduler(manager, executor);
     }
 
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.autoconfigure.config;
+
+import io.github.photowey.redisson.delay.queue.api.metrics.DelayedQueueMetrics;
+import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import io.github.photowey.redisson.delay.queue.autoconfigure.metrics.MicrometerDelayedQueueMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@code RedissonDelayqueueMetricsConfigure}
+ * <p>
+ * Micrometer is optional, the latencies are only recorded when a {@link MeterRegistry} is present.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+@Configuration
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class RedissonDelayqueueMetricsConfigure {
+
+    @Bean
+    @ConditionalOnMissingBean(DelayedQueueMetrics.class)
+    public DelayedQueueMetrics delayedQueueMetrics(RedissonProperties properties, ObjectProvider<MeterRegistry> registry) {
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        if (null == meterRegistry) {
+            return DelayedQueueMetrics.NOOP;
+        }
+
+        return new MicrometerDelayedQueueMetrics(meterRegistry, properties.delayed().metrics().histogram());
+    }
+}
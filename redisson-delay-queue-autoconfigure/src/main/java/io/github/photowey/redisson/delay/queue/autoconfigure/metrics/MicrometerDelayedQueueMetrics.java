@@ -0,0 +1,286 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.autoconfigure.metrics;
+
+import io.github.photowey.redisson.delay.queue.api.metrics.DelayedQueueMetrics;
+import io.github.photowey.redisson.delay.queue.api.registry.BloomTaskRegistry;
+import io.github.photowey.redisson.delay.queue.api.registry.TaskRegistry;
+import io.github.photowey.redisson.delay.queue.api.scheduler.RedissonDelayedQueueScheduler;
+import io.github.photowey.redisson.delay.queue.core.codec.CompressionStats;
+import io.github.photowey.redisson.delay.queue.core.enums.Redisson;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * {@code MicrometerDelayedQueueMetrics}
+ * <p>
+ * Micrometer meters of the delayed queue, the timers publish p50/p99/p999, plus a percentile histogram if enabled:
+ * |- redisson.delayqueue.offer{topic,outcome}: offer latency, the count is the offer rate.
+ * |- redisson.delayqueue.poll{topic,result}: poll round-trip time, result=empty over the total is the empty-poll ratio.
+ * |- redisson.delayqueue.polled{topic}: tasks returned by the polls.
+ * |- redisson.delayqueue.fire.lag{topic}
+ * |- redisson.delayqueue.dispatch.latency{topic}
+ * |- redisson.delayqueue.handle{topic,listener,outcome}: listener handle latency, outcome=failure counts the failures.
+ * |- redisson.delayqueue.dispatch.cancelled{topic}: fired tasks dropped, their taskId was no longer registered.
+ * |- redisson.delayqueue.dispatch.queue / .active: depth and busy threads of the dispatch pool(a {@link ThreadPoolExecutor}).
+ * |- redisson.delayqueue.scheduler.state{topic,state}: 1 for the current state of the topic loop, 0 for the others.
+ * |- redisson.delayqueue.compression.payloads{topic,result}: payloads above the threshold, compressed or skipped(not smaller).
+ * |- redisson.delayqueue.compression.bytes{topic,stage}: raw and compressed bytes of the compressed payloads.
+ * |- redisson.delayqueue.compression.ratio{topic}: compressed / raw bytes.
+ * |- redisson.delayqueue.compression.time{topic,operation}: compress and decompress time.
+ * |- redisson.delayqueue.registry.bloom.bits / .count / .fpp: size, marked taskIds and target false-positive rate
+ * |- of the {@link BloomTaskRegistry} filter, if enabled.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class MicrometerDelayedQueueMetrics implements DelayedQueueMetrics {
+
+    public static final String OFFER = "redisson.delayqueue.offer";
+    public static final String POLL = "redisson.delayqueue.poll";
+    public static final String POLLED = "redisson.delayqueue.polled";
+    public static final String FIRE_LAG = "redisson.delayqueue.fire.lag";
+    public static final String DISPATCH_LATENCY = "redisson.delayqueue.dispatch.latency";
+    public static final String HANDLE = "redisson.delayqueue.handle";
+    public static final String DISPATCH_CANCELLED = "redisson.delayqueue.dispatch.cancelled";
+    public static final String DISPATCH_QUEUE = "redisson.delayqueue.dispatch.queue";
+    public static final String DISPATCH_ACTIVE = "redisson.delayqueue.dispatch.active";
+    public static final String SCHEDULER_STATE = "redisson.delayqueue.scheduler.state";
+    public static final String COMPRESSION_PAYLOADS = "redisson.delayqueue.compression.payloads";
+    public static final String COMPRESSION_BYTES = "redisson.delayqueue.compression.bytes";
+    public static final String COMPRESSION_RATIO = "redisson.delayqueue.compression.ratio";
+    public static final String COMPRESSION_TIME = "redisson.delayqueue.compression.time";
+    public static final String BLOOM_BITS = "redisson.delayqueue.registry.bloom.bits";
+    public static final String BLOOM_COUNT = "redisson.delayqueue.registry.bloom.count";
+    public static final String BLOOM_FPP = "redisson.delayqueue.registry.bloom.fpp";
+
+    public static final String TAG_TOPIC = "topic";
+    public static final String TAG_LISTENER = "listener";
+    public static final String TAG_OUTCOME = "outcome";
+    public static final String TAG_RESULT = "result";
+    public static final String TAG_STATE = "state";
+    public static final String TAG_STAGE = "stage";
+    public static final String TAG_OPERATION = "operation";
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_FAILURE = "failure";
+    private static final String RESULT_HIT = "hit";
+    private static final String RESULT_EMPTY = "empty";
+    private static final String RESULT_COMPRESSED = "compressed";
+    private static final String RESULT_SKIPPED = "skipped";
+    private static final String STAGE_RAW = "raw";
+    private static final String STAGE_COMPRESSED = "compressed";
+    private static final String OPERATION_COMPRESS = "compress";
+    private static final String OPERATION_DECOMPRESS = "decompress";
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    private final MeterRegistry registry;
+    private final boolean histogram;
+
+    private final ConcurrentHashMap<String, Timer> offers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> polls = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> polled = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> fireLags = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> dispatchLatencies = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> handles = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> cancels = new ConcurrentHashMap<>();
+
+    public MicrometerDelayedQueueMetrics(MeterRegistry registry) {
+        this(registry, false);
+    }
+
+    public MicrometerDelayedQueueMetrics(MeterRegistry registry, boolean histogram) {
+        this.registry = registry;
+        this.histogram = histogram;
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public void recordOffer(String topic, long nanos, boolean success) {
+        String outcome = success ? OUTCOME_SUCCESS : OUTCOME_FAILURE;
+        this.meter(this.offers, topic + ':' + outcome, (x) -> this.populateTimer(
+                        OFFER, "Offer latency of the delayed tasks", TAG_TOPIC, topic, TAG_OUTCOME, outcome))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordPoll(String topic, long nanos, int size) {
+        String result = size > 0 ? RESULT_HIT : RESULT_EMPTY;
+        this.meter(this.polls, topic + ':' + result, (x) -> this.populateTimer(
+                        POLL, "Poll round-trip time of the engines", TAG_TOPIC, topic, TAG_RESULT, result))
+                .record(nanos, TimeUnit.NANOSECONDS);
+
+        if (size > 0) {
+            this.meter(this.polled, topic, (x) -> Counter.builder(POLLED)
+                            .description("Tasks returned by the polls")
+                            .tag(TAG_TOPIC, topic)
+                            .register(this.registry))
+                    .increment(size);
+        }
+    }
+
+    @Override
+    public void recordFireLag(String topic, long lagMillis) {
+        this.meter(this.fireLags, topic, (x) -> this.populateTimer(
+                        FIRE_LAG, "Due time to dispatcher hand-off of the delayed tasks", TAG_TOPIC, topic))
+                .record(lagMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordDispatchLatency(String topic, long nanos) {
+        this.meter(this.dispatchLatencies, topic, (x) -> this.populateTimer(
+                        DISPATCH_LATENCY, "Dispatcher hand-off to listener completion of the delayed tasks", TAG_TOPIC, topic))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordHandle(String topic, String listener, long nanos, boolean success) {
+        String outcome = success ? OUTCOME_SUCCESS : OUTCOME_FAILURE;
+        this.meter(this.handles, topic + ':' + listener + ':' + outcome, (x) -> this.populateTimer(
+                        HANDLE, "Listener handle latency of the delayed tasks",
+                        TAG_TOPIC, topic, TAG_LISTENER, listener, TAG_OUTCOME, outcome))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordCancelled(String topic) {
+        this.meter(this.cancels, topic, (x) -> Counter.builder(DISPATCH_CANCELLED)
+                        .description("Fired tasks dropped, their taskId was no longer registered")
+                        .tag(TAG_TOPIC, topic)
+                        .register(this.registry))
+                .increment();
+    }
+
+    @Override
+    public void bindDispatcher(Executor dispatcher) {
+        if (!(dispatcher instanceof ThreadPoolExecutor)) {
+            return;
+        }
+
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) dispatcher;
+        Gauge.builder(DISPATCH_QUEUE, pool, (x) -> x.getQueue().size())
+                .description("Tasks waiting in the dispatch pool queue")
+                .register(this.registry);
+        Gauge.builder(DISPATCH_ACTIVE, pool, ThreadPoolExecutor::getActiveCount)
+                .description("Dispatch pool threads running a task")
+                .register(this.registry);
+    }
+
+    @Override
+    public void bindScheduler(RedissonDelayedQueueScheduler scheduler) {
+        for (String topic : scheduler.topics()) {
+            for (Redisson.Scheduler.State state : Redisson.Scheduler.State.values()) {
+                Gauge.builder(SCHEDULER_STATE, scheduler, (x) -> state == x.states().get(topic) ? 1 : 0)
+                        .description("1 if the topic loop is in this state")
+                        .tags(TAG_TOPIC, topic, TAG_STATE, state.name().toLowerCase(Locale.ROOT))
+                        .register(this.registry);
+            }
+        }
+    }
+
+    @Override
+    public void bindCompression(CompressionStats stats) {
+        String topic = stats.topic().isEmpty() ? UNREGISTERED_TOPIC : stats.topic();
+        FunctionCounter.builder(COMPRESSION_PAYLOADS, stats, CompressionStats::compressed)
+                .description("Payloads above the compression threshold")
+                .tags(TAG_TOPIC, topic, TAG_RESULT, RESULT_COMPRESSED)
+                .register(this.registry);
+        FunctionCounter.builder(COMPRESSION_PAYLOADS, stats, CompressionStats::skipped)
+                .description("Payloads above the compression threshold")
+                .tags(TAG_TOPIC, topic, TAG_RESULT, RESULT_SKIPPED)
+                .register(this.registry);
+        FunctionCounter.builder(COMPRESSION_BYTES, stats, CompressionStats::rawBytes)
+                .description("Bytes of the compressed payloads")
+                .baseUnit("bytes")
+                .tags(TAG_TOPIC, topic, TAG_STAGE, STAGE_RAW)
+                .register(this.registry);
+        FunctionCounter.builder(COMPRESSION_BYTES, stats, CompressionStats::compressedBytes)
+                .description("Bytes of the compressed payloads")
+                .baseUnit("bytes")
+                .tags(TAG_TOPIC, topic, TAG_STAGE, STAGE_COMPRESSED)
+                .register(this.registry);
+        Gauge.builder(COMPRESSION_RATIO, stats, CompressionStats::ratio)
+                .description("Compressed / raw bytes of the compressed payloads")
+                .tags(TAG_TOPIC, topic)
+                .register(this.registry);
+        FunctionTimer.builder(COMPRESSION_TIME, stats,
+                        (x) -> x.compressed() + x.skipped(), (x) -> x.compressTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+                .description("Payload compression time")
+                .tags(TAG_TOPIC, topic, TAG_OPERATION, OPERATION_COMPRESS)
+                .register(this.registry);
+        FunctionTimer.builder(COMPRESSION_TIME, stats,
+                        CompressionStats::decompressed, (x) -> x.decompressTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+                .description("Payload decompression time")
+                .tags(TAG_TOPIC, topic, TAG_OPERATION, OPERATION_DECOMPRESS)
+                .register(this.registry);
+    }
+
+    @Override
+    public void bindRegistry(TaskRegistry taskRegistry) {
+        if (!(taskRegistry instanceof BloomTaskRegistry)) {
+            return;
+        }
+
+        // Read through the registry, the rebuild swaps the filter.
+        BloomTaskRegistry bloom = (BloomTaskRegistry) taskRegistry;
+        Gauge.builder(BLOOM_BITS, bloom, (x) -> x.filter().bitSize())
+                .description("Bits of the registry Bloom filter")
+                .register(this.registry);
+        Gauge.builder(BLOOM_COUNT, bloom, (x) -> x.filter().count())
+                .description("TaskIds marked in the registry Bloom filter since its last rebuild")
+                .register(this.registry);
+        Gauge.builder(BLOOM_FPP, bloom, (x) -> x.filter().expectedFpp())
+                .description("False-positive rate of the registry Bloom filter at its current count")
+                .register(this.registry);
+    }
+
+    // ----------------------------------------------------------------
+
+    public MeterRegistry registry() {
+        return this.registry;
+    }
+
+    // ----------------------------------------------------------------
+
+    private <M> M meter(ConcurrentHashMap<String, M> meters, String key, Function<String, M> fx) {
+        M meter = meters.get(key);
+
+        return null != meter ? meter : meters.computeIfAbsent(key, fx);
+    }
+
+    private Timer populateTimer(String name, String description, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram(this.histogram)
+                .register(this.registry);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.redisson.client.codec.Codec;
+
+import java.io.IOException;
+
+/**
+ * {@code CodecPayloadSerializer}
+ * <p>
+ * Adapts a Redisson {@link Codec} as a {@link PayloadSerializer}, backs the built-ins:
+ * |- client: the codec of the {@code RedissonClient}.
+ * |- jdk: {@code SerializationCodec}.
+ * |- kryo: {@code Kryo5Codec}.
+ * |- json: {@code JsonJacksonCodec}.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class CodecPayloadSerializer implements PayloadSerializer {
+
+    private final byte id;
+    private final String name;
+    private final Codec codec;
+
+    public CodecPayloadSerializer(byte id, String name, Codec codec) {
+        this.id = id;
+        this.name = name;
+        this.codec = codec;
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public byte id() {
+        return this.id;
+    }
+
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    public byte[] serialize(Object payload) throws IOException {
+        ByteBuf buf = this.codec.getValueEncoder().encode(payload);
+        try {
+            return ByteBufUtil.getBytes(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws IOException {
+        ByteBuf buf = Unpooled.wrappedBuffer(bytes);
+        try {
+            return this.codec.getValueDecoder().decode(buf, null);
+        } finally {
+            buf.release();
+        }
+    }
+}
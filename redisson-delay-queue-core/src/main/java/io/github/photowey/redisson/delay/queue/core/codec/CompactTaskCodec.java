@@ -0,0 +1,375 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.codec;
+
+import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.handler.State;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * {@code CompactTaskCodec}
+ * <p>
+ * A compact binary envelope for {@link RedissonDelayedTask}, the payload is left to a {@link PayloadSerializer}
+ * picked per topic:
+ * |- [magic][version][flags][topic][taskId][delayed: zigzag varint][timeUnit: ordinal][dueAt: varint, if flagged]
+ * |- [serializer id][payload length: varint][payload].
+ * |- Compressed payloads(flagged): [serializer id][compressor id][original length: varint][payload length: varint][payload].
+ * |- Strings are [length + 1: varint][utf-8], 0 stands for null.
+ * <p>
+ * Anything else, e.g. the envelopes written before the switch, goes through the {@code fallback} codec.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class CompactTaskCodec extends BaseCodec {
+
+    private static final int MAGIC = 0xD7;
+    private static final int VERSION = 1;
+
+    private static final int FLAG_DUE_AT = 1;
+    private static final int FLAG_COMPRESSED = 1 << 1;
+    private static final int NULL_TIME_UNIT = 0xFF;
+    private static final TimeUnit[] TIME_UNITS = TimeUnit.values();
+
+    private final Codec fallback;
+    private final PayloadSerializer[] serializers = new PayloadSerializer[256];
+    private final PayloadSerializer serializer;
+    private final Map<String, PayloadSerializer> topics = new HashMap<>();
+
+    private final PayloadCompressor[] compressors = new PayloadCompressor[256];
+    /**
+     * null: compression disabled.
+     */
+    private final PayloadCompressor compressor;
+    private final int threshold;
+    private final Map<String, CompressionStats> stats = new ConcurrentHashMap<>();
+    /**
+     * Called with the counters of each topic when they are created, e.g. to bind them as meters.
+     */
+    private volatile Consumer<CompressionStats> statsListener = (stats) -> {};
+
+    private final Encoder encoder = this::encode;
+    private final Decoder<Object> decoder = this::decode;
+
+    /**
+     * @param fallback    the codec of everything but the tasks of this codec
+     * @param serializers the payload serializers known to this node, every id ever written must stay registered
+     * @param serializer  the name of the default payload serializer
+     * @param topics      topic -> serializer name, overrides the default
+     */
+    public CompactTaskCodec(
+            Codec fallback, Collection<PayloadSerializer> serializers, String serializer, Map<String, String> topics) {
+        this(fallback, serializers, serializer, topics, Collections.emptyList(), null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param compressors the payload compressors known to this node, every id ever written must stay registered
+     * @param compressor  the name of the compressor to compress with, null to disable
+     * @param threshold   serialized payloads of at least this many bytes are compressed
+     */
+    public CompactTaskCodec(
+            Codec fallback,
+            Collection<PayloadSerializer> serializers,
+            String serializer,
+            Map<String, String> topics,
+            Collection<PayloadCompressor> compressors,
+            String compressor,
+            int threshold) {
+        this.fallback = fallback;
+
+        Map<String, PayloadSerializer> names = new HashMap<>();
+        for (PayloadSerializer candidate : serializers) {
+            int id = candidate.id() & 0xFF;
+            if (null != this.serializers[id] && !this.serializers[id].name().equals(candidate.name())) {
+                throw new RuntimeException(String.format(
+                        "redisson.delayqueue: duplicate payload serializer id:%d, %s vs %s", id, this.serializers[id].name(), candidate.name()));
+            }
+
+            this.serializers[id] = candidate;
+            names.put(candidate.name(), candidate);
+        }
+
+        this.serializer = determineSerializer(names, serializer);
+        if (null != topics) {
+            topics.forEach((topic, name) -> this.topics.put(topic, determineSerializer(names, name)));
+        }
+
+        PayloadCompressor selected = null;
+        for (PayloadCompressor candidate : compressors) {
+            this.compressors[candidate.id() & 0xFF] = candidate;
+            if (candidate.name().equals(compressor)) {
+                selected = candidate;
+            }
+        }
+        if (null != compressor && null == selected) {
+            throw new RuntimeException("redisson.delayqueue: unknown payload compressor:" + compressor);
+        }
+
+        this.compressor = selected;
+        this.threshold = Math.max(threshold, 1);
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * @return topic -> compression counters, only topics that had a payload above the threshold
+     */
+    public Map<String, CompressionStats> compressionStats() {
+        return Collections.unmodifiableMap(this.stats);
+    }
+
+    /**
+     * @param listener called once per topic, when its compression counters are created
+     */
+    public void statsListener(Consumer<CompressionStats> listener) {
+        this.statsListener = listener;
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return this.decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return this.encoder;
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return this.fallback.getClassLoader();
+    }
+
+    // ----------------------------------------------------------------
+
+    private ByteBuf encode(Object in) throws IOException {
+        if (!(in instanceof RedissonDelayedTask)) {
+            return this.fallback.getValueEncoder().encode(in);
+        }
+
+        RedissonDelayedTask<?> task = (RedissonDelayedTask<?>) in;
+        PayloadSerializer serializer = this.topics.getOrDefault(task.topic(), this.serializer);
+        byte[] payload = null == task.payload() ? null : serializer.serialize(task.payload());
+
+        byte[] compressed = null;
+        if (null != payload && null != this.compressor && payload.length >= this.threshold) {
+            compressed = this.tryCompress(task.topic(), payload);
+        }
+
+        ByteBuf out = ByteBufAllocator.DEFAULT.buffer(32 + (null == payload ? 0 : payload.length));
+        try {
+            int flags = (task.dueAt() > 0 ? FLAG_DUE_AT : 0) | (null != compressed ? FLAG_COMPRESSED : 0);
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(flags);
+            writeString(out, task.topic());
+            writeString(out, task.taskId());
+            writeVarLong(out, zigzag(task.delayed()));
+            out.writeByte(null == task.getTimeUnit() ? NULL_TIME_UNIT : task.determineTimeUnit().ordinal());
+            if (0 != (flags & FLAG_DUE_AT)) {
+                writeVarLong(out, task.dueAt());
+            }
+
+            out.writeByte(serializer.id());
+            if (null != compressed) {
+                out.writeByte(this.compressor.id());
+                writeVarLong(out, payload.length);
+                writeBytes(out, compressed);
+            } else {
+                writeBytes(out, payload);
+            }
+
+            return out;
+        } catch (RuntimeException e) {
+            out.release();
+            throw e;
+        }
+    }
+
+    private Object decode(ByteBuf buf, State state) throws IOException {
+        if (!buf.isReadable() || MAGIC != buf.getUnsignedByte(buf.readerIndex())) {
+            return this.fallback.getValueDecoder().decode(buf, state);
+        }
+
+        buf.skipBytes(1);
+        int version = buf.readUnsignedByte();
+        if (VERSION != version) {
+            throw new IOException("redisson.delayqueue: unsupported task envelope version:" + version);
+        }
+
+        int flags = buf.readUnsignedByte();
+        String topic = readString(buf);
+        String taskId = readString(buf);
+        long delayed = unzigzag(readVarLong(buf));
+        int timeUnit = buf.readUnsignedByte();
+        long dueAt = 0 != (flags & FLAG_DUE_AT) ? readVarLong(buf) : 0;
+
+        int id = buf.readUnsignedByte();
+        byte[] payload;
+        if (0 != (flags & FLAG_COMPRESSED)) {
+            PayloadCompressor compressor = this.compressors[buf.readUnsignedByte()];
+            int length = (int) readVarLong(buf);
+            byte[] compressed = readBytes(buf);
+            if (null == compressor) {
+                throw new IOException("redisson.delayqueue: unknown payload compressor, taskId:" + taskId);
+            }
+
+            long started = System.nanoTime();
+            payload = compressor.decompress(compressed, length);
+            this.stats(topic).decompressed(System.nanoTime() - started);
+        } else {
+            payload = readBytes(buf);
+        }
+        PayloadSerializer serializer = this.serializers[id];
+        if (null != payload && null == serializer) {
+            throw new IOException("redisson.delayqueue: unknown payload serializer id:" + id + ", taskId:" + taskId);
+        }
+
+        return new RedissonDelayedTask<>(
+                topic,
+                taskId,
+                delayed,
+                NULL_TIME_UNIT == timeUnit ? null : TIME_UNITS[timeUnit].name(),
+                dueAt,
+                null == payload ? null : (Serializable) serializer.deserialize(payload)
+        );
+    }
+
+    private byte[] tryCompress(String topic, byte[] payload) throws IOException {
+        long started = System.nanoTime();
+        byte[] compressed = this.compressor.compress(payload);
+        long nanos = System.nanoTime() - started;
+
+        CompressionStats stats = this.stats(topic);
+        if (compressed.length >= payload.length) {
+            stats.skipped(nanos);
+            return null;
+        }
+
+        stats.compressed(payload.length, compressed.length, nanos);
+
+        return compressed;
+    }
+
+    private CompressionStats stats(String topic) {
+        String key = null == topic ? "" : topic;
+        CompressionStats stats = this.stats.get(key);
+        if (null != stats) {
+            return stats;
+        }
+
+        CompressionStats created = new CompressionStats(key);
+        stats = this.stats.putIfAbsent(key, created);
+        if (null != stats) {
+            return stats;
+        }
+
+        this.statsListener.accept(created);
+
+        return created;
+    }
+
+    // ----------------------------------------------------------------
+
+    private static PayloadSerializer determineSerializer(Map<String, PayloadSerializer> names, String name) {
+        PayloadSerializer serializer = names.get(name);
+        if (null == serializer) {
+            throw new RuntimeException("redisson.delayqueue: unknown payload serializer:" + name + ", known:" + names.keySet());
+        }
+
+        return serializer;
+    }
+
+    private static void writeString(ByteBuf out, String value) {
+        writeBytes(out, null == value ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(ByteBuf in) {
+        byte[] bytes = readBytes(in);
+
+        return null == bytes ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(ByteBuf out, byte[] bytes) {
+        if (null == bytes) {
+            writeVarLong(out, 0);
+            return;
+        }
+
+        writeVarLong(out, bytes.length + 1L);
+        out.writeBytes(bytes);
+    }
+
+    private static byte[] readBytes(ByteBuf in) {
+        long length = readVarLong(in);
+        if (0 == length) {
+            return null;
+        }
+
+        byte[] bytes = new byte[(int) (length - 1)];
+        in.readBytes(bytes);
+
+        return bytes;
+    }
+
+    private static void writeVarLong(ByteBuf out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuf in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalStateException("redisson.delayqueue: malformed varint");
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.codec;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code CompressionStats}
+ * <p>
+ * The compression counters of one topic, kept by {@link CompactTaskCodec}.
+ * |- Payloads below the threshold are not counted.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class CompressionStats {
+
+    private final String topic;
+
+    private final LongAdder compressed = new LongAdder();
+    /**
+     * Above the threshold, but left as is: compressing did not make it smaller.
+     */
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+    private final LongAdder decompressed = new LongAdder();
+    private final LongAdder decompressNanos = new LongAdder();
+
+    public CompressionStats(String topic) {
+        this.topic = topic;
+    }
+
+    // ----------------------------------------------------------------
+
+    void compressed(int raw, int compressed, long nanos) {
+        this.compressed.increment();
+        this.rawBytes.add(raw);
+        this.compressedBytes.add(compressed);
+        this.compressNanos.add(nanos);
+    }
+
+    void skipped(long nanos) {
+        this.skipped.increment();
+        this.compressNanos.add(nanos);
+    }
+
+    void decompressed(long nanos) {
+        this.decompressed.increment();
+        this.decompressNanos.add(nanos);
+    }
+
+    // ----------------------------------------------------------------
+
+    public String topic() {
+        return this.topic;
+    }
+
+    public long compressed() {
+        return this.compressed.sum();
+    }
+
+    public long skipped() {
+        return this.skipped.sum();
+    }
+
+    public long rawBytes() {
+        return this.rawBytes.sum();
+    }
+
+    public long compressedBytes() {
+        return this.compressedBytes.sum();
+    }
+
+    public long decompressed() {
+        return this.decompressed.sum();
+    }
+
+    /**
+     * @return compressed / raw bytes, 1.0 if nothing was compressed yet
+     */
+    public double ratio() {
+        long raw = this.rawBytes();
+
+        return 0 == raw ? 1.0 : (double) this.compressedBytes() / raw;
+    }
+
+    public long compressTime(TimeUnit unit) {
+        return unit.convert(this.compressNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    public long decompressTime(TimeUnit unit) {
+        return unit.convert(this.decompressNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionStats(topic=" + this.topic + ", compressed=" + this.compressed() + ", skipped=" + this.skipped()
+                + ", ratio=" + this.ratio() + ", compressTimeMs=" + this.compressTime(TimeUnit.MILLISECONDS)
+                + ", decompressed=" + this.decompressed() + ", decompressTimeMs=" + this.decompressTime(TimeUnit.MILLISECONDS) + ")";
+    }
+}
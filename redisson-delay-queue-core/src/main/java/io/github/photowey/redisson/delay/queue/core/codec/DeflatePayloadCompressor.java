@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * {@code DeflatePayloadCompressor}
+ * <p>
+ * Raw DEFLATE from the JDK, no extra dependency. LZ4/Zstd can be plugged in as {@link PayloadCompressor} beans.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class DeflatePayloadCompressor implements PayloadCompressor {
+
+    public static final String NAME = "deflate";
+
+    private final int level;
+
+    public DeflatePayloadCompressor(int level) {
+        this.level = level;
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public byte id() {
+        return 1;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] bytes) {
+        Deflater deflater = new Deflater(this.level, true);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(bytes.length / 2, 64));
+            byte[] chunk = new byte[Math.min(Math.max(bytes.length, 64), 8192)];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes, int length) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(bytes);
+
+            byte[] out = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                int n = inflater.inflate(out, offset, length - offset);
+                if (0 == n && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                offset += n;
+            }
+            if (offset != length) {
+                throw new IOException("redisson.delayqueue: truncated payload, expected:" + length + ", actual:" + offset);
+            }
+
+            return out;
+        } catch (DataFormatException e) {
+            throw new IOException("redisson.delayqueue: corrupted payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.codec;
+
+import java.io.IOException;
+
+/**
+ * {@code PayloadCompressor}
+ * <p>
+ * Compresses the serialized payload inside the {@link CompactTaskCodec} envelope, above the size threshold only.
+ * The {@link #id()} is flagged into every compressed envelope.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public interface PayloadCompressor {
+
+    /**
+     * Built-in ids are 1..15, custom compressors should pick from 16 up.
+     *
+     * @return the id written into the envelope
+     */
+    byte id();
+
+    /**
+     * @return the name to select it by, e.g. {@code delayed.codec.compression.algorithm: deflate}
+     */
+    String name();
+
+    byte[] compress(byte[] bytes) throws IOException;
+
+    /**
+     * @param bytes  the compressed bytes
+     * @param length the original length
+     * @return the original bytes
+     * @throws IOException if corrupted
+     */
+    byte[] decompress(byte[] bytes, int length) throws IOException;
+}
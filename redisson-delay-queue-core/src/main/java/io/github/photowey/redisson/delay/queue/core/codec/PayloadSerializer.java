@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.codec;
+
+import java.io.IOException;
+
+/**
+ * {@code PayloadSerializer}
+ * <p>
+ * Serializes the payload of a task inside the {@link CompactTaskCodec} envelope.
+ * The {@link #id()} is written into every envelope, so tasks stay readable after the topic switches serializers.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public interface PayloadSerializer {
+
+    /**
+     * Built-in ids are 1..15, custom serializers should pick from 16 up.
+     *
+     * @return the id written into the envelope
+     */
+    byte id();
+
+    /**
+     * @return the name to select it by, e.g. {@code delayed.codec.payload: json}
+     */
+    String name();
+
+    byte[] serialize(Object payload) throws IOException;
+
+    Object deserialize(byte[] bytes) throws IOException;
+}
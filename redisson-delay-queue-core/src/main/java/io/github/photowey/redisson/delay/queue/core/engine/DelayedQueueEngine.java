@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.engine;
+
+import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code DelayedQueueEngine}
+ * <p>
+ * The storage of one topic: holds the pending tasks and hands them out once they are due.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public interface DelayedQueueEngine {
+
+    String topic();
+
+    // ----------------------------------------------------------------
+
+    void offer(RedissonDelayedTask<?> task);
+
+    CompletionStage<Void> offerAsync(RedissonDelayedTask<?> task);
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Take up to {@code limit} due tasks, never blocks.
+     *
+     * @param limit the max tasks
+     * @return the due tasks, empty if none
+     */
+    List<RedissonDelayedTask<?>> poll(int limit);
+
+    /**
+     * Take one due task, waits up to {@code timeout} for it.
+     *
+     * @param timeout the timeout
+     * @param unit    the unit of timeout
+     * @return the due task, or null on timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    RedissonDelayedTask<?> poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Take one due task, completes once there is one.
+     * |- Cancel the future to stop waiting.
+     *
+     * @return the future of the due task
+     */
+    CompletableFuture<RedissonDelayedTask<?>> takeAsync();
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Remove a pending task before it is due.
+     *
+     * @param taskId the taskId
+     * @return true if removed, false if absent or unsupported by the engine
+     */
+    default boolean remove(String taskId) {
+        return false;
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Acknowledge a taken task once it has been dispatched.
+     * |- Only engines with at-least-once delivery keep unacknowledged tasks around.
+     *
+     * @param task the taken task
+     */
+    default void ack(RedissonDelayedTask<?> task) {}
+
+    /**
+     * Whether a taken task is a redelivery of one another consumer never acknowledged.
+     * |- Its registry entry is gone already, the claim must be skipped.
+     *
+     * @param task the taken task
+     * @return true if redelivered
+     */
+    default boolean redelivered(RedissonDelayedTask<?> task) {
+        return false;
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Count the pending and the ready tasks, for monitoring only: it may scan the topic.
+     *
+     * @return the depth, {@link QueueDepth#UNKNOWN} if unsupported
+     */
+    default QueueDepth depth() {
+        return QueueDepth.UNKNOWN;
+    }
+
+    // ----------------------------------------------------------------
+
+    void destroy();
+}
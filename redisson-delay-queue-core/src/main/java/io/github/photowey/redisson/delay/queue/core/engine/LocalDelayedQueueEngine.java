@@ -0,0 +1,470 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.engine;
+
+import io.github.photowey.redisson.delay.queue.core.journal.TaskJournal;
+import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@code LocalDelayedQueueEngine}
+ * <p>
+ * An embedded engine, no Redis involved: an in-memory delay heap made durable by a {@link TaskJournal}.
+ * |- offer: journal the task, then push it into the heap.
+ * |- poll/take: pop from the heap, then journal the removal(at-most-once across a crash).
+ * |- The journal is replayed on start and compacted once it is mostly garbage, on the {@code compactor} so the
+ * |- lock is only held to snapshot the live tasks.
+ * <p>
+ * Single node only, the tasks of a topic live in the process that offered them.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class LocalDelayedQueueEngine implements DelayedQueueEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalDelayedQueueEngine.class);
+
+    private final String topic;
+    private final TaskJournal journal;
+    private final TaskCodec codec;
+    private final long compactThreshold;
+    private final ScheduledExecutorService timer;
+    private final Executor compactor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = this.lock.newCondition();
+
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>();
+    private final Map<String, Entry> index = new HashMap<>();
+    /**
+     * Pending async takes, completed in order as tasks get due.
+     */
+    private final Queue<CompletableFuture<RedissonDelayedTask<?>>> takes = new ArrayDeque<>();
+    private long wakeAt = Long.MAX_VALUE;
+    private long sequence;
+    private boolean compacting;
+    private volatile boolean destroyed;
+
+    public LocalDelayedQueueEngine(
+            String topic,
+            TaskJournal journal,
+            TaskCodec codec,
+            long compactThreshold,
+            ScheduledExecutorService timer,
+            Executor compactor) {
+        this.topic = topic;
+        this.journal = journal;
+        this.codec = codec;
+        this.compactThreshold = compactThreshold;
+        this.timer = timer;
+        this.compactor = compactor;
+
+        this.recover();
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public String topic() {
+        return this.topic;
+    }
+
+    /**
+     * @return the taskIds still pending, e.g. to seed a local registry after a restart
+     */
+    public Set<String> taskIds() {
+        this.lock.lock();
+        try {
+            return Collections.unmodifiableSet(new HashSet<>(this.index.keySet()));
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int size() {
+        this.lock.lock();
+        try {
+            return this.index.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public QueueDepth depth() {
+        long now = System.currentTimeMillis();
+        long ready = 0;
+        long oldestDue = now;
+
+        this.lock.lock();
+        try {
+            for (Entry entry : this.index.values()) {
+                if (entry.due <= now) {
+                    ready++;
+                    oldestDue = Math.min(oldestDue, entry.due);
+                }
+            }
+
+            return new QueueDepth(this.index.size() - ready, ready, now - oldestDue);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public void offer(RedissonDelayedTask<?> task) {
+        long due = task.releaseAt();
+        byte[] bytes = this.codec.encode(task);
+
+        this.lock.lock();
+        try {
+            this.journal.offer(task.taskId(), due, bytes, this.index.containsKey(task.taskId()));
+            this.push(task, due);
+            this.available.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+
+        this.fulfil();
+    }
+
+    @Override
+    public CompletionStage<Void> offerAsync(RedissonDelayedTask<?> task) {
+        CompletableFuture<Void> offer = new CompletableFuture<>();
+        try {
+            this.offer(task);
+            offer.complete(null);
+        } catch (Exception e) {
+            offer.completeExceptionally(e);
+        }
+
+        return offer;
+    }
+
+    @Override
+    public List<RedissonDelayedTask<?>> poll(int limit) {
+        List<RedissonDelayedTask<?>> tasks = new ArrayList<>();
+        this.lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            RedissonDelayedTask<?> task;
+            while (tasks.size() < Math.max(limit, 1) && null != (task = this.tryPop(now))) {
+                tasks.add(task);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+
+        return tasks;
+    }
+
+    @Override
+    public RedissonDelayedTask<?> poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            while (!this.destroyed) {
+                long now = System.currentTimeMillis();
+                RedissonDelayedTask<?> task = this.tryPop(now);
+                if (null != task) {
+                    return task;
+                }
+
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return null;
+                }
+
+                Entry head = this.heap.peek();
+                long wait = null == head ? remaining : Math.min(remaining, Math.max(head.due - now, 1));
+                this.available.await(wait, TimeUnit.MILLISECONDS);
+            }
+
+            return null;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<RedissonDelayedTask<?>> takeAsync() {
+        CompletableFuture<RedissonDelayedTask<?>> take = new CompletableFuture<>();
+        if (this.destroyed) {
+            take.cancel(false);
+            return take;
+        }
+
+        this.lock.lock();
+        try {
+            this.takes.add(take);
+        } finally {
+            this.lock.unlock();
+        }
+
+        this.fulfil();
+
+        return take;
+    }
+
+    @Override
+    public boolean remove(String taskId) {
+        this.lock.lock();
+        try {
+            Entry entry = this.index.remove(taskId);
+            if (null == entry) {
+                return false;
+            }
+
+            // Lazy: the heap drops removed entries when they reach the head.
+            entry.removed = true;
+            this.journal.remove(taskId);
+            this.tryCompact();
+
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        List<CompletableFuture<RedissonDelayedTask<?>>> takes;
+        this.lock.lock();
+        try {
+            this.destroyed = true;
+            this.available.signalAll();
+            takes = new ArrayList<>(this.takes);
+            this.takes.clear();
+        } finally {
+            this.lock.unlock();
+        }
+
+        takes.forEach((take) -> take.cancel(false));
+        this.journal.close();
+    }
+
+    // ----------------------------------------------------------------
+
+    private void recover() {
+        Map<String, TaskJournal.Record> records = this.journal.open();
+        for (TaskJournal.Record record : records.values()) {
+            this.push(this.codec.decode(record.task()), record.due());
+        }
+    }
+
+    private void push(RedissonDelayedTask<?> task, long due) {
+        Entry entry = new Entry(task, due, this.sequence++);
+        Entry replaced = this.index.put(task.taskId(), entry);
+        if (null != replaced) {
+            replaced.removed = true;
+        }
+
+        this.heap.add(entry);
+    }
+
+    /**
+     * Pop the head if due, under the lock.
+     */
+    private RedissonDelayedTask<?> tryPop(long now) {
+        Entry head;
+        while (null != (head = this.heap.peek())) {
+            if (head.removed) {
+                this.heap.poll();
+                continue;
+            }
+            if (head.due > now) {
+                return null;
+            }
+
+            this.heap.poll();
+            this.index.remove(head.task.taskId());
+            this.journal.remove(head.task.taskId());
+            this.tryCompact();
+
+            return head.task;
+        }
+
+        return null;
+    }
+
+    /**
+     * Complete the pending takes with the due tasks, then re-arm the timer for the next due one.
+     */
+    private void fulfil() {
+        List<Map.Entry<CompletableFuture<RedissonDelayedTask<?>>, RedissonDelayedTask<?>>> fulfilled = new ArrayList<>();
+        long delay = -1;
+
+        this.lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            while (!this.takes.isEmpty()) {
+                CompletableFuture<RedissonDelayedTask<?>> take = this.takes.peek();
+                if (take.isDone()) {
+                    this.takes.poll();
+                    continue;
+                }
+
+                RedissonDelayedTask<?> task = this.tryPop(now);
+                if (null == task) {
+                    break;
+                }
+
+                this.takes.poll();
+                fulfilled.add(new AbstractMap.SimpleEntry<>(take, task));
+            }
+
+            Entry head = this.heap.peek();
+            if (!this.takes.isEmpty() && null != head && head.due < this.wakeAt) {
+                this.wakeAt = head.due;
+                delay = Math.max(head.due - now, 0);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+
+        for (Map.Entry<CompletableFuture<RedissonDelayedTask<?>>, RedissonDelayedTask<?>> pair : fulfilled) {
+            if (!pair.getKey().complete(pair.getValue())) {
+                // Cancelled meanwhile, hand the task back as due now.
+                this.handback(pair.getValue());
+            }
+        }
+
+        if (delay >= 0) {
+            this.arm(delay);
+        }
+    }
+
+    private void arm(long delay) {
+        try {
+            this.timer.schedule(() -> {
+                this.lock.lock();
+                try {
+                    this.wakeAt = Long.MAX_VALUE;
+                } finally {
+                    this.lock.unlock();
+                }
+
+                this.fulfil();
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // Stopped.
+        }
+    }
+
+    private void handback(RedissonDelayedTask<?> task) {
+        byte[] bytes = this.codec.encode(task);
+        this.lock.lock();
+        try {
+            long due = System.currentTimeMillis();
+            this.journal.offer(task.taskId(), due, bytes, this.index.containsKey(task.taskId()));
+            this.push(task, due);
+            this.available.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+
+        this.fulfil();
+    }
+
+    /**
+     * Under the lock: snapshot the live tasks with the journal checkpoint, encode and rewrite them on the compactor.
+     */
+    private void tryCompact() {
+        if (this.compacting || this.destroyed || !this.journal.shouldCompact(this.compactThreshold)) {
+            return;
+        }
+
+        List<Entry> lives = new ArrayList<>(this.index.values());
+        TaskJournal.Checkpoint checkpoint = this.journal.checkpoint();
+        this.compacting = true;
+        try {
+            this.compactor.execute(() -> this.compact(lives, checkpoint));
+        } catch (RejectedExecutionException e) {
+            // Stopped.
+            this.compacting = false;
+        }
+    }
+
+    private void compact(List<Entry> lives, TaskJournal.Checkpoint checkpoint) {
+        try {
+            List<TaskJournal.Record> records = new ArrayList<>(lives.size());
+            for (Entry entry : lives) {
+                records.add(new TaskJournal.Record(entry.task.taskId(), entry.due, this.codec.encode(entry.task)));
+            }
+
+            this.journal.compact(records, checkpoint);
+        } catch (Exception e) {
+            log.error("redisson.delayqueue: local.journal.compact.failed,report:[topic:{}]", this.topic, e);
+        } finally {
+            this.lock.lock();
+            try {
+                this.compacting = false;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    private static class Entry implements Comparable<Entry> {
+
+        private final RedissonDelayedTask<?> task;
+        private final long due;
+        /**
+         * FIFO among tasks due at the same millis.
+         */
+        private final long sequence;
+        private boolean removed;
+
+        Entry(RedissonDelayedTask<?> task, long due, long sequence) {
+            this.task = task;
+            this.due = due;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry that) {
+            int compared = Long.compare(this.due, that.due);
+
+            return 0 != compared ? compared : Long.compare(this.sequence, that.sequence);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.engine;
+
+import java.io.Serializable;
+
+/**
+ * {@code QueueDepth}
+ * <p>
+ * A point-in-time view of one topic in its engine, -1 stands for unknown(unsupported by the engine).
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class QueueDepth implements Serializable {
+
+    private static final long serialVersionUID = -3385019647102731544L;
+
+    public static final QueueDepth UNKNOWN = new QueueDepth(-1, -1, -1);
+
+    /**
+     * Pending tasks, not yet due.
+     */
+    private final long delayed;
+    /**
+     * Due tasks not taken by any consumer yet, the backlog.
+     */
+    private final long ready;
+    /**
+     * How long the oldest ready task has been due, in milliseconds.
+     * |- 0: nothing ready.
+     */
+    private final long oldestReadyAge;
+
+    public QueueDepth(long delayed, long ready, long oldestReadyAge) {
+        this.delayed = delayed;
+        this.ready = ready;
+        this.oldestReadyAge = oldestReadyAge;
+    }
+
+    // ----------------------------------------------------------------
+
+    public long delayed() {
+        return delayed;
+    }
+
+    public long ready() {
+        return ready;
+    }
+
+    public long oldestReadyAge() {
+        return oldestReadyAge;
+    }
+
+    // ----------------------------------------------------------------
+
+    public long getDelayed() {
+        return this.delayed;
+    }
+
+    public long getReady() {
+        return this.ready;
+    }
+
+    public long getOldestReadyAge() {
+        return this.oldestReadyAge;
+    }
+
+    public String toString() {
+        return "QueueDepth(delayed=" + this.getDelayed() + ", ready=" + this.getReady() + ", oldestReadyAge=" + this.getOldestReadyAge() + ")";
+    }
+}
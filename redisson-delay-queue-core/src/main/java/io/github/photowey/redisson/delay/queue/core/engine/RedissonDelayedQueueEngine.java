@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.engine;
+
+import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+import org.redisson.api.RBlockingDeque;
+import org.redisson.api.RDelayedQueue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code RedissonDelayedQueueEngine}
+ * <p>
+ * Backed by Redisson {@link RDelayedQueue}: a client-side timer per topic moves due tasks into the {@link RBlockingDeque}.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class RedissonDelayedQueueEngine implements DelayedQueueEngine {
+
+    private final String topic;
+    private final RBlockingDeque<RedissonDelayedTask<?>> blockingQueue;
+    private final RDelayedQueue<RedissonDelayedTask<?>> delayedQueue;
+
+    public RedissonDelayedQueueEngine(
+            String topic,
+            RBlockingDeque<RedissonDelayedTask<?>> blockingQueue,
+            RDelayedQueue<RedissonDelayedTask<?>> delayedQueue) {
+        this.topic = topic;
+        this.blockingQueue = blockingQueue;
+        this.delayedQueue = delayedQueue;
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public String topic() {
+        return this.topic;
+    }
+
+    public RBlockingDeque<RedissonDelayedTask<?>> blockingQueue() {
+        return this.blockingQueue;
+    }
+
+    public RDelayedQueue<RedissonDelayedTask<?>> delayedQueue() {
+        return this.delayedQueue;
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public void offer(RedissonDelayedTask<?> task) {
+        this.delayedQueue.offer(task, determineDelayMillis(task), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CompletionStage<Void> offerAsync(RedissonDelayedTask<?> task) {
+        return this.delayedQueue.offerAsync(task, determineDelayMillis(task), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public List<RedissonDelayedTask<?>> poll(int limit) {
+        return this.blockingQueue.poll(limit);
+    }
+
+    @Override
+    public RedissonDelayedTask<?> poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.blockingQueue.poll(timeout, unit);
+    }
+
+    @Override
+    public CompletableFuture<RedissonDelayedTask<?>> takeAsync() {
+        return this.blockingQueue.takeAsync().toCompletableFuture();
+    }
+
+    @Override
+    public QueueDepth depth() {
+        long delayed = this.delayedQueue.size();
+        long ready = this.blockingQueue.size();
+
+        RedissonDelayedTask<?> head = ready > 0 ? this.blockingQueue.peek() : null;
+        if (null == head) {
+            return new QueueDepth(delayed, ready, 0);
+        }
+
+        // Unstamped(offered by an older version): the age is unknown.
+        return new QueueDepth(delayed, ready, head.dueAt() > 0 ? Math.max(System.currentTimeMillis() - head.dueAt(), 0) : -1);
+    }
+
+    @Override
+    public void destroy() {
+        this.delayedQueue.destroy();
+    }
+
+    // ----------------------------------------------------------------
+
+    private static long determineDelayMillis(RedissonDelayedTask<?> task) {
+        // From the stamped due time: a task offered again keeps its own schedule, not the one of its first offer.
+        return Math.max(task.releaseAt() - System.currentTimeMillis(), 0);
+    }
+}
@@ -0,0 +1,499 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.engine;
+
+import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+import org.redisson.api.PendingEntry;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.redisson.api.stream.StreamCreateGroupArgs;
+import org.redisson.api.stream.StreamReadGroupArgs;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.Codec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code StreamDelayedQueueEngine}
+ * <p>
+ * Schedules like {@link ZSetDelayedQueueEngine}, but due tasks are moved to a stream instead of handed out directly:
+ * |- {prefix}:{topic}:stream: one entry per due task, field {@code t} -> encoded task.
+ * <p>
+ * Every node reads the stream through the same consumer group, so each task is delivered to exactly one consumer,
+ * and stays pending until it is acknowledged after its dispatch.
+ * Tasks pending on a consumer for longer than {@code reclaimIdle}(e.g. the node died) are claimed by another one,
+ * delivery is therefore at-least-once.
+ * |- An entry that cannot be decoded, or was delivered {@code maxDeliveries} times already, is moved to
+ * |- {prefix}:{topic}:dead and removed from the stream.
+ * |- Consumers idle for {@code consumerExpiry} without pending entries(e.g. the random name of a restarted node)
+ * |- are deleted from the group.
+ * <p>
+ * Only XPENDING/XCLAIM are used for the reclaim, XAUTOCLAIM needs Redis 6.2+.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class StreamDelayedQueueEngine extends ZSetDelayedQueueEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamDelayedQueueEngine.class);
+
+    private static final String DEFAULT_CONSUMER =
+            ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+
+    private static final byte[] TASK_FIELD = toBytes("t");
+
+    /**
+     * Returns {nextDue}, nextDue is -1 unless the topic is drained.
+     */
+    private static final String MOVE_SCRIPT = ""
+            + "local limit = tonumber(ARGV[2]); "
+            + "local ids = redis.call('zrangebyscore', KEYS[1], '-inf', ARGV[1], 'limit', 0, limit); "
+            + "for _, id in ipairs(ids) do "
+            + "  local task = redis.call('hget', KEYS[2], id); "
+            + "  redis.call('zrem', KEYS[1], id); "
+            + "  redis.call('hdel', KEYS[2], id); "
+            + "  if task then redis.call('xadd', KEYS[3], '*', ARGV[3], task); end; "
+            + "end; "
+            + "local result = {'-1'}; "
+            + "if #ids < limit then "
+            + "  local head = redis.call('zrange', KEYS[1], 0, 0, 'withscores'); "
+            + "  if head[2] then result[1] = head[2]; end; "
+            + "end; "
+            + "return result;";
+
+    private static final String ACK_SCRIPT = ""
+            + "local acked = redis.call('xack', KEYS[1], ARGV[1], ARGV[2]); "
+            + "redis.call('xdel', KEYS[1], ARGV[2]); "
+            + "return acked;";
+
+    /**
+     * Deletes the other consumers idle for ARGV[3] millis without pending entries, returns the count.
+     */
+    private static final String EXPIRE_SCRIPT = ""
+            + "local removed = 0; "
+            + "for _, consumer in ipairs(redis.call('xinfo', 'consumers', KEYS[1], ARGV[1])) do "
+            + "  local info = {}; "
+            + "  for i = 1, #consumer, 2 do info[consumer[i]] = consumer[i + 1]; end; "
+            + "  if info['name'] ~= ARGV[2] and tonumber(info['pending']) == 0 and tonumber(info['idle']) >= tonumber(ARGV[3]) then "
+            + "    redis.call('xgroup', 'delconsumer', KEYS[1], ARGV[1], info['name']); "
+            + "    removed = removed + 1; "
+            + "  end; "
+            + "end; "
+            + "return removed;";
+
+    private static final int RECLAIM_BATCH = 100;
+
+    private final List<Object> keys;
+    private final RStream<byte[], byte[]> stream;
+    private final String group;
+    private final String consumer;
+    private final long reclaimIdleMillis;
+    private final int maxDeliveries;
+    private final long consumerExpiryMillis;
+
+    /**
+     * taskId -> the stream entry it was delivered by, until acknowledged.
+     */
+    private final Map<String, Receipt> receipts = new ConcurrentHashMap<>();
+    private volatile long reclaimAt;
+    private volatile long expireAt;
+
+    public StreamDelayedQueueEngine(
+            RedissonClient redisson,
+            String prefix,
+            String topic,
+            long idleWaitMillis,
+            ScheduledExecutorService timer,
+            Codec codec,
+            String group,
+            String consumer,
+            long reclaimIdleMillis,
+            int maxDeliveries,
+            long consumerExpiryMillis) {
+        super(redisson, prefix, topic, idleWaitMillis, timer, codec);
+        this.keys = Arrays.asList(this.key("zset"), this.key("hash"), this.key("stream"));
+        this.stream = redisson.getStream(this.key("stream"), ByteArrayCodec.INSTANCE);
+        this.group = group;
+        this.consumer = null != consumer ? consumer : DEFAULT_CONSUMER;
+        this.reclaimIdleMillis = Math.max(reclaimIdleMillis, 1);
+        this.maxDeliveries = Math.max(maxDeliveries, 1);
+        this.consumerExpiryMillis = consumerExpiryMillis;
+        this.reclaimAt = System.currentTimeMillis() + this.reclaimIdleMillis;
+        this.expireAt = System.currentTimeMillis() + Math.max(consumerExpiryMillis, 0);
+
+        this.createGroup();
+    }
+
+    // ----------------------------------------------------------------
+
+    public String group() {
+        return this.group;
+    }
+
+    public String consumer() {
+        return this.consumer;
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public void ack(RedissonDelayedTask<?> task) {
+        Receipt receipt = this.receipts.remove(task.taskId());
+        if (null == receipt) {
+            return;
+        }
+
+        this.release(receipt.id);
+    }
+
+    @Override
+    public boolean redelivered(RedissonDelayedTask<?> task) {
+        Receipt receipt = this.receipts.get(task.taskId());
+
+        return null != receipt && receipt.redelivered;
+    }
+
+    /**
+     * Ready also counts the stream entries: not yet read, or read and not acknowledged.
+     */
+    @Override
+    public QueueDepth depth() {
+        QueueDepth depth = super.depth();
+        long entries = this.stream.size();
+        if (0 == entries) {
+            return depth;
+        }
+
+        long oldestReadyAge = depth.oldestReadyAge();
+        Map<StreamMessageId, Map<byte[], byte[]>> head = this.stream.range(1, StreamMessageId.MIN, StreamMessageId.MAX);
+        if (!head.isEmpty()) {
+            // The id carries the time the task was moved in, i.e. when it got due.
+            oldestReadyAge = Math.max(oldestReadyAge, System.currentTimeMillis() - head.keySet().iterator().next().getId0());
+        }
+
+        return new QueueDepth(depth.delayed(), depth.ready() + entries, oldestReadyAge);
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    protected Popped pop(int limit) {
+        List<Object> moved = this.script().eval(
+                RScript.Mode.READ_WRITE, MOVE_SCRIPT, RScript.ReturnType.MULTI, this.keys, this.toMoveArgs(limit));
+        long nextDue = this.toNextDue(moved);
+
+        List<RedissonDelayedTask<?>> tasks = new ArrayList<>();
+        if (this.shouldReclaim()) {
+            this.reclaim(tasks, limit, this.stream.listPending(this.group, StreamMessageId.MIN, StreamMessageId.MAX, RECLAIM_BATCH));
+        }
+        this.tryExpireConsumers();
+        if (tasks.size() < limit) {
+            try {
+                this.receive(tasks, this.stream.readGroup(
+                        this.group, this.consumer, StreamReadGroupArgs.neverDelivered().count(limit - tasks.size())), false);
+            } catch (RedisException e) {
+                this.tryRecreateGroup(e);
+            }
+        }
+
+        return new Popped(nextDue, tasks);
+    }
+
+    @Override
+    protected CompletionStage<Popped> popAsync(int limit) {
+        RFuture<List<Object>> move = this.script().evalAsync(
+                RScript.Mode.READ_WRITE, MOVE_SCRIPT, RScript.ReturnType.MULTI, this.keys, this.toMoveArgs(limit));
+
+        return move.thenCompose((moved) -> {
+            long nextDue = this.toNextDue(moved);
+            List<RedissonDelayedTask<?>> tasks = new ArrayList<>();
+
+            CompletionStage<List<RedissonDelayedTask<?>>> reclaimed = CompletableFuture.completedFuture(tasks);
+            if (this.shouldReclaim()) {
+                reclaimed = this.stream.listPendingAsync(this.group, StreamMessageId.MIN, StreamMessageId.MAX, RECLAIM_BATCH)
+                        .thenCompose((pending) -> this.reclaimAsync(tasks, limit, pending));
+            }
+            this.tryExpireConsumers();
+
+            return reclaimed.thenCompose((x) -> {
+                if (tasks.size() >= limit) {
+                    return CompletableFuture.completedFuture(new Popped(nextDue, tasks));
+                }
+
+                return this.stream.readGroupAsync(
+                                this.group, this.consumer, StreamReadGroupArgs.neverDelivered().count(limit - tasks.size()))
+                        .handle((entries, cause) -> {
+                            if (null != cause) {
+                                this.tryRecreateGroup(cause);
+                            } else {
+                                this.receive(tasks, entries, false);
+                            }
+
+                            return new Popped(nextDue, tasks);
+                        });
+            });
+        });
+    }
+
+    @Override
+    protected void handback(RedissonDelayedTask<?> task) {
+        super.handback(task);
+        this.ack(task);
+    }
+
+    // ----------------------------------------------------------------
+
+    private void createGroup() {
+        try {
+            this.stream.createGroup(StreamCreateGroupArgs.name(this.group).id(StreamMessageId.ALL).makeStream());
+        } catch (RedisException e) {
+            if (!isBusyGroup(e)) {
+                throw e;
+            }
+        }
+    }
+
+    private void tryRecreateGroup(Throwable cause) {
+        // The stream key was deleted(e.g. flushed), the group went with it.
+        if (null != cause.getMessage() && cause.getMessage().contains("NOGROUP")) {
+            this.createGroup();
+            return;
+        }
+
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+
+        throw new RuntimeException(cause);
+    }
+
+    private boolean shouldReclaim() {
+        long now = System.currentTimeMillis();
+        if (now < this.reclaimAt) {
+            return false;
+        }
+
+        this.reclaimAt = now + Math.max(this.reclaimIdleMillis / 2, 1);
+
+        return true;
+    }
+
+    private void tryExpireConsumers() {
+        long now = System.currentTimeMillis();
+        if (this.consumerExpiryMillis <= 0 || now < this.expireAt) {
+            return;
+        }
+
+        this.expireAt = now + Math.max(this.consumerExpiryMillis / 2, this.reclaimIdleMillis);
+        RFuture<Long> expired = this.script().evalAsync(
+                RScript.Mode.READ_WRITE,
+                EXPIRE_SCRIPT,
+                RScript.ReturnType.INTEGER,
+                Collections.singletonList(this.key("stream")),
+                toBytes(this.group),
+                toBytes(this.consumer),
+                toBytes(String.valueOf(this.consumerExpiryMillis))
+        );
+        expired.whenComplete((removed, cause) -> {
+            if (null != cause) {
+                log.warn("redisson.delayqueue: stream.consumer.expire.failed,report:[topic:{},group:{}]", this.topic(), this.group, cause);
+            } else if (null != removed && removed > 0) {
+                log.info("redisson.delayqueue: stream.consumer.expired,report:[topic:{},group:{},removed:{}]", this.topic(), this.group, removed);
+            }
+        });
+    }
+
+    private void reclaim(List<RedissonDelayedTask<?>> tasks, int limit, List<PendingEntry> pending) {
+        StreamMessageId[] ids = this.determineIdle(pending, limit);
+        if (ids.length > 0) {
+            this.receive(tasks, this.stream.claim(this.group, this.consumer, this.reclaimIdleMillis, TimeUnit.MILLISECONDS, ids), true);
+        }
+    }
+
+    private CompletionStage<List<RedissonDelayedTask<?>>> reclaimAsync(
+            List<RedissonDelayedTask<?>> tasks, int limit, List<PendingEntry> pending) {
+        StreamMessageId[] ids = this.determineIdle(pending, limit);
+        if (ids.length == 0) {
+            return CompletableFuture.completedFuture(tasks);
+        }
+
+        return this.stream.claimAsync(this.group, this.consumer, this.reclaimIdleMillis, TimeUnit.MILLISECONDS, ids)
+                .thenApply((entries) -> {
+                    this.receive(tasks, entries, true);
+                    return tasks;
+                });
+    }
+
+    private StreamMessageId[] determineIdle(List<PendingEntry> pending, int limit) {
+        // The idle filter of XPENDING is 6.2+ too, filter here, XCLAIM re-checks it atomically anyway.
+        List<StreamMessageId> ids = new ArrayList<>();
+        for (PendingEntry entry : pending) {
+            if (ids.size() >= Math.max(limit, 1)) {
+                break;
+            }
+            if (entry.getIdleTime() < this.reclaimIdleMillis) {
+                continue;
+            }
+            if (this.consumer.equals(entry.getConsumerName()) && !this.orphaned(entry.getId())) {
+                continue;
+            }
+
+            // The delivery counter, named lastTimeDelivered by Redisson.
+            if (entry.getLastTimeDelivered() >= this.maxDeliveries) {
+                this.bury(entry);
+                continue;
+            }
+
+            ids.add(entry.getId());
+        }
+
+        return ids.toArray(new StreamMessageId[0]);
+    }
+
+    /**
+     * Dead-letters an entry delivered {@code maxDeliveries} times without being acknowledged.
+     */
+    private void bury(PendingEntry entry) {
+        this.stream.rangeAsync(1, entry.getId(), entry.getId()).whenComplete((entries, cause) -> {
+            if (null != cause) {
+                log.warn("redisson.delayqueue: stream.bury.failed,report:[topic:{},id:{}]", this.topic(), entry.getId(), cause);
+                return;
+            }
+
+            byte[] bytes = null != entries ? this.determineTask(entries.get(entry.getId())) : null;
+            if (null != bytes) {
+                this.deadLetter(bytes, "deliveries:" + entry.getLastTimeDelivered(), null);
+            }
+            this.release(entry.getId());
+        });
+    }
+
+    /**
+     * Acknowledges and deletes a stream entry.
+     */
+    private void release(StreamMessageId id) {
+        RFuture<Long> ack = this.script().evalAsync(
+                RScript.Mode.READ_WRITE,
+                ACK_SCRIPT,
+                RScript.ReturnType.INTEGER,
+                Collections.singletonList(this.key("stream")),
+                toBytes(this.group),
+                toBytes(id.toString())
+        );
+        ack.whenComplete((x, cause) -> {
+            if (null != cause) {
+                // Left pending, another consumer reclaims it later.
+                log.warn("redisson.delayqueue: stream.ack.failed,report:[topic:{},id:{}]", this.topic(), id, cause);
+            }
+        });
+    }
+
+    private boolean orphaned(StreamMessageId id) {
+        // Pending on this consumer but not tracked any more, e.g. the poller dropped it on an error.
+        return this.receipts.values().stream().noneMatch((receipt) -> receipt.id.equals(id));
+    }
+
+    private void receive(List<RedissonDelayedTask<?>> tasks, Map<StreamMessageId, Map<byte[], byte[]>> entries, boolean redelivered) {
+        if (null == entries) {
+            return;
+        }
+
+        for (Map.Entry<StreamMessageId, Map<byte[], byte[]>> entry : entries.entrySet()) {
+            byte[] bytes = this.determineTask(entry.getValue());
+            if (null == bytes) {
+                // Deleted meanwhile, nothing left to deliver.
+                this.stream.ackAsync(this.group, entry.getKey());
+                continue;
+            }
+
+            RedissonDelayedTask<?> task = this.tryDecode(bytes);
+            if (null == task) {
+                // Dead-lettered, never reclaimed again.
+                this.release(entry.getKey());
+                continue;
+            }
+
+            this.receipts.put(task.taskId(), new Receipt(entry.getKey(), redelivered));
+            tasks.add(task);
+        }
+    }
+
+    private byte[] determineTask(Map<byte[], byte[]> fields) {
+        if (null == fields) {
+            return null;
+        }
+
+        for (Map.Entry<byte[], byte[]> field : fields.entrySet()) {
+            if (Arrays.equals(TASK_FIELD, field.getKey())) {
+                return field.getValue();
+            }
+        }
+
+        return null;
+    }
+
+    private Object[] toMoveArgs(int limit) {
+        return new Object[]{
+                toBytes(String.valueOf(System.currentTimeMillis())),
+                toBytes(String.valueOf(Math.max(limit, 1))),
+                TASK_FIELD
+        };
+    }
+
+    private long toNextDue(List<Object> result) {
+        if (null == result || result.isEmpty()) {
+            return -1;
+        }
+
+        return (long) Double.parseDouble(new String((byte[]) result.get(0), StandardCharsets.UTF_8));
+    }
+
+    private static boolean isBusyGroup(RedisException e) {
+        return null != e.getMessage() && e.getMessage().contains("BUSYGROUP");
+    }
+
+    // ----------------------------------------------------------------
+
+    private static class Receipt {
+
+        private final StreamMessageId id;
+        private final boolean redelivered;
+
+        Receipt(StreamMessageId id, boolean redelivered) {
+            this.id = id;
+            this.redelivered = redelivered;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.engine;
+
+import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.redisson.client.codec.Codec;
+
+import java.io.IOException;
+
+/**
+ * {@code TaskCodec}
+ * <p>
+ * Encodes tasks with the client codec, so the engine scripts can move them around as opaque bytes.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class TaskCodec {
+
+    private final Codec codec;
+
+    public TaskCodec(Codec codec) {
+        this.codec = codec;
+    }
+
+    // ----------------------------------------------------------------
+
+    public byte[] encode(RedissonDelayedTask<?> task) {
+        ByteBuf buf = null;
+        try {
+            buf = this.codec.getValueEncoder().encode(task);
+            return ByteBufUtil.getBytes(buf);
+        } catch (IOException e) {
+            throw new RuntimeException("redisson.delayqueue: encode task failed, taskId:" + task.taskId(), e);
+        } finally {
+            if (null != buf) {
+                buf.release();
+            }
+        }
+    }
+
+    public RedissonDelayedTask<?> decode(byte[] bytes) {
+        ByteBuf buf = Unpooled.wrappedBuffer(bytes);
+        try {
+            return (RedissonDelayedTask<?>) this.codec.getValueDecoder().decode(buf, null);
+        } catch (IOException e) {
+            throw new RuntimeException("redisson.delayqueue: decode task failed", e);
+        } finally {
+            buf.release();
+        }
+    }
+}
@@ -0,0 +1,505 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.engine;
+
+import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+import org.redisson.api.RFuture;
+import org.redisson.api.RList;
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@code ZSetDelayedQueueEngine}
+ * <p>
+ * Keeps the pending tasks of a topic in two keys, sharing the {@code {topic}} hash tag:
+ * |- {prefix}:{topic}:zset: taskId scored by due time(epoch millis).
+ * |- {prefix}:{topic}:hash: taskId -> encoded task.
+ * |- {prefix}:{topic}:dead: the encoded tasks that could not be delivered, e.g. undecodable, for manual inspection.
+ * <p>
+ * Due tasks are popped by one server-side script per batch, there is no per-topic timer:
+ * the pollers pull, and sleep until the next due time(capped by {@code idleWait}) when nothing is due.
+ * An offer that becomes the new head publishes its due time on {prefix}:{topic}:wake, which wakes the waiters of
+ * every node early, so {@code idleWait} is only a safety net for a missed message.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class ZSetDelayedQueueEngine implements DelayedQueueEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ZSetDelayedQueueEngine.class);
+
+    /**
+     * Publishes the due time on ARGV[4] if the task is the new head.
+     */
+    private static final String OFFER_SCRIPT = ""
+            + "redis.call('zadd', KEYS[1], ARGV[2], ARGV[1]); "
+            + "redis.call('hset', KEYS[2], ARGV[1], ARGV[3]); "
+            + "local head = redis.call('zrange', KEYS[1], 0, 0); "
+            + "if head[1] == ARGV[1] then redis.call('publish', ARGV[4], ARGV[2]); end; "
+            + "return 1;";
+
+    /**
+     * Returns {nextDue, task...}, nextDue is -1 unless the topic is drained.
+     */
+    private static final String POP_SCRIPT = ""
+            + "local limit = tonumber(ARGV[2]); "
+            + "local ids = redis.call('zrangebyscore', KEYS[1], '-inf', ARGV[1], 'limit', 0, limit); "
+            + "local result = {'-1'}; "
+            + "for _, id in ipairs(ids) do "
+            + "  local task = redis.call('hget', KEYS[2], id); "
+            + "  redis.call('zrem', KEYS[1], id); "
+            + "  redis.call('hdel', KEYS[2], id); "
+            + "  if task then table.insert(result, task); end; "
+            + "end; "
+            + "if #ids < limit then "
+            + "  local head = redis.call('zrange', KEYS[1], 0, 0, 'withscores'); "
+            + "  if head[2] then result[1] = head[2]; end; "
+            + "end; "
+            + "return result;";
+
+    /**
+     * Returns {ready, delayed, the score of the head or -1}.
+     */
+    private static final String DEPTH_SCRIPT = ""
+            + "local ready = redis.call('zcount', KEYS[1], '-inf', ARGV[1]); "
+            + "local delayed = redis.call('zcount', KEYS[1], '(' .. ARGV[1], '+inf'); "
+            + "local head = redis.call('zrange', KEYS[1], 0, 0, 'withscores'); "
+            + "return {tostring(ready), tostring(delayed), head[2] or '-1'};";
+
+    private static final String REMOVE_SCRIPT = ""
+            + "local removed = redis.call('zrem', KEYS[1], ARGV[1]); "
+            + "redis.call('hdel', KEYS[2], ARGV[1]); "
+            + "return removed;";
+
+    private final String topic;
+    private final String prefix;
+    private final List<Object> keys;
+    private final RScript script;
+    private final RList<byte[]> deadLetters;
+    private final byte[] wakeupChannel;
+    private final RTopic wakeups;
+    private final int wakeupListener;
+    private final TaskCodec codec;
+    private final long idleWaitMillis;
+    private final ScheduledExecutorService timer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition offered = this.lock.newCondition();
+    /**
+     * Bumped by every wakeup, read before a pop and re-checked before waiting:
+     * |- An offer landing between an empty pop and the wait would otherwise go unnoticed until the wait times out.
+     */
+    private final AtomicLong wakeupSequence = new AtomicLong();
+    /**
+     * When the blocked poller wakes up by itself, an earlier offer wakes it now.
+     * |- Long.MIN_VALUE: nobody is waiting.
+     */
+    private volatile long wakeAt = Long.MIN_VALUE;
+    /**
+     * The async take waiting for its retry, and when the retry fires.
+     */
+    private final AtomicReference<CompletableFuture<RedissonDelayedTask<?>>> parked = new AtomicReference<>();
+    private volatile long parkedAt = Long.MIN_VALUE;
+    private volatile boolean destroyed;
+
+    public ZSetDelayedQueueEngine(
+            RedissonClient redisson, String prefix, String topic, long idleWaitMillis, ScheduledExecutorService timer) {
+        this(redisson, prefix, topic, idleWaitMillis, timer, redisson.getConfig().getCodec());
+    }
+
+    public ZSetDelayedQueueEngine(
+            RedissonClient redisson,
+            String prefix,
+            String topic,
+            long idleWaitMillis,
+            ScheduledExecutorService timer,
+            Codec codec) {
+        this.topic = topic;
+        this.prefix = prefix;
+        this.keys = Arrays.asList(this.key("zset"), this.key("hash"));
+        this.script = redisson.getScript(ByteArrayCodec.INSTANCE);
+        this.deadLetters = redisson.getList(this.key("dead"), ByteArrayCodec.INSTANCE);
+        this.codec = new TaskCodec(codec);
+        this.idleWaitMillis = Math.max(idleWaitMillis, 1);
+        this.timer = timer;
+
+        this.wakeupChannel = toBytes(this.key("wake"));
+        this.wakeups = redisson.getTopic(this.key("wake"), StringCodec.INSTANCE);
+        this.wakeupListener = this.wakeups.addListener(String.class, (channel, due) -> this.wakeup(Long.parseLong(due)));
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public String topic() {
+        return this.topic;
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public void offer(RedissonDelayedTask<?> task) {
+        this.offer(task, this.determineDue(task));
+    }
+
+    @Override
+    public CompletionStage<Void> offerAsync(RedissonDelayedTask<?> task) {
+        long due = this.determineDue(task);
+        RFuture<Long> offer = this.script.evalAsync(
+                RScript.Mode.READ_WRITE, OFFER_SCRIPT, RScript.ReturnType.INTEGER, this.keys, this.toOfferArgs(task, due));
+
+        return offer.thenAccept((x) -> this.wakeup(due));
+    }
+
+    @Override
+    public List<RedissonDelayedTask<?>> poll(int limit) {
+        return this.pop(limit).tasks;
+    }
+
+    @Override
+    public RedissonDelayedTask<?> poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!this.destroyed) {
+            long sequence = this.wakeupSequence.get();
+            Popped popped = this.pop(1);
+            if (!popped.tasks.isEmpty()) {
+                return popped.tasks.get(0);
+            }
+
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                return null;
+            }
+
+            this.await(Math.min(remaining, this.determineWait(popped.nextDue)), sequence);
+        }
+
+        return null;
+    }
+
+    @Override
+    public CompletableFuture<RedissonDelayedTask<?>> takeAsync() {
+        CompletableFuture<RedissonDelayedTask<?>> take = new CompletableFuture<>();
+        this.tryTake(take);
+
+        return take;
+    }
+
+    @Override
+    public boolean remove(String taskId) {
+        Long removed = this.script.eval(
+                RScript.Mode.READ_WRITE, REMOVE_SCRIPT, RScript.ReturnType.INTEGER, this.keys, toBytes(taskId));
+
+        return null != removed && removed > 0;
+    }
+
+    @Override
+    public QueueDepth depth() {
+        long now = System.currentTimeMillis();
+        List<Object> result = this.script.eval(
+                RScript.Mode.READ_ONLY, DEPTH_SCRIPT, RScript.ReturnType.MULTI, this.keys, toBytes(String.valueOf(now)));
+
+        long ready = toLong(result.get(0));
+        long head = toLong(result.get(2));
+
+        return new QueueDepth(toLong(result.get(1)), ready, ready > 0 && head >= 0 ? now - head : 0);
+    }
+
+    @Override
+    public void destroy() {
+        this.destroyed = true;
+        this.wakeups.removeListener(this.wakeupListener);
+        this.wakeupSequence.incrementAndGet();
+        this.signal();
+
+        CompletableFuture<RedissonDelayedTask<?>> take = this.parked.getAndSet(null);
+        if (null != take) {
+            take.cancel(false);
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    protected Popped pop(int limit) {
+        List<Object> result = this.script.eval(
+                RScript.Mode.READ_WRITE, POP_SCRIPT, RScript.ReturnType.MULTI, this.keys, this.toPopArgs(limit));
+
+        return this.toPopped(result);
+    }
+
+    protected CompletionStage<Popped> popAsync(int limit) {
+        RFuture<List<Object>> pop = this.script.evalAsync(
+                RScript.Mode.READ_WRITE, POP_SCRIPT, RScript.ReturnType.MULTI, this.keys, this.toPopArgs(limit));
+
+        return pop.thenApply(this::toPopped);
+    }
+
+    /**
+     * Hands a popped task back as due now, when its take was cancelled meanwhile.
+     */
+    protected void handback(RedissonDelayedTask<?> task) {
+        this.offer(task, System.currentTimeMillis());
+    }
+
+    /**
+     * Decodes a popped task, an undecodable one is dead-lettered instead of failing the whole batch.
+     *
+     * @param bytes the encoded task
+     * @return the task, null if dead-lettered
+     */
+    protected RedissonDelayedTask<?> tryDecode(byte[] bytes) {
+        try {
+            return this.codec.decode(bytes);
+        } catch (RuntimeException e) {
+            this.deadLetter(bytes, "undecodable", e);
+            return null;
+        }
+    }
+
+    protected void deadLetter(byte[] bytes, String reason, Throwable cause) {
+        log.warn("redisson.delayqueue: engine.dead.letter,report:[topic:{},key:{},reason:{}]",
+                this.topic, this.deadLetters.getName(), reason, cause);
+        this.deadLetters.addAsync(bytes).whenComplete((x, e) -> {
+            if (null != e) {
+                log.error("redisson.delayqueue: engine.dead.letter.failed,report:[topic:{},key:{}]",
+                        this.topic, this.deadLetters.getName(), e);
+            }
+        });
+    }
+
+    // ----------------------------------------------------------------
+
+    protected String key(String suffix) {
+        return this.prefix + ":{" + this.topic + "}:" + suffix;
+    }
+
+    protected List<Object> keys() {
+        return this.keys;
+    }
+
+    protected RScript script() {
+        return this.script;
+    }
+
+    protected TaskCodec codec() {
+        return this.codec;
+    }
+
+    protected boolean destroyed() {
+        return this.destroyed;
+    }
+
+    // ----------------------------------------------------------------
+
+    private void offer(RedissonDelayedTask<?> task, long due) {
+        this.script.eval(RScript.Mode.READ_WRITE, OFFER_SCRIPT, RScript.ReturnType.INTEGER, this.keys, this.toOfferArgs(task, due));
+        this.wakeup(due);
+    }
+
+    private void tryTake(CompletableFuture<RedissonDelayedTask<?>> take) {
+        if (take.isDone()) {
+            return;
+        }
+        if (this.destroyed) {
+            take.cancel(false);
+            return;
+        }
+
+        long sequence = this.wakeupSequence.get();
+        this.popAsync(1).whenComplete((popped, cause) -> {
+            if (null != cause) {
+                take.completeExceptionally(cause);
+                return;
+            }
+
+            if (!popped.tasks.isEmpty()) {
+                RedissonDelayedTask<?> task = popped.tasks.get(0);
+                if (!take.complete(task)) {
+                    this.handback(task);
+                }
+                return;
+            }
+
+            this.park(take, this.determineWait(popped.nextDue), sequence);
+        });
+    }
+
+    private void park(CompletableFuture<RedissonDelayedTask<?>> take, long millis, long sequence) {
+        boolean parked = this.parked.compareAndSet(null, take);
+        if (parked) {
+            this.parkedAt = System.currentTimeMillis() + millis;
+            // Woken up since the pop: retry now, unless the wakeup already picked the take up.
+            if (sequence != this.wakeupSequence.get()) {
+                if (this.parked.compareAndSet(take, null)) {
+                    this.parkedAt = Long.MIN_VALUE;
+                    this.tryTake(take);
+                }
+                return;
+            }
+        }
+
+        try {
+            this.timer.schedule(() -> this.retake(take, parked), millis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            this.parked.compareAndSet(take, null);
+            take.cancel(false);
+        }
+    }
+
+    private void retake(CompletableFuture<RedissonDelayedTask<?>> take, boolean parked) {
+        // A parked take may have been woken up early by an offer already.
+        if (!parked || this.parked.compareAndSet(take, null)) {
+            this.tryTake(take);
+        }
+    }
+
+    private void await(long millis, long sequence) throws InterruptedException {
+        this.lock.lock();
+        try {
+            // Publish the wait first, then re-check: a wakeup either sees the wait and signals, or is seen here.
+            this.wakeAt = System.currentTimeMillis() + millis;
+            if (sequence != this.wakeupSequence.get()) {
+                return;
+            }
+            this.offered.await(millis, TimeUnit.MILLISECONDS);
+        } finally {
+            this.wakeAt = Long.MIN_VALUE;
+            this.lock.unlock();
+        }
+    }
+
+    private void wakeup(long due) {
+        this.wakeupSequence.incrementAndGet();
+        if (due < this.wakeAt) {
+            this.signal();
+        }
+
+        if (due < this.parkedAt) {
+            CompletableFuture<RedissonDelayedTask<?>> take = this.parked.getAndSet(null);
+            if (null != take) {
+                this.parkedAt = Long.MIN_VALUE;
+                try {
+                    this.timer.execute(() -> this.tryTake(take));
+                } catch (RejectedExecutionException e) {
+                    take.cancel(false);
+                }
+            }
+        }
+    }
+
+    private void signal() {
+        this.lock.lock();
+        try {
+            this.offered.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    protected long determineWait(long nextDue) {
+        if (nextDue < 0) {
+            return this.idleWaitMillis;
+        }
+
+        return Math.max(1, Math.min(this.idleWaitMillis, nextDue - System.currentTimeMillis()));
+    }
+
+    private long determineDue(RedissonDelayedTask<?> task) {
+        return task.releaseAt();
+    }
+
+    private Object[] toOfferArgs(RedissonDelayedTask<?> task, long due) {
+        return new Object[]{
+                toBytes(task.taskId()), toBytes(String.valueOf(due)), this.codec.encode(task), this.wakeupChannel
+        };
+    }
+
+    private Object[] toPopArgs(int limit) {
+        return new Object[]{toBytes(String.valueOf(System.currentTimeMillis())), toBytes(String.valueOf(Math.max(limit, 1)))};
+    }
+
+    private Popped toPopped(List<Object> result) {
+        if (null == result || result.isEmpty()) {
+            return new Popped(-1, Collections.emptyList());
+        }
+
+        long nextDue = (long) Double.parseDouble(new String((byte[]) result.get(0), StandardCharsets.UTF_8));
+        if (1 == result.size()) {
+            return new Popped(nextDue, Collections.emptyList());
+        }
+
+        List<RedissonDelayedTask<?>> tasks = new ArrayList<>(result.size() - 1);
+        for (int i = 1; i < result.size(); i++) {
+            RedissonDelayedTask<?> task = this.tryDecode((byte[]) result.get(i));
+            if (null != task) {
+                tasks.add(task);
+            }
+        }
+
+        return new Popped(nextDue, tasks);
+    }
+
+    protected static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    protected static long toLong(Object value) {
+        return (long) Double.parseDouble(new String((byte[]) value, StandardCharsets.UTF_8));
+    }
+
+    // ----------------------------------------------------------------
+
+    protected static class Popped {
+
+        private final long nextDue;
+        private final List<RedissonDelayedTask<?>> tasks;
+
+        protected Popped(long nextDue, List<RedissonDelayedTask<?>> tasks) {
+            this.nextDue = nextDue;
+            this.tasks = tasks;
+        }
+
+        public long nextDue() {
+            return this.nextDue;
+        }
+
+        public List<RedissonDelayedTask<?>> tasks() {
+            return this.tasks;
+        }
+    }
+}
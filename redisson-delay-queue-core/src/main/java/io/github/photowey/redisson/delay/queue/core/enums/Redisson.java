@@ -57,4 +57,135 @@ public enum Redisson {
             ;
         }
     }
+
+    public enum Scheduler {
+
+        ;
+
+        public enum Mode {
+            /**
+             * Poll every topic on a fixed-rate ticker.
+             */
+            TICKER,
+            /**
+             * Keep one asynchronous take per topic, a task is delivered as soon as it is ready.
+             */
+            PUSH,
+            /**
+             * Keep one long-lived blocking poll loop per topic, on a dedicated thread.
+             */
+            LOOP,
+
+            ;
+        }
+
+        public enum State {
+            /**
+             * Waiting for the next tick.
+             */
+            IDLE,
+            /**
+             * Waiting on Redis for ready tasks.
+             */
+            POLLING,
+            /**
+             * Handing ready tasks to the executor.
+             */
+            DISPATCHING,
+            /**
+             * The scheduler was stopped.
+             */
+            STOPPED,
+
+            ;
+        }
+    }
+
+    public enum Dispatch {
+
+        ;
+
+        public enum Mode {
+            /**
+             * Run the listeners on the thread that polled the task.
+             */
+            CALLER,
+            /**
+             * Hand the task over to the dispatch pool, the poller goes straight back to Redis.
+             */
+            POOL,
+            /**
+             * Run every task on its own thread from the {@code DelayedQueueThreadFactory},
+             * e.g. a virtual thread on Java 21.
+             */
+            VIRTUAL,
+
+            ;
+        }
+
+        public enum Rejection {
+            /**
+             * Run the task on the poller, which slows polling down until the pool catches up.
+             */
+            CALLER_RUNS,
+            /**
+             * Drop the task and log it.
+             */
+            DISCARD,
+            /**
+             * Hand the task back to its engine as due now(re-registered if claimed already) and throw a
+             * {@link java.util.concurrent.RejectedExecutionException} to the poller, which backs off.
+             */
+            ABORT,
+
+            ;
+        }
+    }
+
+    public enum Engine {
+
+        ;
+
+        public enum Type {
+            /**
+             * Redisson {@code RDelayedQueue}: a client-side transfer timer and pub/sub channel per topic.
+             */
+            DELAYED_QUEUE,
+            /**
+             * A ZSET scored by due time plus a HASH of tasks, due tasks are popped in batches by one script.
+             */
+            ZSET,
+            /**
+             * ZSET scheduling, due tasks are moved to a STREAM and consumed by a consumer group,
+             * acknowledged once dispatched and reclaimed from idle consumers.
+             * <p>
+             * At-least-once: a reclaimed entry is redelivered without the registry claim, listeners must be idempotent.
+             */
+            STREAM,
+            /**
+             * Embedded, no Redis: an in-memory delay heap made durable by a memory-mapped journal, single node only.
+             */
+            LOCAL,
+
+            ;
+        }
+    }
+
+    public enum Codec {
+
+        ;
+
+        public enum Type {
+            /**
+             * The codec of the {@code RedissonClient}.
+             */
+            CLIENT,
+            /**
+             * A compact binary envelope, the payload goes through a serializer picked per topic.
+             */
+            COMPACT,
+
+            ;
+        }
+    }
 }
@@ -0,0 +1,420 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * {@code TaskJournal}
+ * <p>
+ * An append-only, memory-mapped write-ahead journal of one topic.
+ * |- Record: [int length][int crc32][byte op][long due][int idLength][id][int taskLength][task].
+ * |- Replay stops at the first zero length or crc mismatch, i.e. a torn tail write is dropped.
+ * |- The file is mapped in {@code segmentSize} steps and grows by doubling.
+ * <p>
+ * Writes reach the page cache only, which survives a process crash. With {@code sync} every write is forced
+ * to the device as well(survives a power loss, much slower).
+ * <p>
+ * Compaction rewrites the live records into a new file and renames it over the journal, see {@link #compact}.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class TaskJournal implements Closeable {
+
+    private static final byte OP_OFFER = 1;
+    private static final byte OP_REMOVE = 2;
+
+    private static final int HEADER_SIZE = 8;
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    private final Path file;
+    private final int segmentSize;
+    private final boolean sync;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+
+    /**
+     * Records in the file vs. records still alive, the difference is garbage.
+     */
+    private long records;
+    private long live;
+
+    public TaskJournal(Path file, int segmentSize, boolean sync) {
+        this.file = file;
+        this.segmentSize = Math.max(segmentSize, 4096);
+        this.sync = sync;
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Open the journal and replay it.
+     *
+     * @return the live records, taskId -> record, in offer order
+     */
+    public synchronized Map<String, Record> open() {
+        try {
+            Files.createDirectories(this.file.toAbsolutePath().getParent());
+            this.channel = FileChannel.open(
+                    this.file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.map(Math.max(this.segmentSize, (int) Math.min(this.channel.size(), Integer.MAX_VALUE)));
+
+            return this.replay();
+        } catch (IOException e) {
+            throw new RuntimeException("redisson.delayqueue: open the journal failed, file:" + this.file, e);
+        }
+    }
+
+    /**
+     * @param replacing true if the taskId is live already, its previous record turns into garbage
+     */
+    public synchronized void offer(String taskId, long due, byte[] task, boolean replacing) {
+        this.append(OP_OFFER, taskId, due, task);
+        this.records++;
+        if (!replacing) {
+            this.live++;
+        }
+    }
+
+    public synchronized void remove(String taskId) {
+        this.append(OP_REMOVE, taskId, 0, new byte[0]);
+        this.records++;
+        this.live = Math.max(this.live - 1, 0);
+    }
+
+    /**
+     * @param threshold the min journal size in bytes
+     * @return true if past {@code threshold} and mostly garbage
+     */
+    public synchronized boolean shouldCompact(long threshold) {
+        return this.position >= threshold && this.records - this.live > this.live;
+    }
+
+    /**
+     * @return the current end of the journal, taken by the owner together with the live records it compacts
+     */
+    public synchronized Checkpoint checkpoint() {
+        return new Checkpoint(this.position, this.records);
+    }
+
+    /**
+     * Rewrite the journal with the live records only, off the owner's lock:
+     * |- The live records as of {@code checkpoint} are written into a new file without blocking appends.
+     * |- Under the journal lock, the records appended since {@code checkpoint} are copied over and the new file is
+     * |- renamed over the journal, so a replay still ends in the current state.
+     *
+     * @param lives      the live records as of {@code checkpoint}, snapshotted by the owner under its own lock
+     * @param checkpoint the end of the journal when {@code lives} was taken
+     */
+    public void compact(Collection<Record> lives, Checkpoint checkpoint) {
+        Path compacted = this.file.resolveSibling(this.file.getFileName() + COMPACT_SUFFIX);
+        try {
+            try (FileChannel target = FileChannel.open(compacted,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (Record record : lives) {
+                    write(target, encode(OP_OFFER, record.taskId, record.due, record.task));
+                }
+            }
+
+            synchronized (this) {
+                if (null == this.channel || !this.channel.isOpen()) {
+                    // Closed meanwhile.
+                    return;
+                }
+
+                try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.APPEND)) {
+                    ByteBuffer tail = this.buffer.duplicate();
+                    tail.limit(this.position).position(checkpoint.position);
+                    write(target, tail);
+                    target.force(true);
+                }
+
+                this.swap(compacted, lives.size() + this.records - checkpoint.records);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("redisson.delayqueue: compact the journal failed, file:" + this.file, e);
+        } finally {
+            try {
+                Files.deleteIfExists(compacted);
+            } catch (IOException ignored) {
+                // Best effort.
+            }
+        }
+    }
+
+    public synchronized long size() {
+        return this.position;
+    }
+
+    /**
+     * Under the journal lock.
+     */
+    private void swap(Path compacted, long records) throws IOException {
+        this.closeChannel();
+        Files.move(compacted, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        try {
+            this.channel = FileChannel.open(this.file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int size = (int) this.channel.size();
+            this.map(Math.max(this.segmentSize, size * 2));
+            this.position = size;
+            this.terminate();
+            this.records = records;
+        } catch (IOException e) {
+            throw new RuntimeException("redisson.delayqueue: reopen the compacted journal failed, file:" + this.file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            this.closeChannel();
+        } catch (IOException ignored) {
+            // Best effort.
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    private Map<String, Record> replay() {
+        Map<String, Record> lives = new LinkedHashMap<>();
+        ByteBuffer view = this.buffer.duplicate();
+        int offset = 0;
+        while (offset + HEADER_SIZE <= view.capacity()) {
+            int length = view.getInt(offset);
+            if (length <= 0 || offset + HEADER_SIZE + length > view.capacity()) {
+                break;
+            }
+
+            byte[] body = new byte[length];
+            view.position(offset + HEADER_SIZE);
+            view.get(body);
+            if (crc(body) != view.getInt(offset + 4)) {
+                break;
+            }
+
+            ByteBuffer record = ByteBuffer.wrap(body);
+            byte op = record.get();
+            long due = record.getLong();
+            byte[] id = new byte[record.getInt()];
+            record.get(id);
+            byte[] task = new byte[record.getInt()];
+            record.get(task);
+
+            String taskId = new String(id, StandardCharsets.UTF_8);
+            if (OP_OFFER == op) {
+                lives.remove(taskId);
+                lives.put(taskId, new Record(taskId, due, task));
+            } else {
+                lives.remove(taskId);
+            }
+
+            this.records++;
+            offset += HEADER_SIZE + length;
+        }
+
+        this.position = offset;
+        this.live = lives.size();
+        this.terminate();
+
+        return lives;
+    }
+
+    private void append(byte op, String taskId, long due, byte[] task) {
+        ByteBuffer encoded = encode(op, taskId, due, task);
+        int length = encoded.remaining();
+        if (this.position + length + 4 > this.buffer.capacity()) {
+            this.grow(this.position + length + 4);
+        }
+
+        ByteBuffer target = this.buffer.duplicate();
+        target.position(this.position);
+        target.put(encoded);
+        this.position += length;
+        this.terminate();
+
+        if (this.sync) {
+            this.buffer.force();
+        }
+    }
+
+    /**
+     * Zero the next length, so a replay never runs into stale bytes of a previous, longer file.
+     */
+    private void terminate() {
+        if (this.position + 4 <= this.buffer.capacity()) {
+            this.buffer.putInt(this.position, 0);
+        }
+    }
+
+    private void grow(long required) {
+        long size = this.buffer.capacity();
+        while (size < required) {
+            size = size * 2;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new RuntimeException("redisson.delayqueue: the journal is full, compact it, file:" + this.file);
+        }
+
+        try {
+            this.map((int) size);
+        } catch (IOException e) {
+            throw new RuntimeException("redisson.delayqueue: grow the journal failed, file:" + this.file, e);
+        }
+    }
+
+    /**
+     * Map {@code size} bytes, then unmap the previous mapping instead of waiting for the GC to release it.
+     */
+    private void map(int size) throws IOException {
+        MappedByteBuffer previous = this.buffer;
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        unmap(previous);
+    }
+
+    private void closeChannel() throws IOException {
+        if (null != this.buffer) {
+            this.buffer.force();
+            unmap(this.buffer);
+            this.buffer = null;
+        }
+        if (null != this.channel) {
+            this.channel.close();
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    private static ByteBuffer encode(byte op, String taskId, long due, byte[] task) {
+        byte[] id = taskId.getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 8 + 4 + id.length + 4 + task.length;
+
+        ByteBuffer body = ByteBuffer.allocate(length);
+        body.put(op).putLong(due).putInt(id.length).put(id).putInt(task.length).put(task);
+
+        ByteBuffer encoded = ByteBuffer.allocate(HEADER_SIZE + length);
+        encoded.putInt(length).putInt(crc(body.array())).put(body.array());
+        encoded.flip();
+
+        return encoded;
+    }
+
+    private static void write(FileChannel target, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+    /**
+     * Release a mapping now, the JDK only unmaps once the buffer is garbage collected:
+     * |- Java 9+: {@code sun.misc.Unsafe#invokeCleaner}.
+     * |- Java 8: {@code sun.nio.ch.DirectBuffer#cleaner().clean()}.
+     * <p>
+     * Best effort, left to the GC if neither is reachable. Callers must not touch the buffer(or its views) afterwards.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (null == buffer) {
+            return;
+        }
+
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+
+            return;
+        } catch (Exception ignored) {
+            // Java 8.
+        }
+
+        try {
+            Method cleaner = buffer.getClass().getMethod("cleaner");
+            cleaner.setAccessible(true);
+            Object clean = cleaner.invoke(buffer);
+            if (null != clean) {
+                clean.getClass().getMethod("clean").invoke(clean);
+            }
+        } catch (Exception ignored) {
+            // Left to the GC.
+        }
+    }
+
+    private static int crc(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+
+        return (int) crc.getValue();
+    }
+
+    // ----------------------------------------------------------------
+
+    public static class Checkpoint {
+
+        private final int position;
+        private final long records;
+
+        Checkpoint(int position, long records) {
+            this.position = position;
+            this.records = records;
+        }
+    }
+
+    public static class Record {
+
+        private final String taskId;
+        private final long due;
+        private final byte[] task;
+
+        public Record(String taskId, long due, byte[] task) {
+            this.taskId = taskId;
+            this.due = due;
+            this.task = task;
+        }
+
+        public String taskId() {
+            return this.taskId;
+        }
+
+        public long due() {
+            return this.due;
+        }
+
+        public byte[] task() {
+            return this.task;
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package io.github.photowey.redisson.delay.queue.core.pair;
 
+import io.github.photowey.redisson.delay.queue.core.engine.DelayedQueueEngine;
 import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
 import org.redisson.api.RBlockingDeque;
 import org.redisson.api.RDelayedQueue;
@@ -36,10 +37,19 @@ public class QueuePair implements Serializable {
     private String topic;
     RBlockingDeque<RedissonDelayedTask<?>> blockingQueue;
     RDelayedQueue<RedissonDelayedTask<?>> delayedQueue;
+    /**
+     * The storage of the topic, {@link #blockingQueue}/{@link #delayedQueue} are only set by the {@code RDelayedQueue} engine.
+     */
+    DelayedQueueEngine engine;
 
     // ----------------------------------------------------------------
 
     public void destroy() {
+        if (null != this.engine) {
+            this.engine.destroy();
+            return;
+        }
+
         this.delayedQueue.destroy();
     }
 
@@ -57,6 +67,10 @@ public class QueuePair implements Serializable {
         return this.delayedQueue;
     }
 
+    public DelayedQueueEngine engine() {
+        return this.engine;
+    }
+
     // ----------------------------------------------------------------
 
     public static QueuePairBuilder builder() {
@@ -75,6 +89,10 @@ public class QueuePair implements Serializable {
         return this.delayedQueue;
     }
 
+    public DelayedQueueEngine getEngine() {
+        return this.engine;
+    }
+
     public void setTopic(String topic) {
         this.topic = topic;
     }
@@ -87,6 +105,10 @@ public class QueuePair implements Serializable {
         this.delayedQueue = delayedQueue;
     }
 
+    public void setEngine(DelayedQueueEngine engine) {
+        this.engine = engine;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -98,31 +120,42 @@ public class QueuePair implements Serializable {
         QueuePair queuePair = (QueuePair) o;
         return Objects.equals(topic, queuePair.topic)
                 && Objects.equals(blockingQueue, queuePair.blockingQueue)
-                && Objects.equals(delayedQueue, queuePair.delayedQueue);
+                && Objects.equals(delayedQueue, queuePair.delayedQueue)
+                && Objects.equals(engine, queuePair.engine);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(topic, blockingQueue, delayedQueue);
+        return Objects.hash(topic, blockingQueue, delayedQueue, engine);
     }
 
     public String toString() {
-        return "QueuePair(topic=" + this.getTopic() + ", blockingQueue=" + this.getBlockingQueue() + ", delayedQueue=" + this.getDelayedQueue() + ")";
+        return "QueuePair(topic=" + this.getTopic() + ", blockingQueue=" + this.getBlockingQueue() + ", delayedQueue=" + this.getDelayedQueue() + ", engine=" + this.getEngine() + ")";
     }
 
     public QueuePair() {
     }
 
     public QueuePair(String topic, RBlockingDeque<RedissonDelayedTask<?>> blockingQueue, RDelayedQueue<RedissonDelayedTask<?>> delayedQueue) {
+        this(topic, blockingQueue, delayedQueue, null);
+    }
+
+    public QueuePair(
+            String topic,
+            RBlockingDeque<RedissonDelayedTask<?>> blockingQueue,
+            RDelayedQueue<RedissonDelayedTask<?>> delayedQueue,
+            DelayedQueueEngine engine) {
         this.topic = topic;
         this.blockingQueue = blockingQueue;
         this.delayedQueue = delayedQueue;
+        this.engine = engine;
     }
 
     public static class QueuePairBuilder {
         private String topic;
         private RBlockingDeque<RedissonDelayedTask<?>> blockingQueue;
         private RDelayedQueue<RedissonDelayedTask<?>> delayedQueue;
+        private DelayedQueueEngine engine;
 
         QueuePairBuilder() {
         }
@@ -142,12 +175,17 @@ public class QueuePair implements Serializable {
             return this;
         }
 
+        public QueuePairBuilder engine(DelayedQueueEngine engine) {
+            this.engine = engine;
+            return this;
+        }
+
         public QueuePair build() {
-            return new QueuePair(this.topic, this.blockingQueue, this.delayedQueue);
+            return new QueuePair(this.topic, this.blockingQueue, this.delayedQueue, this.engine);
         }
 
         public String toString() {
-            return "QueuePair.QueuePairBuilder(topic=" + this.topic + ", blockingQueue=" + this.blockingQueue + ", delayedQueue=" + this.delayedQueue + ")";
+            return "QueuePair.QueuePairBuilder(topic=" + this.topic + ", blockingQueue=" + this.blockingQueue + ", delayedQueue=" + this.delayedQueue + ", engine=" + this.engine + ")";
         }
     }
 }
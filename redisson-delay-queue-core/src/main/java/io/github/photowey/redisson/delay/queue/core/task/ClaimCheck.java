@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.task;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * {@code ClaimCheck}
+ * <p>
+ * The reference that travels through the queue in place of a large payload,
+ * the payload itself is stored once, aside, keyed by the taskId.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class ClaimCheck implements Serializable {
+
+    private static final long serialVersionUID = -2751043826910274451L;
+
+    private String taskId;
+    /**
+     * Serialized size of the payload, in bytes.
+     */
+    private int size;
+
+    // ----------------------------------------------------------------
+
+    public String taskId() {
+        return taskId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // ----------------------------------------------------------------
+
+    public String getTaskId() {
+        return this.taskId;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ClaimCheck that = (ClaimCheck) o;
+        return size == that.size && Objects.equals(taskId, that.taskId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(taskId, size);
+    }
+
+    public String toString() {
+        return "ClaimCheck(taskId=" + this.getTaskId() + ", size=" + this.getSize() + ")";
+    }
+
+    public ClaimCheck() {}
+
+    public ClaimCheck(String taskId, int size) {
+        this.taskId = taskId;
+        this.size = size;
+    }
+}
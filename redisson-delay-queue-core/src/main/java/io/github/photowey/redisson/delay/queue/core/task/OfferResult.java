@@ -0,0 +1,186 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.task;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * {@code OfferResult}
+ * <p>
+ * The per-task outcome of a batch offer, callers can retry the failed ones.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class OfferResult implements Serializable {
+
+    private static final long serialVersionUID = 3518427146702354961L;
+
+    private String topic;
+    private String taskId;
+    private boolean success;
+    private Throwable cause;
+
+    // ----------------------------------------------------------------
+
+    public static OfferResult succeed(RedissonDelayedTask<?> task) {
+        return OfferResult.builder()
+                .topic(task.topic())
+                .taskId(task.taskId())
+                .success(true)
+                .build();
+    }
+
+    public static OfferResult failed(RedissonDelayedTask<?> task, Throwable cause) {
+        return OfferResult.builder()
+                .topic(task.topic())
+                .taskId(task.taskId())
+                .success(false)
+                .cause(cause)
+                .build();
+    }
+
+    // ----------------------------------------------------------------
+
+    public String topic() {
+        return topic;
+    }
+
+    public String taskId() {
+        return taskId;
+    }
+
+    public boolean success() {
+        return success;
+    }
+
+    public boolean failed() {
+        return !success;
+    }
+
+    public Throwable cause() {
+        return cause;
+    }
+
+    // ----------------------------------------------------------------
+
+    public static OfferResultBuilder builder() {
+        return new OfferResultBuilder();
+    }
+
+    public String getTopic() {
+        return this.topic;
+    }
+
+    public String getTaskId() {
+        return this.taskId;
+    }
+
+    public boolean isSuccess() {
+        return this.success;
+    }
+
+    public Throwable getCause() {
+        return this.cause;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public void setCause(Throwable cause) {
+        this.cause = cause;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        OfferResult that = (OfferResult) o;
+        return success == that.success
+                && Objects.equals(topic, that.topic)
+                && Objects.equals(taskId, that.taskId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(topic, taskId, success);
+    }
+
+    public String toString() {
+        return "OfferResult(topic=" + this.getTopic() + ", taskId=" + this.getTaskId() + ", success=" + this.isSuccess() + ", cause=" + this.getCause() + ")";
+    }
+
+    public OfferResult() {}
+
+    public OfferResult(String topic, String taskId, boolean success, Throwable cause) {
+        this.topic = topic;
+        this.taskId = taskId;
+        this.success = success;
+        this.cause = cause;
+    }
+
+    public static class OfferResultBuilder {
+        private String topic;
+        private String taskId;
+        private boolean success;
+        private Throwable cause;
+
+        OfferResultBuilder() {}
+
+        public OfferResultBuilder topic(String topic) {
+            this.topic = topic;
+            return this;
+        }
+
+        public OfferResultBuilder taskId(String taskId) {
+            this.taskId = taskId;
+            return this;
+        }
+
+        public OfferResultBuilder success(boolean success) {
+            this.success = success;
+            return this;
+        }
+
+        public OfferResultBuilder cause(Throwable cause) {
+            this.cause = cause;
+            return this;
+        }
+
+        public OfferResult build() {
+            return new OfferResult(this.topic, this.taskId, this.success, this.cause);
+        }
+
+        public String toString() {
+            return "OfferResult.OfferResultBuilder(topic=" + this.topic + ", taskId=" + this.taskId + ", success=" + this.success + ", cause=" + this.cause + ")";
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package io.github.photowey.redisson.delay.queue.core.task;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
@@ -36,9 +37,24 @@ public class RedissonDelayedTask<P extends Serializable> implements Serializable
 
     private long delayed;
     private String timeUnit;
+    /**
+     * Due time(epoch millis), stamped on offer and carried to the consumer.
+     * |- 0: not stamped(offered by an older version), due on arrival.
+     */
+    private long dueAt;
 
     private P payload;
 
+    /**
+     * {@link #timeUnit} resolved once, not part of the serialized form.
+     */
+    private transient TimeUnit resolvedTimeUnit;
+    /**
+     * How early(millis) the engine hands the task out ahead of {@link #dueAt}, set by the timing wheel promotion.
+     * |- Only read by the engine on offer, not part of the serialized form.
+     */
+    private transient long lead;
+
     // ----------------------------------------------------------------
 
     public void checkDelayMillis(long max) {
@@ -48,6 +64,61 @@ public class RedissonDelayedTask<P extends Serializable> implements Serializable
         }
     }
 
+    /**
+     * Fire at an absolute time instead of after a relative delay, a time in the past fires right away.
+     *
+     * @param at the fire time
+     * @return this task
+     */
+    public RedissonDelayedTask<P> fireAt(Instant at) {
+        long dueAt = at.toEpochMilli();
+        this.setDelayed(Math.max(dueAt - System.currentTimeMillis(), 0));
+        this.setTimeUnit(TimeUnit.MILLISECONDS.name());
+        this.dueAt = dueAt;
+
+        return this;
+    }
+
+    /**
+     * A copy stamped to fire at an absolute time, the task itself is left as is.
+     *
+     * @param at the fire time, a time in the past fires right away
+     * @return the stamped copy
+     */
+    public RedissonDelayedTask<P> stampAt(Instant at) {
+        long dueAt = at.toEpochMilli();
+        long delayed = Math.max(dueAt - System.currentTimeMillis(), 0);
+
+        return new RedissonDelayedTask<>(this.topic, this.taskId, delayed, TimeUnit.MILLISECONDS.name(), dueAt, this.payload);
+    }
+
+    /**
+     * A copy stamped with its due time, computed from the relative delay unless already set(e.g. by {@link #fireAt(Instant)}).
+     * <p>
+     * The task itself is left as is: offered again(e.g. a retried batch failure), it is stamped afresh.
+     *
+     * @return the stamped copy
+     */
+    public RedissonDelayedTask<P> stamp() {
+        long dueAt = this.dueAt > 0 ? this.dueAt : System.currentTimeMillis() + this.determineTimeUnit().toMillis(this.delayed);
+
+        return new RedissonDelayedTask<>(this.topic, this.taskId, this.delayed, this.timeUnit, dueAt, this.payload);
+    }
+
+    /**
+     * When the engine should hand the task out: the due time less the promotion lead.
+     * |- Unstamped: now plus the relative delay.
+     *
+     * @return the release time(epoch millis)
+     */
+    public long releaseAt() {
+        if (this.dueAt <= 0) {
+            return System.currentTimeMillis() + this.determineTimeUnit().toMillis(this.delayed);
+        }
+
+        return this.dueAt - this.lead;
+    }
+
     // ----------------------------------------------------------------
 
     public TimeUnit determineTimeUnit() {
@@ -59,7 +130,13 @@ public class RedissonDelayedTask<P extends Serializable> implements Serializable
             return fx.get();
         }
 
-        return TimeUnit.valueOf(this.timeUnit);
+        TimeUnit resolved = this.resolvedTimeUnit;
+        if (null == resolved) {
+            resolved = TimeUnit.valueOf(this.timeUnit);
+            this.resolvedTimeUnit = resolved;
+        }
+
+        return resolved;
     }
 
     // ----------------------------------------------------------------
@@ -68,6 +145,22 @@ public class RedissonDelayedTask<P extends Serializable> implements Serializable
         return delayed;
     }
 
+    public long dueAt() {
+        return dueAt;
+    }
+
+    public void dueAt(long dueAt) {
+        this.dueAt = dueAt;
+    }
+
+    public long lead() {
+        return lead;
+    }
+
+    public void lead(long lead) {
+        this.lead = lead;
+    }
+
     public void topic(String topic) {
         this.topic = topic;
     }
@@ -90,6 +183,15 @@ public class RedissonDelayedTask<P extends Serializable> implements Serializable
         return (T) this.payload();
     }
 
+    public TaskContext<P> toTaskContext() {
+        return TaskContext.<P>builder()
+                .topic(this.topic())
+                .taskId(this.taskId())
+                .dueAt(this.dueAt())
+                .payload(this.payload())
+                .build();
+    }
+
     // ----------------------------------------------------------------
 
     @Override
@@ -102,6 +204,7 @@ public class RedissonDelayedTask<P extends Serializable> implements Serializable
         }
         RedissonDelayedTask<?> that = (RedissonDelayedTask<?>) o;
         return delayed == that.delayed
+                && dueAt == that.dueAt
                 && Objects.equals(topic, that.topic)
                 && Objects.equals(taskId, that.taskId)
                 && Objects.equals(timeUnit, that.timeUnit)
@@ -110,7 +213,7 @@ public class RedissonDelayedTask<P extends Serializable> implements Serializable
 
     @Override
     public int hashCode() {
-        return Objects.hash(topic, taskId, delayed, timeUnit, payload);
+        return Objects.hash(topic, taskId, delayed, timeUnit, dueAt, payload);
     }
 
     // ----------------------------------------------------------------
@@ -135,6 +238,10 @@ public class RedissonDelayedTask<P extends Serializable> implements Serializable
         return this.timeUnit;
     }
 
+    public long getDueAt() {
+        return this.dueAt;
+    }
+
     public P getPayload() {
         return this.payload;
     }
@@ -153,6 +260,11 @@ public class RedissonDelayedTask<P extends Serializable> implements Serializable
 
     public void setTimeUnit(String timeUnit) {
         this.timeUnit = timeUnit;
+        this.resolvedTimeUnit = null;
+    }
+
+    public void setDueAt(long dueAt) {
+        this.dueAt = dueAt;
     }
 
     public void setPayload(P payload) {
@@ -169,11 +281,17 @@ public class RedissonDelayedTask<P extends Serializable> implements Serializable
         this.payload = payload;
     }
 
+    public RedissonDelayedTask(String topic, String taskId, long delayed, String timeUnit, long dueAt, P payload) {
+        this(topic, taskId, delayed, timeUnit, payload);
+        this.dueAt = dueAt;
+    }
+
     public static class RedissonDelayedTaskBuilder<P extends Serializable> {
         private String topic;
         private String taskId;
         private long delayed;
         private String timeUnit;
+        private long dueAt;
         private P payload;
 
         RedissonDelayedTaskBuilder() {
@@ -199,17 +317,22 @@ public class RedissonDelayedTask<P extends Serializable> implements Serializable
             return this;
         }
 
+        public RedissonDelayedTaskBuilder<P> dueAt(long dueAt) {
+            this.dueAt = dueAt;
+            return this;
+        }
+
         public RedissonDelayedTaskBuilder<P> payload(P payload) {
             this.payload = payload;
             return this;
         }
 
         public RedissonDelayedTask<P> build() {
-            return new RedissonDelayedTask(this.topic, this.taskId, this.delayed, this.timeUnit, this.payload);
+            return new RedissonDelayedTask(this.topic, this.taskId, this.delayed, this.timeUnit, this.dueAt, this.payload);
         }
 
         public String toString() {
-            return "RedissonDelayedTask.RedissonDelayedTaskBuilder(topic=" + this.topic + ", taskId=" + this.taskId + ", delayed=" + this.delayed + ", timeUnit=" + this.timeUnit + ", payload=" + this.payload + ")";
+            return "RedissonDelayedTask.RedissonDelayedTaskBuilder(topic=" + this.topic + ", taskId=" + this.taskId + ", delayed=" + this.delayed + ", timeUnit=" + this.timeUnit + ", dueAt=" + this.dueAt + ", payload=" + this.payload + ")";
         }
     }
 }
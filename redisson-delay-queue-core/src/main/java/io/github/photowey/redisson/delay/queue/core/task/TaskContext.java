@@ -31,6 +31,11 @@ public class TaskContext<P extends Serializable> implements Serializable {
 
     private String topic;
     private String taskId;
+    /**
+     * Due time(epoch millis) of the task.
+     * |- 0: unknown, offered by an older version.
+     */
+    private long dueAt;
     private P payload;
 
     // ----------------------------------------------------------------
@@ -43,10 +48,27 @@ public class TaskContext<P extends Serializable> implements Serializable {
         return taskId;
     }
 
+    public long dueAt() {
+        return dueAt;
+    }
+
     public P payload() {
         return payload;
     }
 
+    /**
+     * How late the task is, measured now.
+     *
+     * @return the milliseconds past the due time, 0 if on time or the due time is unknown
+     */
+    public long lateness() {
+        if (this.dueAt <= 0) {
+            return 0;
+        }
+
+        return Math.max(System.currentTimeMillis() - this.dueAt, 0);
+    }
+
     // ----------------------------------------------------------------
 
     public static <P extends Serializable> TaskContextBuilder<P> builder() {
@@ -61,6 +83,10 @@ public class TaskContext<P extends Serializable> implements Serializable {
         return this.taskId;
     }
 
+    public long getDueAt() {
+        return this.dueAt;
+    }
+
     public P getPayload() {
         return this.payload;
     }
@@ -73,6 +99,10 @@ public class TaskContext<P extends Serializable> implements Serializable {
         this.taskId = taskId;
     }
 
+    public void setDueAt(long dueAt) {
+        this.dueAt = dueAt;
+    }
+
     public void setPayload(P payload) {
         this.payload = payload;
     }
@@ -86,31 +116,38 @@ public class TaskContext<P extends Serializable> implements Serializable {
             return false;
         }
         TaskContext<?> that = (TaskContext<?>) o;
-        return Objects.equals(topic, that.topic)
+        return dueAt == that.dueAt
+                && Objects.equals(topic, that.topic)
                 && Objects.equals(taskId, that.taskId)
                 && Objects.equals(payload, that.payload);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(topic, taskId, payload);
+        return Objects.hash(topic, taskId, dueAt, payload);
     }
 
     public String toString() {
-        return "TaskContext(topic=" + this.getTopic() + ", taskId=" + this.getTaskId() + ", payload=" + this.getPayload() + ")";
+        return "TaskContext(topic=" + this.getTopic() + ", taskId=" + this.getTaskId() + ", dueAt=" + this.getDueAt() + ", payload=" + this.getPayload() + ")";
     }
 
     public TaskContext() {}
 
     public TaskContext(String topic, String taskId, P payload) {
+        this(topic, taskId, 0, payload);
+    }
+
+    public TaskContext(String topic, String taskId, long dueAt, P payload) {
         this.topic = topic;
         this.taskId = taskId;
+        this.dueAt = dueAt;
         this.payload = payload;
     }
 
     public static class TaskContextBuilder<P extends Serializable> {
         private String topic;
         private String taskId;
+        private long dueAt;
         private P payload;
 
         TaskContextBuilder() {}
@@ -125,17 +162,22 @@ public class TaskContext<P extends Serializable> implements Serializable {
             return this;
         }
 
+        public TaskContextBuilder<P> dueAt(long dueAt) {
+            this.dueAt = dueAt;
+            return this;
+        }
+
         public TaskContextBuilder<P> payload(P payload) {
             this.payload = payload;
             return this;
         }
 
         public TaskContext<P> build() {
-            return new TaskContext(this.topic, this.taskId, this.payload);
+            return new TaskContext(this.topic, this.taskId, this.dueAt, this.payload);
         }
 
         public String toString() {
-            return "TaskContext.TaskContextBuilder(topic=" + this.topic + ", taskId=" + this.taskId + ", payload=" + this.payload + ")";
+            return "TaskContext.TaskContextBuilder(topic=" + this.topic + ", taskId=" + this.taskId + ", dueAt=" + this.dueAt + ", payload=" + this.payload + ")";
         }
     }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.wheel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@code HierarchicalTimingWheel}
+ * <p>
+ * An in-process timer for large amounts of short timers:
+ * |- O(1) schedule and cancel, the wheels hash entries into buckets by expiration.
+ * |- Only non-empty buckets are put into a {@code DelayQueue}, so an idle wheel does not tick.
+ * <p>
+ * One reaper thread advances the clock and moves the entries of each expired bucket down the hierarchy,
+ * the due ones are run on the {@code executor}, never on the reaper thread itself.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+public class HierarchicalTimingWheel {
+
+    private static final long ADVANCE_TIMEOUT_MILLIS = 200;
+
+    private final Executor executor;
+    private final DelayQueue<TimerTaskList> queue = new DelayQueue<>();
+    private final AtomicInteger counter = new AtomicInteger(0);
+    private final TimingWheel wheel;
+    private final Thread reaper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+
+    public HierarchicalTimingWheel(long tickMillis, int size, Executor executor, ThreadFactory threadFactory) {
+        this.executor = executor;
+        this.wheel = new TimingWheel(Math.max(tickMillis, 1), Math.max(size, 2), TimingWheel.now(), this.counter, this.queue);
+        this.reaper = threadFactory.newThread(this::reap);
+        this.reaper.start();
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Run {@code task} on the executor after {@code delayMillis}.
+     *
+     * @param task        the task
+     * @param delayMillis the delay, runs right away if not positive
+     * @return the handle to cancel it
+     * @throws RejectedExecutionException if stopped
+     */
+    public Runnable schedule(Runnable task, long delayMillis) {
+        TimerTaskEntry entry = new TimerTaskEntry(TimingWheel.now() + Math.max(delayMillis, 0), task);
+
+        this.lock.readLock().lock();
+        try {
+            if (!this.running) {
+                throw new RejectedExecutionException("redisson.delayqueue: the timing wheel is stopped");
+            }
+            if (delayMillis > 0) {
+                this.add(entry);
+            } else {
+                // The wheel clock only advances while the reaper runs, it may lag a tick behind now.
+                this.executor.execute(task);
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        return entry::cancel;
+    }
+
+    /**
+     * @return the number of pending timers
+     */
+    public int size() {
+        return this.counter.get();
+    }
+
+    /**
+     * Stop the reaper and take the pending timers out, none of them runs afterwards.
+     *
+     * @return the tasks of the pending, not cancelled timers
+     */
+    public List<Runnable> stop() {
+        this.running = false;
+        this.reaper.interrupt();
+        try {
+            this.reaper.join(ADVANCE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Runnable> pending = new ArrayList<>(this.size());
+        this.lock.writeLock().lock();
+        try {
+            // Every non-empty bucket of every level is queued.
+            for (TimerTaskList bucket : this.queue.toArray(new TimerTaskList[0])) {
+                bucket.flush((entry) -> {
+                    if (!entry.cancelled()) {
+                        pending.add(entry.task);
+                    }
+                });
+            }
+            this.queue.clear();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        return pending;
+    }
+
+    // ----------------------------------------------------------------
+
+    private void reap() {
+        while (this.running) {
+            try {
+                this.advance(ADVANCE_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void advance(long timeoutMillis) throws InterruptedException {
+        TimerTaskList bucket = this.queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (null == bucket) {
+            return;
+        }
+
+        this.lock.writeLock().lock();
+        try {
+            while (null != bucket) {
+                this.wheel.advance(bucket.expiration());
+                // Re-insert: lands in a lower wheel, or runs if due.
+                bucket.flush(this::add);
+                bucket = this.queue.poll();
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private void add(TimerTaskEntry entry) {
+        if (this.wheel.add(entry) || entry.cancelled()) {
+            return;
+        }
+
+        try {
+            this.executor.execute(entry.task);
+        } catch (RejectedExecutionException ignored) {
+            // Stopped, drop it.
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.wheel;
+
+/**
+ * {@code TimerTaskEntry}
+ * <p>
+ * A node of {@link TimerTaskList}, moves down the wheels as its expiration gets closer.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+class TimerTaskEntry {
+
+    final long expiration;
+    final Runnable task;
+
+    volatile TimerTaskList list;
+    TimerTaskEntry next;
+    TimerTaskEntry prev;
+
+    private volatile boolean cancelled;
+
+    TimerTaskEntry(long expiration, Runnable task) {
+        this.expiration = expiration;
+        this.task = task;
+    }
+
+    // ----------------------------------------------------------------
+
+    boolean cancelled() {
+        return this.cancelled;
+    }
+
+    void cancel() {
+        this.cancelled = true;
+        this.remove();
+    }
+
+    void remove() {
+        TimerTaskList current = this.list;
+        // The entry may be moved to another list concurrently, retry until it is detached.
+        while (null != current) {
+            current.remove(this);
+            current = this.list;
+        }
+    }
+}
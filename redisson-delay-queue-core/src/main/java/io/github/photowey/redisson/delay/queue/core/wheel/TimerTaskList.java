@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.wheel;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * {@code TimerTaskList}
+ * <p>
+ * A bucket of one wheel: a circular doubly linked list of entries expiring within the same tick.
+ * Only buckets are put into the {@code DelayQueue}, never single entries.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+class TimerTaskList implements Delayed {
+
+    private final AtomicInteger counter;
+    private final TimerTaskEntry root = new TimerTaskEntry(-1, null);
+    private final AtomicLong expiration = new AtomicLong(-1);
+
+    TimerTaskList(AtomicInteger counter) {
+        this.counter = counter;
+        this.root.next = this.root;
+        this.root.prev = this.root;
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * @return true if the expiration changed, i.e. the bucket must be (re)queued
+     */
+    boolean expiration(long expiration) {
+        return this.expiration.getAndSet(expiration) != expiration;
+    }
+
+    long expiration() {
+        return this.expiration.get();
+    }
+
+    // ----------------------------------------------------------------
+
+    void add(TimerTaskEntry entry) {
+        boolean done = false;
+        while (!done) {
+            // Detach from its previous list first, outside of this lock to avoid a lock order issue.
+            entry.remove();
+
+            synchronized (this) {
+                synchronized (entry) {
+                    if (null == entry.list) {
+                        TimerTaskEntry tail = this.root.prev;
+                        entry.next = this.root;
+                        entry.prev = tail;
+                        entry.list = this;
+                        tail.next = entry;
+                        this.root.prev = entry;
+                        this.counter.incrementAndGet();
+                        done = true;
+                    }
+                }
+            }
+        }
+    }
+
+    synchronized void remove(TimerTaskEntry entry) {
+        synchronized (entry) {
+            if (entry.list == this) {
+                entry.next.prev = entry.prev;
+                entry.prev.next = entry.next;
+                entry.next = null;
+                entry.prev = null;
+                entry.list = null;
+                this.counter.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Remove every entry and hand it to {@code fx}, then reset the expiration.
+     */
+    synchronized void flush(Consumer<TimerTaskEntry> fx) {
+        TimerTaskEntry head = this.root.next;
+        while (head != this.root) {
+            this.remove(head);
+            fx.accept(head);
+            head = this.root.next;
+        }
+
+        this.expiration.set(-1);
+    }
+
+    // ----------------------------------------------------------------
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(Math.max(this.expiration() - TimingWheel.now(), 0), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed that) {
+        return Long.compare(this.expiration(), ((TimerTaskList) that).expiration());
+    }
+}
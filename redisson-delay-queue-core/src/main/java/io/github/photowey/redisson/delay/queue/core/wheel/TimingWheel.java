@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.wheel;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code TimingWheel}
+ * <p>
+ * One level of the hierarchy: {@code size} buckets of {@code tick} millis each.
+ * Entries beyond the span of this level go to a lazily created overflow wheel,
+ * whose tick is the whole span of this one.
+ * <p>
+ * Not thread-safe on its own: adds run under the read lock and {@link #advance(long)} under the write lock
+ * of {@link HierarchicalTimingWheel}.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+class TimingWheel {
+
+    private final long tick;
+    private final int size;
+    private final long interval;
+    private final AtomicInteger counter;
+    private final DelayQueue<TimerTaskList> queue;
+    private final TimerTaskList[] buckets;
+
+    /**
+     * Rounded down to a multiple of {@code tick}.
+     */
+    private volatile long currentTime;
+    private volatile TimingWheel overflow;
+
+    TimingWheel(long tick, int size, long startMs, AtomicInteger counter, DelayQueue<TimerTaskList> queue) {
+        this.tick = tick;
+        this.size = size;
+        this.interval = tick * size;
+        this.counter = counter;
+        this.queue = queue;
+        this.buckets = new TimerTaskList[size];
+        for (int i = 0; i < size; i++) {
+            this.buckets[i] = new TimerTaskList(counter);
+        }
+
+        this.currentTime = startMs - (startMs % tick);
+    }
+
+    // ----------------------------------------------------------------
+
+    static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * @return false if the entry is cancelled or already expired, i.e. must run now
+     */
+    boolean add(TimerTaskEntry entry) {
+        long expiration = entry.expiration;
+        if (entry.cancelled()) {
+            return false;
+        }
+        if (expiration < this.currentTime + this.tick) {
+            return false;
+        }
+        if (expiration < this.currentTime + this.interval) {
+            long virtualId = expiration / this.tick;
+            TimerTaskList bucket = this.buckets[(int) (virtualId % this.size)];
+            bucket.add(entry);
+
+            // Queue the bucket only when it gets a new expiration, once per round.
+            if (bucket.expiration(virtualId * this.tick)) {
+                this.queue.offer(bucket);
+            }
+
+            return true;
+        }
+
+        return this.overflow().add(entry);
+    }
+
+    void advance(long timeMs) {
+        if (timeMs >= this.currentTime + this.tick) {
+            this.currentTime = timeMs - (timeMs % this.tick);
+
+            TimingWheel overflow = this.overflow;
+            if (null != overflow) {
+                overflow.advance(this.currentTime);
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    private TimingWheel overflow() {
+        if (null == this.overflow) {
+            synchronized (this) {
+                if (null == this.overflow) {
+                    this.overflow = new TimingWheel(this.interval, this.size, this.currentTime, this.counter, this.queue);
+                }
+            }
+        }
+
+        return this.overflow;
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.codec;
+
+import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.SerializationCodec;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code CompactTaskCodecTest}
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+class CompactTaskCodecTest {
+
+    private static final String TOPIC = "io.github.photowey.delayed.queue.codec";
+    private static final String JDK_TOPIC = "io.github.photowey.delayed.queue.codec.jdk";
+    private static final int THRESHOLD = 64;
+
+    private static final int FLAGS = 2;
+    private static final int FLAG_COMPRESSED = 1 << 1;
+
+    private final CompactTaskCodec compressing = new CompactTaskCodec(
+            new SerializationCodec(),
+            Collections.singletonList(string()),
+            "string",
+            Collections.emptyMap(),
+            Collections.singletonList(new DeflatePayloadCompressor(6)),
+            DeflatePayloadCompressor.NAME,
+            THRESHOLD
+    );
+
+    private final CompactTaskCodec plain = new CompactTaskCodec(
+            new SerializationCodec(),
+            Arrays.asList(string(), jdk()),
+            "string",
+            Collections.singletonMap(JDK_TOPIC, "jdk")
+    );
+
+    // ----------------------------------------------------------------
+
+    @Test
+    void testVarintEdges() throws IOException {
+        for (long delayed : new long[]{0, 1, -1, 63, -64, 64, 127, 128, -129, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1}) {
+            RedissonDelayedTask<String> task = new RedissonDelayedTask<>(TOPIC, "10086", delayed, TimeUnit.MILLISECONDS.name(), "x");
+
+            Assertions.assertEquals(task, decode(this.plain, encode(this.plain, task)), "delayed:" + delayed);
+        }
+
+        for (long dueAt : new long[]{1, 127, 128, System.currentTimeMillis(), Long.MAX_VALUE}) {
+            RedissonDelayedTask<String> task = new RedissonDelayedTask<>(TOPIC, "10086", 5, TimeUnit.SECONDS.name(), dueAt, "x");
+
+            Assertions.assertEquals(task, decode(this.plain, encode(this.plain, task)), "dueAt:" + dueAt);
+        }
+    }
+
+    @Test
+    void testNulls() throws IOException {
+        RedissonDelayedTask<String> nullPayload = new RedissonDelayedTask<>(TOPIC, "10086", 5, TimeUnit.SECONDS.name(), null);
+        Assertions.assertEquals(nullPayload, decode(this.plain, encode(this.plain, nullPayload)));
+
+        RedissonDelayedTask<String> nullTimeUnit = new RedissonDelayedTask<>(TOPIC, "10086", 5, null, "x");
+        RedissonDelayedTask<?> decoded = (RedissonDelayedTask<?>) decode(this.plain, encode(this.plain, nullTimeUnit));
+        Assertions.assertNull(decoded.getTimeUnit());
+        Assertions.assertEquals(nullTimeUnit, decoded);
+
+        RedissonDelayedTask<String> nullTopic = new RedissonDelayedTask<>(null, "", 5, TimeUnit.DAYS.name(), "");
+        Assertions.assertEquals(nullTopic, decode(this.plain, encode(this.plain, nullTopic)));
+    }
+
+    @Test
+    void testUnicode() throws IOException {
+        RedissonDelayedTask<String> task = new RedissonDelayedTask<>("订单.created", "任务-1", 5, TimeUnit.SECONDS.name(), "负载✓");
+
+        Assertions.assertEquals(task, decode(this.plain, encode(this.plain, task)));
+    }
+
+    @Test
+    void testPerTopicSerializer() throws IOException {
+        RedissonDelayedTask<Long> jdkTask = new RedissonDelayedTask<>(JDK_TOPIC, "10086", 5, TimeUnit.SECONDS.name(), 10086L);
+        byte[] frame = encode(this.plain, jdkTask);
+        Assertions.assertEquals(jdkTask, decode(this.plain, frame));
+
+        // The serializer id travels in the envelope: readable after the topic switches serializers.
+        Map<String, String> switched = new HashMap<>();
+        switched.put(JDK_TOPIC, "string");
+        CompactTaskCodec reader = new CompactTaskCodec(new SerializationCodec(), Arrays.asList(string(), jdk()), "string", switched);
+        Assertions.assertEquals(jdkTask, decode(reader, frame));
+
+        // Not registered on this node.
+        CompactTaskCodec unaware = new CompactTaskCodec(
+                new SerializationCodec(), Collections.singletonList(string()), "string", Collections.emptyMap());
+        IOException e = Assertions.assertThrows(IOException.class, () -> decode(unaware, frame));
+        Assertions.assertTrue(e.getMessage().contains("unknown payload serializer id:2"), e.getMessage());
+    }
+
+    @Test
+    void testMisconfiguredSerializers() {
+        Assertions.assertThrows(RuntimeException.class, () -> new CompactTaskCodec(
+                new SerializationCodec(), Collections.singletonList(string()), "kryo", Collections.emptyMap()));
+        Assertions.assertThrows(RuntimeException.class, () -> new CompactTaskCodec(
+                new SerializationCodec(),
+                Arrays.asList(string(), new CodecPayloadSerializer((byte) 1, "other", StringCodec.INSTANCE)),
+                "string",
+                Collections.emptyMap()));
+    }
+
+    @Test
+    void testFallback() throws IOException {
+        RedissonDelayedTask<String> task = task("x");
+        SerializationCodec fallback = new SerializationCodec();
+
+        // Written before the switch: no magic byte, read through the fallback codec.
+        ByteBuf old = fallback.getValueEncoder().encode(task);
+        try {
+            byte[] bytes = new byte[old.readableBytes()];
+            old.readBytes(bytes);
+            Assertions.assertNotEquals((byte) 0xD7, bytes[0]);
+            Assertions.assertEquals(task, decode(this.plain, bytes));
+        } finally {
+            old.release();
+        }
+
+        // Anything but a task goes through the fallback both ways.
+        Assertions.assertEquals("10086", decode(this.plain, encode(this.plain, "10086")));
+    }
+
+    @Test
+    void testUnsupportedVersion() throws IOException {
+        byte[] frame = encode(this.plain, task("x"));
+        frame[1] = 2;
+
+        Assertions.assertThrows(IOException.class, () -> decode(this.plain, frame));
+    }
+
+    @Test
+    void testBelowThreshold() throws IOException {
+        RedissonDelayedTask<String> task = task(repeat('a', THRESHOLD - 1));
+        byte[] frame = encode(this.compressing, task);
+
+        Assertions.assertEquals(0, frame[FLAGS] & FLAG_COMPRESSED);
+        Assertions.assertEquals(task, decode(this.compressing, frame));
+        Assertions.assertTrue(this.compressing.compressionStats().isEmpty());
+    }
+
+    @Test
+    void testAtThreshold() throws IOException {
+        RedissonDelayedTask<String> task = task(repeat('a', THRESHOLD));
+        byte[] frame = encode(this.compressing, task);
+
+        Assertions.assertEquals(FLAG_COMPRESSED, frame[FLAGS] & FLAG_COMPRESSED);
+        Assertions.assertEquals(task, decode(this.compressing, frame));
+
+        CompressionStats stats = this.compressing.compressionStats().get(TOPIC);
+        Assertions.assertEquals(1, stats.compressed());
+        Assertions.assertEquals(0, stats.skipped());
+        Assertions.assertEquals(THRESHOLD, stats.rawBytes());
+        Assertions.assertEquals(1, stats.decompressed());
+    }
+
+    @Test
+    void testAboveThreshold() throws IOException {
+        RedissonDelayedTask<String> task = task(repeat('a', 10 * THRESHOLD));
+        byte[] frame = encode(this.compressing, task);
+
+        Assertions.assertEquals(FLAG_COMPRESSED, frame[FLAGS] & FLAG_COMPRESSED);
+        Assertions.assertTrue(frame.length < 2 * THRESHOLD, "frame:" + frame.length);
+        Assertions.assertEquals(task, decode(this.compressing, frame));
+
+        CompressionStats stats = this.compressing.compressionStats().get(TOPIC);
+        Assertions.assertTrue(stats.ratio() < 0.1D, "ratio:" + stats.ratio());
+    }
+
+    @Test
+    void testNotSmallerKeepsRaw() throws IOException {
+        CompactTaskCodec codec = new CompactTaskCodec(
+                new SerializationCodec(),
+                Collections.singletonList(string()),
+                "string",
+                Collections.emptyMap(),
+                Collections.singletonList(new DeflatePayloadCompressor(6)),
+                DeflatePayloadCompressor.NAME,
+                1
+        );
+
+        // A single byte deflates to more than one byte.
+        RedissonDelayedTask<String> task = task("a");
+        byte[] frame = encode(codec, task);
+
+        Assertions.assertEquals(0, frame[FLAGS] & FLAG_COMPRESSED);
+        Assertions.assertEquals(task, decode(codec, frame));
+
+        CompressionStats stats = codec.compressionStats().get(TOPIC);
+        Assertions.assertEquals(0, stats.compressed());
+        Assertions.assertEquals(1, stats.skipped());
+        Assertions.assertEquals(0, stats.decompressed());
+    }
+
+    @Test
+    void testStatsListener() throws IOException {
+        CompressionStats[] bound = new CompressionStats[1];
+        this.compressing.statsListener((stats) -> bound[0] = stats);
+
+        encode(this.compressing, task(repeat('a', THRESHOLD)));
+        Assertions.assertSame(this.compressing.compressionStats().get(TOPIC), bound[0]);
+
+        bound[0] = null;
+        encode(this.compressing, task(repeat('a', THRESHOLD)));
+        Assertions.assertNull(bound[0]);
+    }
+
+    // ----------------------------------------------------------------
+
+    static PayloadSerializer string() {
+        return new CodecPayloadSerializer((byte) 1, "string", StringCodec.INSTANCE);
+    }
+
+    static PayloadSerializer jdk() {
+        return new CodecPayloadSerializer((byte) 2, "jdk", new SerializationCodec());
+    }
+
+    static RedissonDelayedTask<String> task(String payload) {
+        return new RedissonDelayedTask<>(TOPIC, "10086", 5, TimeUnit.SECONDS.name(), payload);
+    }
+
+    static byte[] encode(CompactTaskCodec codec, Object value) throws IOException {
+        ByteBuf buf = codec.getValueEncoder().encode(value);
+        try {
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+
+            return bytes;
+        } finally {
+            buf.release();
+        }
+    }
+
+    static Object decode(CompactTaskCodec codec, byte[] bytes) throws IOException {
+        return codec.getValueDecoder().decode(Unpooled.wrappedBuffer(bytes), null);
+    }
+
+    private static String repeat(char value, int times) {
+        char[] chars = new char[times];
+        Arrays.fill(chars, value);
+
+        return new String(chars);
+    }
+}
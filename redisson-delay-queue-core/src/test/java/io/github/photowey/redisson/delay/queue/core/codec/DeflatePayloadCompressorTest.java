@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.codec;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * {@code DeflatePayloadCompressorTest}
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+class DeflatePayloadCompressorTest {
+
+    private final DeflatePayloadCompressor compressor = new DeflatePayloadCompressor(6);
+
+    @Test
+    void testRoundTrip() throws IOException {
+        byte[] repetitive = repeat("{\"orderId\":10086,\"status\":\"CREATED\"}", 200);
+        byte[] compressed = this.compressor.compress(repetitive);
+        Assertions.assertTrue(compressed.length < repetitive.length / 10, "compressed:" + compressed.length);
+        Assertions.assertArrayEquals(repetitive, this.compressor.decompress(compressed, repetitive.length));
+
+        byte[] random = new byte[10_000];
+        new Random(7).nextBytes(random);
+        Assertions.assertArrayEquals(random, this.compressor.decompress(this.compressor.compress(random), random.length));
+
+        byte[] empty = new byte[0];
+        Assertions.assertArrayEquals(empty, this.compressor.decompress(this.compressor.compress(empty), 0));
+    }
+
+    @Test
+    void testTruncated() {
+        byte[] payload = repeat("delayed", 100);
+        byte[] compressed = this.compressor.compress(payload);
+
+        Assertions.assertThrows(IOException.class, () -> this.compressor.decompress(compressed, payload.length + 1));
+        Assertions.assertThrows(IOException.class,
+                () -> this.compressor.decompress(Arrays.copyOf(compressed, compressed.length / 2), payload.length));
+    }
+
+    @Test
+    void testCorrupted() {
+        byte[] corrupted = new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF};
+
+        Assertions.assertThrows(IOException.class, () -> this.compressor.decompress(corrupted, 16));
+    }
+
+    private static byte[] repeat(String value, int times) {
+        StringBuilder builder = new StringBuilder(value.length() * times);
+        for (int i = 0; i < times; i++) {
+            builder.append(value);
+        }
+
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.journal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code TaskJournalTest}
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+class TaskJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testReplay() {
+        Path file = this.dir.resolve("replay.journal");
+        try (TaskJournal journal = new TaskJournal(file, SEGMENT_SIZE, false)) {
+            Assertions.assertTrue(journal.open().isEmpty());
+            journal.offer("1", 100, bytes("one"), false);
+            journal.offer("2", 200, bytes("two"), false);
+            journal.offer("3", 300, bytes("three"), false);
+            journal.remove("2");
+            journal.offer("1", 150, bytes("one again"), true);
+        }
+
+        try (TaskJournal journal = new TaskJournal(file, SEGMENT_SIZE, false)) {
+            Map<String, TaskJournal.Record> lives = journal.open();
+            Assertions.assertEquals(Arrays.asList("3", "1"), new ArrayList<>(lives.keySet()));
+            Assertions.assertEquals(150, lives.get("1").due());
+            Assertions.assertArrayEquals(bytes("one again"), lives.get("1").task());
+            Assertions.assertEquals(300, lives.get("3").due());
+        }
+    }
+
+    @Test
+    void testTornTail() throws IOException {
+        Path file = this.dir.resolve("torn.journal");
+        long intact;
+        try (TaskJournal journal = new TaskJournal(file, SEGMENT_SIZE, false)) {
+            journal.open();
+            journal.offer("1", 100, bytes("one"), false);
+            intact = journal.size();
+            journal.offer("2", 200, bytes("two"), false);
+        }
+
+        // A crash in the middle of the second append.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(intact + 11);
+        }
+
+        try (TaskJournal journal = new TaskJournal(file, SEGMENT_SIZE, false)) {
+            Assertions.assertEquals(Arrays.asList("1"), new ArrayList<>(journal.open().keySet()));
+            Assertions.assertEquals(intact, journal.size());
+            journal.offer("3", 300, bytes("three"), false);
+        }
+
+        try (TaskJournal journal = new TaskJournal(file, SEGMENT_SIZE, false)) {
+            Assertions.assertEquals(Arrays.asList("1", "3"), new ArrayList<>(journal.open().keySet()));
+        }
+    }
+
+    @Test
+    void testCrcMismatch() throws IOException {
+        Path file = this.dir.resolve("crc.journal");
+        long intact;
+        try (TaskJournal journal = new TaskJournal(file, SEGMENT_SIZE, false)) {
+            journal.open();
+            journal.offer("1", 100, bytes("one"), false);
+            intact = journal.size();
+            journal.offer("2", 200, bytes("two"), false);
+            journal.offer("3", 300, bytes("three"), false);
+        }
+
+        // Flip the last byte of the second record, replay stops in front of it.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            channel.read(header, intact);
+            long last = intact + 8 + header.getInt(0) - 1;
+
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, last);
+            b.put(0, (byte) ~b.get(0));
+            b.rewind();
+            channel.write(b, last);
+        }
+
+        try (TaskJournal journal = new TaskJournal(file, SEGMENT_SIZE, false)) {
+            Assertions.assertEquals(Arrays.asList("1"), new ArrayList<>(journal.open().keySet()));
+            Assertions.assertEquals(intact, journal.size());
+        }
+    }
+
+    @Test
+    void testGrow() throws IOException {
+        Path file = this.dir.resolve("grow.journal");
+        byte[] task = new byte[100];
+        try (TaskJournal journal = new TaskJournal(file, SEGMENT_SIZE, false)) {
+            journal.open();
+            for (int i = 0; i < 200; i++) {
+                journal.offer(String.valueOf(i), i, task, false);
+            }
+
+            Assertions.assertTrue(journal.size() > 4 * SEGMENT_SIZE, "size:" + journal.size());
+        }
+
+        Assertions.assertTrue(Files.size(file) > 4 * SEGMENT_SIZE);
+        try (TaskJournal journal = new TaskJournal(file, SEGMENT_SIZE, false)) {
+            Map<String, TaskJournal.Record> lives = journal.open();
+            Assertions.assertEquals(200, lives.size());
+            Assertions.assertEquals(199, lives.get("199").due());
+        }
+    }
+
+    @Test
+    void testShouldCompact() {
+        try (TaskJournal journal = new TaskJournal(this.dir.resolve("should.journal"), SEGMENT_SIZE, false)) {
+            journal.open();
+            journal.offer("1", 100, bytes("one"), false);
+            journal.offer("2", 200, bytes("two"), false);
+            Assertions.assertFalse(journal.shouldCompact(0));
+
+            // Re-offers replace, they do not add live records.
+            journal.offer("1", 150, bytes("one"), true);
+            journal.offer("1", 160, bytes("one"), true);
+            journal.offer("1", 170, bytes("one"), true);
+            Assertions.assertTrue(journal.shouldCompact(0));
+            Assertions.assertFalse(journal.shouldCompact(Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void testCompact() {
+        Path file = this.dir.resolve("compact.journal");
+        try (TaskJournal journal = new TaskJournal(file, SEGMENT_SIZE, false)) {
+            journal.open();
+            for (int i = 0; i < 10; i++) {
+                journal.offer(String.valueOf(i), i, bytes("task-" + i), false);
+            }
+            for (int i = 0; i < 8; i++) {
+                journal.remove(String.valueOf(i));
+            }
+            Assertions.assertTrue(journal.shouldCompact(0));
+
+            List<TaskJournal.Record> lives = Arrays.asList(
+                    new TaskJournal.Record("8", 8, bytes("task-8")),
+                    new TaskJournal.Record("9", 9, bytes("task-9"))
+            );
+            TaskJournal.Checkpoint checkpoint = journal.checkpoint();
+            long before = journal.size();
+
+            // Appended between the snapshot and the rewrite.
+            journal.remove("8");
+            journal.offer("10", 10, bytes("task-10"), false);
+
+            journal.compact(lives, checkpoint);
+            Assertions.assertTrue(journal.size() < before, "size:" + journal.size() + ",before:" + before);
+            Assertions.assertFalse(journal.shouldCompact(0));
+            Assertions.assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".compact")));
+
+            journal.offer("11", 11, bytes("task-11"), false);
+        }
+
+        try (TaskJournal journal = new TaskJournal(file, SEGMENT_SIZE, false)) {
+            Map<String, TaskJournal.Record> lives = journal.open();
+            Assertions.assertEquals(Arrays.asList("9", "10", "11"), new ArrayList<>(lives.keySet()));
+            Assertions.assertArrayEquals(bytes("task-10"), lives.get("10").task());
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
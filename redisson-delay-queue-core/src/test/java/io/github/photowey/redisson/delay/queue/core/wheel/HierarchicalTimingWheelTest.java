@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.wheel;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code HierarchicalTimingWheelTest}
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK_MILLIS = 10;
+    private static final int SIZE = 8;
+
+    private static final ThreadFactory REAPER = (runnable) -> {
+        Thread thread = new Thread(runnable, "wheel-test-reaper");
+        thread.setDaemon(true);
+        return thread;
+    };
+
+    @Test
+    void testFiringOrder() throws InterruptedException {
+        // The wheel spans 80ms: 150 and 300 start in the overflow wheels and move down as the clock advances.
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MILLIS, SIZE, Runnable::run, REAPER);
+        List<Long> fired = Collections.synchronizedList(new ArrayList<>());
+        List<String> early = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(4);
+        long started = System.nanoTime();
+        try {
+            for (long delay : new long[]{300, 20, 150, 60}) {
+                wheel.schedule(() -> {
+                    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    if (elapsed < delay - TICK_MILLIS) {
+                        early.add("delay:" + delay + ",elapsed:" + elapsed);
+                    }
+                    fired.add(delay);
+                    latch.countDown();
+                }, delay);
+            }
+            Assertions.assertEquals(4, wheel.size());
+
+            Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(Arrays.asList(20L, 60L, 150L, 300L), fired);
+            Assertions.assertTrue(early.isEmpty(), early.toString());
+            Assertions.assertEquals(0, wheel.size());
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    void testRunsRightAwayIfNotPositive() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MILLIS, SIZE, Runnable::run, REAPER);
+        CountDownLatch latch = new CountDownLatch(2);
+        try {
+            wheel.schedule(latch::countDown, 0);
+            wheel.schedule(latch::countDown, -1);
+
+            Assertions.assertEquals(0, latch.getCount());
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    void testCancel() throws InterruptedException {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MILLIS, SIZE, Runnable::run, REAPER);
+        List<String> fired = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            Runnable cancel = wheel.schedule(() -> fired.add("cancelled"), 50);
+            Runnable overflow = wheel.schedule(() -> fired.add("cancelled.overflow"), 120);
+            wheel.schedule(() -> {
+                fired.add("sentinel");
+                latch.countDown();
+            }, 200);
+
+            cancel.run();
+            overflow.run();
+            Assertions.assertEquals(1, wheel.size());
+
+            Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(Collections.singletonList("sentinel"), fired);
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    void testStop() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MILLIS, SIZE, Runnable::run, REAPER);
+        Runnable near = () -> {};
+        Runnable far = () -> {};
+        Runnable cancelled = () -> {};
+
+        wheel.schedule(near, 60_000);
+        wheel.schedule(far, 600_000);
+        wheel.schedule(cancelled, 60_000).run();
+
+        List<Runnable> pending = wheel.stop();
+        Assertions.assertEquals(2, pending.size());
+        Assertions.assertTrue(pending.contains(near));
+        Assertions.assertTrue(pending.contains(far));
+        Assertions.assertEquals(0, wheel.size());
+
+        Assertions.assertThrows(RejectedExecutionException.class, () -> wheel.schedule(() -> {}, 10));
+    }
+}
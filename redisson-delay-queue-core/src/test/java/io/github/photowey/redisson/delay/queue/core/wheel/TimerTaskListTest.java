@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.wheel;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code TimerTaskListTest}
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+class TimerTaskListTest {
+
+    private final AtomicInteger counter = new AtomicInteger(0);
+
+    @Test
+    void testFlushInOrder() {
+        TimerTaskList list = new TimerTaskList(this.counter);
+        TimerTaskEntry first = new TimerTaskEntry(1, () -> {});
+        TimerTaskEntry second = new TimerTaskEntry(1, () -> {});
+        TimerTaskEntry third = new TimerTaskEntry(1, () -> {});
+        list.add(first);
+        list.add(second);
+        list.add(third);
+        Assertions.assertTrue(list.expiration(1));
+        Assertions.assertEquals(3, this.counter.get());
+
+        List<TimerTaskEntry> flushed = new ArrayList<>();
+        list.flush(flushed::add);
+
+        Assertions.assertEquals(Arrays.asList(first, second, third), flushed);
+        Assertions.assertEquals(0, this.counter.get());
+        Assertions.assertEquals(-1, list.expiration());
+        Assertions.assertNull(first.list);
+    }
+
+    @Test
+    void testRemove() {
+        TimerTaskList list = new TimerTaskList(this.counter);
+        TimerTaskEntry kept = new TimerTaskEntry(1, () -> {});
+        TimerTaskEntry cancelled = new TimerTaskEntry(1, () -> {});
+        list.add(kept);
+        list.add(cancelled);
+
+        cancelled.cancel();
+        Assertions.assertTrue(cancelled.cancelled());
+        Assertions.assertEquals(1, this.counter.get());
+
+        // Not in the list anymore, a no-op.
+        list.remove(cancelled);
+        Assertions.assertEquals(1, this.counter.get());
+
+        List<TimerTaskEntry> flushed = new ArrayList<>();
+        list.flush(flushed::add);
+        Assertions.assertEquals(Arrays.asList(kept), flushed);
+    }
+
+    @Test
+    void testMove() {
+        TimerTaskList from = new TimerTaskList(this.counter);
+        TimerTaskList to = new TimerTaskList(this.counter);
+        TimerTaskEntry entry = new TimerTaskEntry(1, () -> {});
+
+        from.add(entry);
+        to.add(entry);
+        Assertions.assertSame(to, entry.list);
+        Assertions.assertEquals(1, this.counter.get());
+
+        List<TimerTaskEntry> flushed = new ArrayList<>();
+        from.flush(flushed::add);
+        Assertions.assertTrue(flushed.isEmpty());
+    }
+
+    @Test
+    void testExpiration() {
+        TimerTaskList list = new TimerTaskList(this.counter);
+
+        Assertions.assertTrue(list.expiration(10));
+        Assertions.assertFalse(list.expiration(10));
+        Assertions.assertTrue(list.expiration(20));
+        Assertions.assertEquals(20, list.expiration());
+    }
+}
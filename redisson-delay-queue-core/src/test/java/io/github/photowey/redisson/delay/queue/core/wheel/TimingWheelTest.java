@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.core.wheel;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code TimingWheelTest}
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+class TimingWheelTest {
+
+    private final AtomicInteger counter = new AtomicInteger(0);
+    private final DelayQueue<TimerTaskList> queue = new DelayQueue<>();
+
+    /**
+     * tick 1, size 4: the levels span 4, 16, 64, 256.
+     */
+    private final TimingWheel wheel = new TimingWheel(1, 4, 0, this.counter, this.queue);
+
+    @Test
+    void testAdd() {
+        Assertions.assertTrue(this.wheel.add(entry(2)));
+        // The same bucket is queued once.
+        Assertions.assertTrue(this.wheel.add(entry(2)));
+        Assertions.assertEquals(1, this.queue.size());
+
+        Assertions.assertTrue(this.wheel.add(entry(3)));
+        Assertions.assertEquals(2, this.queue.size());
+        Assertions.assertEquals(3, this.counter.get());
+    }
+
+    @Test
+    void testOverflow() {
+        // Level 2: tick 4, the bucket expires at 8.
+        Assertions.assertTrue(this.wheel.add(entry(10)));
+        // Level 4: tick 64, the bucket expires at 64.
+        Assertions.assertTrue(this.wheel.add(entry(100)));
+        Assertions.assertEquals(2, this.queue.size());
+        Assertions.assertEquals(2, this.counter.get());
+
+        long[] expirations = this.queue.stream().mapToLong(TimerTaskList::expiration).sorted().toArray();
+        Assertions.assertArrayEquals(new long[]{8, 64}, expirations);
+    }
+
+    @Test
+    void testExpiredOrCancelled() {
+        Assertions.assertFalse(this.wheel.add(entry(0)));
+
+        TimerTaskEntry cancelled = entry(2);
+        cancelled.cancel();
+        Assertions.assertFalse(this.wheel.add(cancelled));
+
+        Assertions.assertEquals(0, this.queue.size());
+        Assertions.assertEquals(0, this.counter.get());
+    }
+
+    @Test
+    void testAdvance() {
+        Assertions.assertTrue(this.wheel.add(entry(10)));
+
+        // Past 10, the entry must run now.
+        this.wheel.advance(11);
+        Assertions.assertFalse(this.wheel.add(entry(10)));
+        // Within the first level again.
+        Assertions.assertTrue(this.wheel.add(entry(12)));
+    }
+
+    private static TimerTaskEntry entry(long expiration) {
+        return new TimerTaskEntry(expiration, () -> {});
+    }
+}
@@ -64,6 +64,10 @@ public abstract class AbstractRedissonDelayqueueStarterConfigure {
         Config config = new Config();
         // Only supports single server now.
         this.populateSingleServerConfig(properties, config);
+        if (properties.delayed().engine().local()) {
+            // The embedded engine needs no Redis, never connect unless something else uses the client.
+            config.setLazyInitialization(true);
+        }
 
         return Redisson.create(config);
     }
@@ -15,6 +15,8 @@
  */
 package io.github.photowey.redisson.delay.queue.spring.boot.starter.config;
 
+import io.github.photowey.redisson.delay.queue.autoconfigure.config.RedissonDelayqueueActuatorConfigure;
+import io.github.photowey.redisson.delay.queue.autoconfigure.config.RedissonDelayqueueMetricsConfigure;
 import io.github.photowey.redisson.delay.queue.autoconfigure.config.RedissonDelayqueueAutoConfigure;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -31,6 +33,8 @@ import org.springframework.context.annotation.Import;
 @Configuration
 @Import(value = {
         RedissonDelayqueueAutoConfigure.class,
+        RedissonDelayqueueMetricsConfigure.class,
+        RedissonDelayqueueActuatorConfigure.class,
 })
 @ConditionalOnMissingClass("org.springframework.boot.autoconfigure.AutoConfiguration")
 @ConditionalOnProperty(name = "spring.redis.redisson.delayqueue.enabled", havingValue = "true", matchIfMissing = false)
@@ -15,14 +15,23 @@
  */
 package io.github.photowey.redisson.delay.queue.spring.boot.starter.config;
 
+import io.github.photowey.redisson.delay.queue.api.delayed.CompositeReactiveRedissonDelayedQueue;
+import io.github.photowey.redisson.delay.queue.api.delayed.ReactiveRedissonDelayedQueue;
+import io.github.photowey.redisson.delay.queue.api.delayed.RedissonDelayedQueue;
+import io.github.photowey.redisson.delay.queue.api.executor.DelayedQueueThreadFactory;
 import io.github.photowey.redisson.delay.queue.api.macher.DefaultDelayedAntPathMatcher;
 import io.github.photowey.redisson.delay.queue.api.macher.DelayedAntPathMatcher;
 import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import io.github.photowey.redisson.delay.queue.spring.boot.starter.thread.VirtualThreadDelayedQueueThreadFactory;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
+import org.redisson.api.RedissonReactiveClient;
 import org.redisson.config.Config;
 import org.redisson.config.SingleServerConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.system.JavaVersion;
 import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.env.Environment;
@@ -48,6 +57,27 @@ public abstract class AbstractRedissonDelayqueueStarterConfigure {
         return this.populateRedissonClient(redissonProperties);
     }
 
+    @Bean
+    @ConditionalOnMissingBean(RedissonReactiveClient.class)
+    public RedissonReactiveClient redissonReactive(RedissonClient redisson) {
+        return redisson.reactive();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(ReactiveRedissonDelayedQueue.class)
+    public ReactiveRedissonDelayedQueue reactiveRedissonDelayedQueue(
+            RedissonDelayedQueue redissonDelayedQueue, RedissonReactiveClient redissonReactive) {
+        return new CompositeReactiveRedissonDelayedQueue(redissonDelayedQueue, redissonReactive);
+    }
+
+    @Bean
+    @ConditionalOnJava(JavaVersion.TWENTY_ONE)
+    @ConditionalOnProperty(name = "spring.redis.redisson.delayqueue.delayed.dispatch.mode", havingValue = "VIRTUAL")
+    @ConditionalOnMissingBean(DelayedQueueThreadFactory.class)
+    public DelayedQueueThreadFactory virtualThreadDelayedQueueThreadFactory() {
+        return new VirtualThreadDelayedQueueThreadFactory();
+    }
+
     @Bean
     @ConditionalOnMissingBean(DelayedAntPathMatcher.class)
     public DelayedAntPathMatcher delayedAntPathMatcher() {
@@ -64,6 +94,10 @@ public abstract class AbstractRedissonDelayqueueStarterConfigure {
         Config config = new Config();
         // Only supports single server now.
         this.populateSingleServerConfig(properties, config);
+        if (properties.delayed().engine().local()) {
+            // The embedded engine needs no Redis, never connect unless something else uses the client.
+            config.setLazyInitialization(true);
+        }
 
         return Redisson.create(config);
     }
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.spring.boot.starter.thread;
+
+import io.github.photowey.redisson.delay.queue.api.executor.DelayedQueueThreadFactory;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * {@code VirtualThreadDelayedQueueThreadFactory}
+ * <p>
+ * Java 21 only.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/13
+ */
+public class VirtualThreadDelayedQueueThreadFactory implements DelayedQueueThreadFactory {
+
+    private static final String DISPATCHER_NAME_PREFIX = "redisson-delayqueue-dispatcher-virtual-";
+
+    private final ThreadFactory dispatcher;
+
+    public VirtualThreadDelayedQueueThreadFactory() {
+        this.dispatcher = new VirtualThreadTaskExecutor(DISPATCHER_NAME_PREFIX).getVirtualThreadFactory();
+    }
+
+    @Override
+    public ThreadFactory dispatcher() {
+        return this.dispatcher;
+    }
+}
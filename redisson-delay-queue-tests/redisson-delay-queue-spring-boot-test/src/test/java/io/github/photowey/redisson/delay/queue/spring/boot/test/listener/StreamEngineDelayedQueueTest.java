@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.redisson.delay.queue.spring.boot.test.listener;
+
+import io.github.photowey.redisson.delay.queue.api.delayed.RedissonDelayedQueue;
+import io.github.photowey.redisson.delay.queue.api.property.RedissonProperties;
+import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
+import io.github.photowey.redisson.delay.queue.spring.boot.test.App;
+import io.github.photowey.redisson.delay.queue.spring.boot.test.core.counter.Counter;
+import io.github.photowey.redisson.delay.queue.spring.boot.test.core.payload.HelloPayload;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamGroup;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.photowey.spring.infras.common.future.Sleepers.sleep;
+
+/**
+ * {@code StreamEngineDelayedQueueTest}
+ * <p>
+ * Runs the topics on {@code engine.type=STREAM}.
+ *
+ * @author photowey
+ * @version 1.0.0
+ * @since 2024/05/12
+ */
+@SpringBootTest(classes = App.class, properties = "spring.redis.redisson.delayqueue.delayed.engine.type=STREAM")
+class StreamEngineDelayedQueueTest {
+
+    private static final String TOPIC = "io.github.photowey.hello.world.delayed.query.delayqueue.topic";
+
+    @Autowired
+    private Counter counter;
+
+    @Autowired
+    private RedissonDelayedQueue delayedQueue;
+
+    @Autowired
+    private RedissonProperties props;
+
+    @Autowired
+    private RedissonClient redisson;
+
+    @Test
+    void testStreamEngine_offer_dispatch_ack() {
+        this.counter.clean();
+
+        for (int i = 0; i < 2; i++) {
+            HelloPayload payload = HelloPayload.builder()
+                    .id(1760223724043808770L)
+                    .name("photowey" + (i + 1))
+                    .age(18 + i)
+                    .build();
+
+            RedissonDelayedTask<Serializable> task = RedissonDelayedTask.builder()
+                    .topic(TOPIC)
+                    .taskId("io.github.photowey.delayed.queue.single.stream." + (i + 1))
+                    .payload(payload)
+                    .delayed((i + 1) * 2)
+                    .timeUnit(TimeUnit.SECONDS.name())
+                    .build();
+
+            this.delayedQueue.offer(task);
+        }
+
+        sleep(10_000);
+        Assertions.assertEquals(1, this.counter.registers().size());
+        Assertions.assertTrue(this.counter.registers().contains(SingleDelayedQueueEventListener.class.getSimpleName()));
+
+        RedissonProperties.Engine engine = this.props.delayed().engine();
+        RStream<byte[], byte[]> stream = this.redisson.getStream(engine.prefix() + ":{" + TOPIC + "}:stream", ByteArrayCodec.INSTANCE);
+        Assertions.assertTrue(stream.listGroups().stream()
+                .map(StreamGroup::getName)
+                .anyMatch(engine.stream().group()::equals));
+        // Acknowledged entries are deleted.
+        Assertions.assertEquals(0, stream.size());
+    }
+}
@@ -15,7 +15,9 @@
  */
 package io.github.photowey.redisson.delay.queue.spring.boot.test.listener;
 
+import io.github.photowey.redisson.delay.queue.api.delayed.ReactiveRedissonDelayedQueue;
 import io.github.photowey.redisson.delay.queue.api.delayed.RedissonDelayedQueue;
+import io.github.photowey.redisson.delay.queue.core.task.OfferResult;
 import io.github.photowey.redisson.delay.queue.core.task.RedissonDelayedTask;
 import io.github.photowey.redisson.delay.queue.spring.boot.test.App;
 import io.github.photowey.redisson.delay.queue.spring.boot.test.core.counter.Counter;
@@ -24,9 +26,13 @@ import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
+import reactor.core.publisher.Flux;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static io.github.photowey.spring.infras.common.future.Sleepers.sleep;
@@ -250,4 +256,165 @@ class RedissonDelayedQueueTest {
         Assertions.assertTrue(this.counter.registers().contains(AntSingleDelayedQueueEventListener.class.getSimpleName()));
         Assertions.assertTrue(this.counter.registers().contains(AntMultiDelayedQueueEventListener.class.getSimpleName()));
     }
+
+    @Test
+    @Order(8)
+    void testRedissonDelayedQueue_offer_all() {
+        this.counter.clean();
+
+        RedissonDelayedQueue delayedQueue = this.applicationContext().getBean(RedissonDelayedQueue.class);
+
+        List<RedissonDelayedTask<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            HelloPayload payload = HelloPayload.builder()
+                    .id(1760223724043808770L)
+                    .name("photowey" + (i + 1))
+                    .age(18 + i)
+                    .build();
+
+            RedissonDelayedTask<Serializable> task = RedissonDelayedTask.builder()
+                    .topic("io.github.photowey.hello.world.delayed.query.delayqueue.topic")
+                    .taskId("io.github.photowey.delayed.queue.single.batch." + (i + 1))
+                    .payload(payload)
+                    .delayed((i + 1) * 5)
+                    .timeUnit(TimeUnit.SECONDS.name())
+                    .build();
+
+            tasks.add(task);
+        }
+
+        RedissonDelayedTask<Serializable> unregistered = RedissonDelayedTask.builder()
+                .topic("io.github.photowey.unregistered.delayqueue.topic")
+                .taskId("io.github.photowey.delayed.queue.single.batch.unregistered")
+                .payload("hello.redisson.delayqueue")
+                .delayed(5)
+                .timeUnit(TimeUnit.SECONDS.name())
+                .build();
+        tasks.add(unregistered);
+
+        List<OfferResult> results = delayedQueue.offerAll(tasks);
+
+        Assertions.assertEquals(3, results.size());
+        Assertions.assertTrue(results.get(0).success());
+        Assertions.assertTrue(results.get(1).success());
+        Assertions.assertTrue(results.get(2).failed());
+
+        sleep(12_000);
+        Assertions.assertEquals(1, this.counter.registers().size());
+        Assertions.assertTrue(this.counter.registers().contains(SingleDelayedQueueEventListener.class.getSimpleName()));
+    }
+
+    @Test
+    @Order(9)
+    void testRedissonDelayedQueue_offer_async() {
+        this.counter.clean();
+
+        RedissonDelayedQueue delayedQueue = this.applicationContext().getBean(RedissonDelayedQueue.class);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            HelloPayload payload = HelloPayload.builder()
+                    .id(1760223724043808770L)
+                    .name("photowey" + (i + 1))
+                    .age(18 + i)
+                    .build();
+
+            RedissonDelayedTask<Serializable> task = RedissonDelayedTask.builder()
+                    .topic("io.github.photowey.hello.world.delayed.query.delayqueue.topic")
+                    .taskId("io.github.photowey.delayed.queue.single.async." + (i + 1))
+                    .payload(payload)
+                    .delayed((i + 1) * 5)
+                    .timeUnit(TimeUnit.SECONDS.name())
+                    .build();
+
+            futures.add(delayedQueue.offerAsync(task).toCompletableFuture());
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        sleep(12_000);
+        Assertions.assertEquals(1, this.counter.registers().size());
+        Assertions.assertTrue(this.counter.registers().contains(SingleDelayedQueueEventListener.class.getSimpleName()));
+    }
+
+    @Test
+    @Order(10)
+    void testReactiveRedissonDelayedQueue_offer() {
+        this.counter.clean();
+
+        ReactiveRedissonDelayedQueue delayedQueue = this.applicationContext().getBean(ReactiveRedissonDelayedQueue.class);
+
+        Flux.range(1, 2)
+                .map(i -> RedissonDelayedTask.builder()
+                        .topic("io.github.photowey.hello.world.delayed.query.delayqueue.topic")
+                        .taskId("io.github.photowey.delayed.queue.single.reactive." + i)
+                        .payload(HelloPayload.builder()
+                                .id(1760223724043808770L)
+                                .name("photowey" + i)
+                                .age(17 + i)
+                                .build())
+                        .delayed(i * 5L)
+                        .timeUnit(TimeUnit.SECONDS.name())
+                        .build())
+                .concatMap(delayedQueue::offer)
+                .blockLast();
+
+        sleep(12_000);
+        Assertions.assertEquals(1, this.counter.registers().size());
+        Assertions.assertTrue(this.counter.registers().contains(SingleDelayedQueueEventListener.class.getSimpleName()));
+    }
+
+    @Test
+    @Order(11)
+    void testRedissonDelayedQueue_cancel() {
+        this.counter.clean();
+
+        RedissonDelayedQueue delayedQueue = this.applicationContext().getBean(RedissonDelayedQueue.class);
+
+        HelloPayload payload = HelloPayload.builder()
+                .id(1760223724043808770L)
+                .name("photowey")
+                .age(18)
+                .build();
+
+        RedissonDelayedTask<Serializable> task = RedissonDelayedTask.builder()
+                .topic("io.github.photowey.hello.world.delayed.query.delayqueue.topic")
+                .taskId("io.github.photowey.delayed.queue.single.cancel.1")
+                .payload(payload)
+                .delayed(5)
+                .timeUnit(TimeUnit.SECONDS.name())
+                .build();
+
+        delayedQueue.offer(task);
+
+        Assertions.assertTrue(delayedQueue.cancel(task.taskId()));
+        Assertions.assertFalse(delayedQueue.cancel(task.taskId()));
+
+        sleep(8_000);
+        Assertions.assertEquals(0, this.counter.registers().size());
+    }
+
+    @Test
+    @Order(12)
+    void testRedissonDelayedQueue_cancel_topic() {
+        this.counter.clean();
+
+        RedissonDelayedQueue delayedQueue = this.applicationContext().getBean(RedissonDelayedQueue.class);
+
+        RedissonDelayedTask<Serializable> task = RedissonDelayedTask.builder()
+                .topic("io.github.photowey.hello.world.delayed.query.delayqueue.topic")
+                .taskId("io.github.photowey.delayed.queue.single.cancel.2")
+                .payload("hello.redisson.delayqueue")
+                .delayed(5)
+                .timeUnit(TimeUnit.SECONDS.name())
+                .build();
+
+        delayedQueue.offer(task);
+
+        Assertions.assertTrue(delayedQueue.cancel(task.topic(), task.taskId()));
+        Assertions.assertFalse(delayedQueue.cancel(task.topic(), task.taskId()));
+
+        sleep(8_000);
+        Assertions.assertEquals(0, this.counter.registers().size());
+    }
 }
\ No newline at end of file